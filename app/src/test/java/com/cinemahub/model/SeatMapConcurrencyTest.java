@@ -0,0 +1,171 @@
+package com.cinemahub.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many threads claim and release seats of a few showtimes at once through
+ * every {@link SeatMap} claim method. Each claimed seat is recorded in a shadow
+ * ownership table, so a seat handed to two owners at once is caught, and the
+ * free-seat counters are checked against the bitset afterwards.
+ *
+ * @author Wasana Karunanayaka
+ */
+class SeatMapConcurrencyTest {
+    private static final int THREADS = 64;
+    private static final int CLAIMS_PER_THREAD = 20_000;
+    private static final int SHOWTIMES = 4; // Few showtimes = heavy contention
+
+    @Test
+    void concurrentClaimsNeverShareASeatOrDriftTheCounters() throws InterruptedException {
+        SeatLayout layout = SeatLayout.DEFAULT;
+        SeatMap[] maps = new SeatMap[SHOWTIMES];
+        AtomicIntegerArray[] owners = new AtomicIntegerArray[SHOWTIMES];
+        for (int i = 0; i < SHOWTIMES; i++) {
+            maps[i] = new SeatMap(layout);
+            owners[i] = new AtomicIntegerArray(layout.size());
+        }
+        AtomicLong claims = new AtomicLong();
+        AtomicLong doubleBookings = new AtomicLong();
+        Seat.SeatType[] types = Seat.SeatType.values();
+
+        runConcurrently(ownerId -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < CLAIMS_PER_THREAD; i++) {
+                int show = random.nextInt(SHOWTIMES);
+                Seat.SeatType type = types[random.nextInt(types.length)];
+                int[] seats = switch (random.nextInt(4)) {
+                    case 0 -> claimExact(maps[show], random);
+                    case 1 -> maps[show].reserveBest(type, 1 + random.nextInt(4));
+                    default -> maps[show].reserve(type, 1 + random.nextInt(4));
+                };
+                if (seats == null) {
+                    continue;
+                }
+                claims.incrementAndGet();
+                for (int seat : seats) {
+                    if (!owners[show].compareAndSet(seat, 0, ownerId)) {
+                        doubleBookings.incrementAndGet();
+                    }
+                }
+                // Hand the seats back so the run keeps contending rather than selling out
+                for (int seat : seats) {
+                    owners[show].compareAndSet(seat, ownerId, 0);
+                    maps[show].release(seat);
+                }
+            }
+        });
+
+        assertEquals(0, doubleBookings.get(), "seats claimed by two owners at once");
+        for (SeatMap map : maps) {
+            for (Seat.SeatType type : types) {
+                assertEquals(freeBits(map, type), map.getAvailableCount(type), "counter drift for " + type);
+                assertEquals(layout.getSeatCount(type), map.getAvailableCount(type), "seats left taken");
+            }
+        }
+        assertTrue(claims.get() > 0, "no claim succeeded");
+    }
+
+    @Test
+    void concurrentBuyersSellEachSeatExactlyOnce() throws InterruptedException {
+        SeatLayout layout = SeatLayout.DEFAULT;
+        SeatMap map = new SeatMap(layout);
+        AtomicIntegerArray owners = new AtomicIntegerArray(layout.size());
+        AtomicLong doubleBookings = new AtomicLong();
+        Seat.SeatType[] types = Seat.SeatType.values();
+
+        // Nobody releases, so the showtime sells out and every seat must end up with exactly one owner
+        runConcurrently(ownerId -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < layout.size(); i++) {
+                int[] seats = map.reserveBest(types[random.nextInt(types.length)], 1 + random.nextInt(3));
+                if (seats == null) {
+                    seats = map.reserve(types[random.nextInt(types.length)], 1);
+                }
+                if (seats == null) {
+                    continue;
+                }
+                for (int seat : seats) {
+                    if (!owners.compareAndSet(seat, 0, ownerId)) {
+                        doubleBookings.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        assertEquals(0, doubleBookings.get(), "seats sold twice");
+        for (Seat.SeatType type : types) {
+            assertEquals(0, map.getAvailableCount(type), "unsold " + type + " seats");
+            assertEquals(0, freeBits(map, type), "counter drift for " + type);
+        }
+        for (int seat = 0; seat < layout.size(); seat++) {
+            if (layout.isSeat(seat)) {
+                assertTrue(owners.get(seat) != 0, "seat " + seat + " taken without an owner");
+            }
+        }
+    }
+
+    interface Worker {
+        void run(int ownerId) throws Exception;
+    }
+
+    // Starts THREADS workers together and waits for them; a worker's exception fails the test
+    static void runConcurrently(Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int ownerId = t + 1;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(ownerId);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, "seat-stress-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("worker failed", failures.get(0));
+        }
+    }
+
+    static int freeBits(SeatMap map, Seat.SeatType type) {
+        SeatLayout layout = map.getLayout();
+        int free = 0;
+        for (int seat = 0; seat < layout.size(); seat++) {
+            if (layout.isSeat(seat) && layout.getSeatType(seat) == type && map.isAvailable(seat)) {
+                free++;
+            }
+        }
+        return free;
+    }
+
+    // Picks a random run of up to four adjacent seats and claims them all-or-nothing
+    private static int[] claimExact(SeatMap map, ThreadLocalRandom random) {
+        int count = 1 + random.nextInt(4);
+        int first = random.nextInt(map.getLayout().size() - count);
+        int[] seats = new int[count];
+        for (int i = 0; i < count; i++) {
+            seats[i] = first + i;
+        }
+        return map.reserveAll(seats) ? seats : null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.cinemahub.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.SeatMap;
+import com.cinemahub.model.ShowTime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the production hold path, {@link SeatHoldManager} over
+ * {@link SeatFeed}, from many threads at once while a subscriber follows the
+ * feed. No seat may be held twice, the seat map's counters must match its
+ * bitset, and once the feed has caught up the subscriber's view must match the
+ * seat map.
+ *
+ * @author Wasana Karunanayaka
+ */
+class SeatHoldConcurrencyTest {
+    private static final int THREADS = 64;
+    private static final int HOLDS_PER_THREAD = 5_000;
+    private static final int SHOWTIME_ID = 900_001; // Apart from anything else using the singletons
+
+    @Test
+    void concurrentHoldsNeverShareASeatAndTheFeedConverges() throws Exception {
+        SeatHoldManager holds = SeatHoldManager.getSeatHoldManager();
+        SeatFeed feed = SeatFeed.getSeatFeed();
+        ShowTime showTime = new ShowTime(1, 600, SeatLayout.DEFAULT);
+        showTime.setId(SHOWTIME_ID);
+        SeatMap seatMap = showTime.getSeatMap();
+        SeatLayout layout = seatMap.getLayout();
+
+        boolean[] view = new boolean[layout.size()]; // Taken seats as the subscriber sees them; guarded by view
+        long[] lastSequence = new long[1];
+        AtomicLong outOfOrder = new AtomicLong();
+        AtomicIntegerArray owners = new AtomicIntegerArray(layout.size());
+        AtomicLong doubleHolds = new AtomicLong();
+        AtomicLong granted = new AtomicLong();
+        Seat.SeatType[] types = Seat.SeatType.values();
+
+        try (SeatFeed.Subscription subscription = feed.subscribe(SHOWTIME_ID, delta -> {
+            synchronized (view) {
+                if (delta.sequence() <= lastSequence[0]) {
+                    outOfOrder.incrementAndGet();
+                }
+                lastSequence[0] = delta.sequence();
+                for (int seat : delta.taken()) {
+                    view[seat] = true;
+                }
+                for (int seat : delta.released()) {
+                    view[seat] = false;
+                }
+            }
+        })) {
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int ownerId = t + 1;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < HOLDS_PER_THREAD; i++) {
+                        SeatHold hold = holds.hold(showTime, types[random.nextInt(types.length)],
+                                1 + random.nextInt(3), 1, TimeUnit.MINUTES);
+                        if (hold == null) {
+                            continue;
+                        }
+                        granted.incrementAndGet();
+                        for (int seat : hold.getSeatIndices()) {
+                            if (!owners.compareAndSet(seat, 0, ownerId)) {
+                                doubleHolds.incrementAndGet();
+                            }
+                        }
+                        for (int seat : hold.getSeatIndices()) {
+                            owners.compareAndSet(seat, ownerId, 0);
+                        }
+                        assertTrue(holds.release(hold), "hold released twice");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(); // Rethrows a worker's failure
+            }
+            pool.shutdown();
+
+            assertTrue(granted.get() > 0, "no hold was granted");
+            assertEquals(0, doubleHolds.get(), "seats held by two buyers at once");
+            for (Seat.SeatType type : types) {
+                assertEquals(layout.getSeatCount(type), seatMap.getAvailableCount(type), "counter drift for " + type);
+            }
+            for (int seat = 0; seat < layout.size(); seat++) {
+                if (layout.isSeat(seat)) {
+                    assertTrue(seatMap.isAvailable(seat), "seat " + seat + " left taken");
+                }
+            }
+            // Leave some seats held, so the view has to show them rather than its initial all-free state
+            SeatHold kept = holds.hold(showTime, Seat.SeatType.values()[0], 4, 1, TimeUnit.MINUTES);
+            assertTrue(kept != null, "no seats left to hold");
+            assertTrue(awaitView(view, seatMap), "subscriber's view never matched the seat map");
+            holds.release(kept);
+            assertEquals(0, outOfOrder.get(), "deltas delivered out of sequence");
+        }
+    }
+
+    // Waits for the feed to deliver the final state
+    private static boolean awaitView(boolean[] view, SeatMap seatMap) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            synchronized (view) {
+                boolean matches = true;
+                for (int seat = 0; seat < view.length && matches; seat++) {
+                    matches = !seatMap.getLayout().isSeat(seat) || view[seat] != seatMap.isAvailable(seat);
+                }
+                if (matches) {
+                    return true;
+                }
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
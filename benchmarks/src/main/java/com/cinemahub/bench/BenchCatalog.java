@@ -0,0 +1,67 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.WeekTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic synthetic movies for benchmarks, so in-memory and database
+ * runs use the same titles.
+ *
+ * @author Wasana Karunanayaka
+ */
+final class BenchCatalog {
+    private static final String[] ADJECTIVES = { "Silent", "Broken", "Golden", "Hidden", "Last", "Crimson",
+            "Frozen", "Burning", "Endless", "Shattered", "Midnight", "Wild", "Distant", "Electric", "Hollow",
+            "Savage", "Quiet", "Fallen", "Bright", "Lost" };
+    private static final String[] NOUNS = { "River", "Empire", "Horizon", "Garden", "Kingdom", "Signal", "Harbor",
+            "Orbit", "Forest", "Mirror", "Station", "Voyage", "Canyon", "Frontier", "Lantern", "Summit", "Echo",
+            "Island", "Citadel", "Meridian" };
+    private static final String[] GENRES = { "Action", "Drama", "Comedy", "Thriller", "Sci-Fi", "Romance" };
+    private static final String[] LANGUAGES = { "English", "Sinhala", "Tamil", "Hindi" };
+
+    private BenchCatalog() {
+    }
+
+    /**
+     * Returns the title of the i-th synthetic movie, e.g. "The Silent River" or
+     * "The Golden Orbit 3". Titles are unique.
+     */
+    static String title(int i) {
+        int base = ADJECTIVES.length * NOUNS.length;
+        String title = "The " + ADJECTIVES[i % ADJECTIVES.length] + " " + NOUNS[(i / ADJECTIVES.length) % NOUNS.length];
+        return i < base ? title : title + " " + (i / base + 1);
+    }
+
+    /**
+     * Returns the title with one letter dropped, as a customer might mistype it.
+     */
+    static String typo(int i) {
+        String title = title(i);
+        int drop = 4 + (i % Math.max(1, title.length() - 5)); // Past "The "
+        return title.substring(0, drop) + title.substring(drop + 1);
+    }
+
+    /**
+     * Builds movies in memory, each with {@code showTimesPerMovie} showtimes
+     * on screen 1. Nothing is saved.
+     */
+    static List<Movie> movies(int count, int showTimesPerMovie) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<ShowTime> showTimes = new ArrayList<>(showTimesPerMovie);
+            for (int s = 0; s < showTimesPerMovie; s++) {
+                ShowTime showTime = new ShowTime(1, (s % 7) * WeekTime.MINUTES_PER_DAY + (10 + s % 12) * 60);
+                showTime.setId(i * showTimesPerMovie + s + 1);
+                showTime.setMovieId(i + 1);
+                showTimes.add(showTime);
+            }
+            movies.add(new Movie(i + 1, title(i), LANGUAGES[i % LANGUAGES.length], GENRES[i % GENRES.length], "2D",
+                    5.0 + (i % 50) / 10.0, "2024-01-01", 120, showTimes));
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,192 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.dao.UserCache;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.WeekTime;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The scratch database used by benchmarks, configured with
+ * {@code -Dcinemahub.bench.url}, {@code .user} and {@code .password}. It is
+ * created from the application's own {@code schema.sql} so benchmarks always
+ * run against the current tables, triggers and indexes, and it is never the
+ * application database.
+ * <p>
+ * By default it is an in-memory H2 database in MySQL mode, so benchmarks need
+ * no database server. H2 cannot run the schema's MySQL triggers, so on H2 the
+ * {@code change_log} table stays empty; point the URL at a MySQL server to
+ * measure with them.
+ *
+ * @author Wasana Karunanayaka
+ */
+final class BenchDatabase {
+    static final String URL = System.getProperty("cinemahub.bench.url",
+            "jdbc:h2:mem:cinemahub_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    static final String USER = System.getProperty("cinemahub.bench.user", "root");
+    static final String PASSWORD = System.getProperty("cinemahub.bench.password", "password");
+    private static final String SCHEMA = System.getProperty("cinemahub.bench.schema", "schema.sql");
+
+    static final int SHOWTIMES_PER_MOVIE = Integer.getInteger("cinemahub.bench.showtimes", 20);
+    static final String BENCH_NIC = "BENCH";
+    static final int BENCH_USER_ID = 1; // The only user, created first
+
+    private BenchDatabase() {
+    }
+
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    /**
+     * Points the application's DAOs at the scratch database. Must be called
+     * before anything opens the connection pool.
+     */
+    static void useForApplication() {
+        System.setProperty("cinemahub.db.url", URL);
+        System.setProperty("cinemahub.db.user", USER);
+        System.setProperty("cinemahub.db.password", PASSWORD);
+    }
+
+    /**
+     * Creates the tables and triggers from the schema file, skipping its
+     * {@code CREATE DATABASE} and {@code USE} statements, and on H2 its
+     * triggers.
+     */
+    static void applySchema(Connection conn) throws SQLException {
+        String script;
+        try {
+            script = Files.readString(Path.of(SCHEMA), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read " + SCHEMA + " (set -Dcinemahub.bench.schema)", e);
+        }
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\n")) {
+            int comment = line.indexOf("--");
+            withoutComments.append(comment >= 0 ? line.substring(0, comment) : line).append('\n');
+        }
+        boolean h2 = isH2(conn);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : withoutComments.toString().split(";")) {
+                String trimmed = sql.trim();
+                String upper = trimmed.toUpperCase();
+                if (trimmed.isEmpty() || upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")
+                        || h2 && (upper.startsWith("CREATE TRIGGER") || upper.startsWith("DROP TRIGGER"))) {
+                    continue;
+                }
+                stmt.execute(trimmed);
+            }
+        }
+    }
+
+    /**
+     * Replaces the scratch catalog with {@code movieCount} movies, each with
+     * {@link #SHOWTIMES_PER_MOVIE} showtimes on screen 1. In every showtime the
+     * first {@code bookedSeats} seats are sold to a single booking.
+     */
+    static void seedCatalog(Connection conn, int movieCount, int bookedSeats) throws SQLException {
+        clearBookings(conn);
+        try (Statement stmt = conn.createStatement()) {
+            setForeignKeyChecks(stmt, false);
+            for (String table : new String[] { "showtimes", "movies", "users" }) {
+                stmt.execute("TRUNCATE TABLE " + table);
+            }
+            setForeignKeyChecks(stmt, true);
+            stmt.execute("INSERT INTO users (nic, name, email) VALUES ('" + BENCH_NIC
+                    + "', 'Bench User', 'bench@example.com')");
+        }
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement movieStmt = conn.prepareStatement("INSERT INTO movies (title, language, genre, "
+                + "format, imdb_rating, release_date, duration) VALUES (?, 'English', 'Drama', '2D', 7.5, "
+                + "'2024-01-01', 120)");
+                PreparedStatement showStmt = conn.prepareStatement(
+                        "INSERT INTO showtimes (movie_id, screen_id, start_minute, layout_id) VALUES (?, 1, ?, ?)");
+                PreparedStatement bookingStmt = conn.prepareStatement(
+                        "INSERT INTO bookings (user_id, showtime_id, total_price) VALUES (" + BENCH_USER_ID + ", ?, 0)");
+                PreparedStatement inventoryStmt = conn.prepareStatement(
+                        "INSERT INTO seat_inventory (showtime_id, seat_index, booking_id) VALUES (?, ?, ?)");
+                PreparedStatement seatStmt = conn.prepareStatement("INSERT INTO booking_seats (booking_id, "
+                        + "seat_index, seat_type, price) VALUES (?, ?, ?, 0)")) {
+            SeatLayout layout = SeatLayout.DEFAULT;
+            for (int m = 1; m <= movieCount; m++) {
+                movieStmt.setString(1, BenchCatalog.title(m - 1));
+                movieStmt.addBatch();
+                for (int s = 0; s < SHOWTIMES_PER_MOVIE; s++) {
+                    int showTimeId = (m - 1) * SHOWTIMES_PER_MOVIE + s + 1; // Fresh tables number ids from 1
+                    showStmt.setInt(1, m);
+                    // One show a day at 10:00, 11:00, ... cycling through the week
+                    showStmt.setInt(2, (s % 7) * WeekTime.MINUTES_PER_DAY + (10 + s % 12) * 60);
+                    showStmt.setInt(3, layout.getId());
+                    showStmt.addBatch();
+                    if (bookedSeats == 0) {
+                        continue;
+                    }
+                    bookingStmt.setInt(1, showTimeId);
+                    bookingStmt.addBatch();
+                    int bookingId = showTimeId; // One booking per showtime, numbered alongside
+                    for (int seat = 0; seat < Math.min(bookedSeats, layout.size()); seat++) {
+                        inventoryStmt.setInt(1, showTimeId);
+                        inventoryStmt.setInt(2, seat);
+                        inventoryStmt.setInt(3, bookingId);
+                        inventoryStmt.addBatch();
+                        seatStmt.setInt(1, bookingId);
+                        seatStmt.setInt(2, seat);
+                        seatStmt.setString(3, layout.getSeatType(seat).name());
+                        seatStmt.addBatch();
+                    }
+                }
+                if (m % 500 == 0 || m == movieCount) {
+                    movieStmt.executeBatch();
+                    showStmt.executeBatch();
+                    bookingStmt.executeBatch();
+                    inventoryStmt.executeBatch();
+                    seatStmt.executeBatch();
+                    conn.commit(); // H2 holds an open transaction's rows in memory
+                }
+            }
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE TABLE change_log"); // Seeding is not a change the catalog needs to replay
+        }
+        // Replace any ID cached for the old user. H2 also returns no key when the user upsert finds the NIC
+        UserCache.getUserCache().clear();
+        UserCache.getUserCache().put(BENCH_NIC, BENCH_USER_ID);
+    }
+
+    /**
+     * Deletes every booking and sold seat, leaving movies and showtimes.
+     */
+    static void clearBookings(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            setForeignKeyChecks(stmt, false);
+            for (String table : new String[] { "seat_inventory", "booking_seats", "bookings" }) {
+                stmt.execute("TRUNCATE TABLE " + table);
+            }
+            setForeignKeyChecks(stmt, true);
+        }
+    }
+
+    // MySQL refuses to truncate a table other tables refer to unless the checks are off
+    private static void setForeignKeyChecks(Statement stmt, boolean enabled) throws SQLException {
+        if (isH2(stmt.getConnection())) {
+            stmt.execute("SET REFERENTIAL_INTEGRITY " + enabled);
+        } else {
+            stmt.execute("SET FOREIGN_KEY_CHECKS = " + (enabled ? 1 : 0));
+        }
+    }
+
+    private static boolean isH2(Connection conn) throws SQLException {
+        return "H2".equals(conn.getMetaData().getDatabaseProductName());
+    }
+}
@@ -0,0 +1,74 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.dao.CatalogLoader;
+import com.cinemahub.model.Movie;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares catalog load time of the set-based {@link CatalogLoader#load} with
+ * the original per-movie loader ({@link PerMovieCatalogLoader}) on synthetic
+ * catalogs.
+ * <p>
+ * The benchmark seeds the scratch database (see {@link BenchDatabase}).
+ * Catalog sizes are given as arguments, e.g.
+ * {@code java com.cinemahub.bench.CatalogLoadBenchmark 10 1000 10000}.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class CatalogLoadBenchmark {
+    private static final int BOOKED_SEATS_PER_SHOWTIME = Integer.getInteger("cinemahub.bench.bookedSeats", 5);
+    private static final int WARMUP = Integer.getInteger("cinemahub.bench.warmup", 1);
+    private static final int ITERATIONS = Integer.getInteger("cinemahub.bench.iterations", 5);
+
+    public static void main(String[] args) throws SQLException {
+        int[] sizes = args.length == 0 ? new int[] { 10, 1_000, 10_000 }
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        try (Connection conn = BenchDatabase.connect()) {
+            BenchDatabase.applySchema(conn);
+            System.out.printf("%-10s %-12s %14s %14s %9s%n", "movies", "loader", "median ms", "min ms", "speedup");
+            CatalogLoader loader = new CatalogLoader();
+            for (int size : sizes) {
+                BenchDatabase.seedCatalog(conn, size, BOOKED_SEATS_PER_SHOWTIME);
+                double[] perMovie = time(conn, loader, false);
+                double[] setBased = time(conn, loader, true);
+                System.out.printf("%-10d %-12s %14.2f %14.2f%n", size, "per-movie", median(perMovie), perMovie[0]);
+                System.out.printf("%-10d %-12s %14.2f %14.2f %8.1fx%n", size, "set-based", median(setBased),
+                        setBased[0], median(perMovie) / median(setBased));
+            }
+        }
+    }
+
+    /**
+     * Runs one loader repeatedly and returns the times in milliseconds, fastest
+     * first.
+     */
+    private static double[] time(Connection conn, CatalogLoader loader, boolean setBased) throws SQLException {
+        for (int i = 0; i < WARMUP; i++) {
+            run(conn, loader, setBased);
+        }
+        double[] samples = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<Movie> movies = run(conn, loader, setBased);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+            if (movies.isEmpty()) {
+                throw new IllegalStateException("Loader returned no movies");
+            }
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double median(double[] sortedSamples) {
+        return sortedSamples[sortedSamples.length / 2];
+    }
+
+    private static List<Movie> run(Connection conn, CatalogLoader loader, boolean setBased) throws SQLException {
+        return setBased ? loader.load(conn) : PerMovieCatalogLoader.load(conn);
+    }
+}
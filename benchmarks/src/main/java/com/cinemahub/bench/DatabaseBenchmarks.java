@@ -0,0 +1,210 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.dao.BookingDAOImpl;
+import com.cinemahub.dao.MovieDAOImpl;
+import com.cinemahub.model.Booking;
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.SeatMap;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.User;
+import com.cinemahub.service.BookingManager;
+import com.cinemahub.service.MovieManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the DAOs and of the service paths that load or save through
+ * them, against the scratch database (see {@link BenchDatabase}). By default
+ * that is an in-memory H2 database in MySQL mode, created from
+ * {@code schema.sql} in each forked JVM, so no database server is needed;
+ * pass {@code -jvmArgsAppend -Dcinemahub.bench.url=jdbc:mysql://...} to
+ * measure a real MySQL server instead.
+ * <p>
+ * Every benchmark runs at each catalog size ({@code -p movies=100,1000}),
+ * and catalog loading also at each seat occupancy
+ * ({@code -p occupancy=0,50,90}). An in-memory catalog of 10000 movies with
+ * most seats sold outgrows the forked JVM's heap; measure that size on MySQL.
+ *
+ * @author Wasana Karunanayaka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g") // Room for the in-memory database
+public class DatabaseBenchmarks {
+
+    /**
+     * The scratch catalog, seeded with no bookings.
+     */
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({ "100", "1000" })
+        public int movies;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            seed(movies, 0);
+        }
+    }
+
+    /**
+     * The scratch catalog with a share of every showtime's seats sold.
+     */
+    @State(Scope.Benchmark)
+    public static class BookedCatalog {
+        @Param({ "100", "1000" })
+        public int movies;
+
+        @Param({ "0", "50", "90" })
+        public int occupancy; // Percent of seats sold
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            seed(movies, SeatLayout.DEFAULT.size() * occupancy / 100);
+        }
+    }
+
+    /**
+     * Every showtime of the scratch catalog with its movie, and the bookings
+     * made against them so far. Bookings are cleared before each iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class Bookings {
+        final User user = new User("Bench User", BenchDatabase.BENCH_NIC, "bench@example.com");
+        final List<Movie> movies = new ArrayList<>();
+        final List<ShowTime> showTimes = new ArrayList<>();
+        final AtomicLong next = new AtomicLong();
+        BookingDAOImpl bookingDAO;
+        BookingManager bookingManager;
+        private PrintStream console;
+
+        @Setup(Level.Trial)
+        public void setUp(Catalog catalog) {
+            for (Movie movie : new MovieDAOImpl().getAllMovies()) {
+                for (ShowTime showTime : movie.getShowTimes()) {
+                    movies.add(movie);
+                    showTimes.add(showTime);
+                }
+            }
+            if (showTimes.isEmpty()) {
+                throw new IllegalStateException("The scratch catalog has no showtimes");
+            }
+            bookingDAO = new BookingDAOImpl();
+            bookingManager = new BookingManager();
+            console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream())); // processBooking prints a summary
+        }
+
+        @Setup(Level.Iteration)
+        public void clearBookings() throws SQLException {
+            try (Connection conn = BenchDatabase.connect()) {
+                BenchDatabase.clearBookings(conn);
+            }
+            for (ShowTime showTime : showTimes) {
+                showTime.resetSeatAvailability();
+            }
+            next.set(0);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * The application's catalog, loaded from the scratch database.
+     */
+    @State(Scope.Thread)
+    public static class Searches {
+        MovieManager movieManager;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Catalog catalog) {
+            movieManager = MovieManager.getMovieManager();
+            movieManager.refreshMovies();
+        }
+
+        int next(int bound) {
+            int i = next++ % bound;
+            if (next < 0) {
+                next = 0;
+            }
+            return i;
+        }
+    }
+
+    @Benchmark
+    public int getAllMovies(BookedCatalog catalog) {
+        return new MovieDAOImpl().getAllMovies().size();
+    }
+
+    @Benchmark
+    public Movie searchMovie(Catalog catalog, Searches searches) {
+        return searches.movieManager.searchMovie(BenchCatalog.title(searches.next(catalog.movies)));
+    }
+
+    @Benchmark
+    public boolean saveBooking(Bookings bookings, HotPathBenchmarks.Misses misses) {
+        // Two fresh seats per booking, walking through every showtime's seats
+        SeatLayout layout = SeatLayout.DEFAULT;
+        long n = bookings.next.getAndIncrement();
+        int perShowTime = layout.size() / 2;
+        ShowTime showTime = bookings.showTimes.get((int) (n / perShowTime % bookings.showTimes.size()));
+        int first = (int) (n % perShowTime) * 2;
+        List<Seat> seats = List.of(layout.seatAt(first), layout.seatAt(first + 1));
+        Booking booking = new Booking(bookings.user, null, showTime, seats, seats.get(0).getPrice() * 2);
+        if (!bookings.bookingDAO.saveBooking(booking)) {
+            misses.misses++;
+            return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    public int processBooking(Bookings bookings, HotPathBenchmarks.Misses misses) {
+        int i = (int) (bookings.next.getAndIncrement() % bookings.showTimes.size());
+        ShowTime showTime = bookings.showTimes.get(i);
+        SeatMap seatMap = showTime.getSeatMap();
+        if (seatMap.getAvailableCount(Seat.SeatType.STANDARD) < 2) {
+            misses.misses++;
+            return 0;
+        }
+        bookings.bookingManager.processBooking(bookings.movies.get(i), showTime, bookings.user, "STANDARD", 2);
+        return seatMap.getAvailableCount(Seat.SeatType.STANDARD);
+    }
+
+    // Creates the scratch schema and replaces its catalog; each fork starts with a fresh database
+    private static void seed(int movies, int bookedSeats) throws SQLException {
+        BenchDatabase.useForApplication(); // Never let a benchmark touch the application database
+        try (Connection conn = BenchDatabase.connect()) {
+            BenchDatabase.applySchema(conn);
+            BenchDatabase.seedCatalog(conn, movies, bookedSeats);
+        }
+    }
+}
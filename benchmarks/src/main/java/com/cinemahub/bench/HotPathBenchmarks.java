@@ -0,0 +1,233 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.SeatMap;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.service.BookingManager;
+import com.cinemahub.service.MovieIndex;
+import com.cinemahub.service.PricingEngine;
+import com.cinemahub.service.TitleSearch;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the in-memory booking and catalog hot paths. None of these
+ * touch the database while measured; see {@link DatabaseBenchmarks} for the
+ * DAOs.
+ * <p>
+ * Booking benchmarks run at every seat occupancy ({@code -p occupancy=0,50,90})
+ * and catalog benchmarks at every catalog size ({@code -p movies=100,10000}).
+ * Use JMH's {@code -t} to run with more threads, e.g.
+ * {@code java -jar benchmarks/target/benchmarks.jar HotPathBenchmarks -t 4}.
+ *
+ * @author Wasana Karunanayaka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmarks {
+    private static final String[] SEAT_TYPES = { "STANDARD", "PREMIUM", "VIP" };
+    private static final int PARTY_SIZE = 4;
+    private static final int SHOWTIMES = 8; // In-memory showtimes the booking benchmarks spread over
+
+    /**
+     * Showtimes with a share of their seats already taken at random.
+     */
+    @State(Scope.Benchmark)
+    public static class Shows {
+        @Param({ "0", "50", "90" })
+        public int occupancy; // Percent of seats taken
+
+        BookingManager bookingManager;
+        PricingEngine pricingEngine;
+        ShowTime[] showTimes;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            useScratchDatabase();
+            bookingManager = new BookingManager();
+            pricingEngine = PricingEngine.getPricingEngine();
+            Random random = new Random(42);
+            showTimes = new ShowTime[SHOWTIMES];
+            for (int s = 0; s < SHOWTIMES; s++) {
+                showTimes[s] = new ShowTime(1, 18 * 60 + s * 24 * 60 % 10_080);
+                SeatMap seatMap = showTimes[s].getSeatMap();
+                int taken = seatMap.getLayout().size() * occupancy / 100;
+                while (seatMap.getTakenCount() < taken) {
+                    seatMap.reserve(random.nextInt(seatMap.getLayout().size()));
+                }
+            }
+        }
+    }
+
+    /**
+     * The same party of standard seats for every price calculation.
+     */
+    @State(Scope.Benchmark)
+    public static class Party {
+        BookingManager bookingManager;
+        List<Seat> seats;
+        int[] seatIndices;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            useScratchDatabase();
+            bookingManager = new BookingManager();
+            seats = new ArrayList<>();
+            seatIndices = new int[PARTY_SIZE];
+            for (int i = 0; i < PARTY_SIZE; i++) {
+                seats.add(SeatLayout.DEFAULT.seatAt(40 + i));
+                seatIndices[i] = 40 + i;
+            }
+        }
+    }
+
+    /**
+     * A synthetic catalog indexed for title lookup and typo-tolerant search.
+     */
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({ "100", "10000" })
+        public int movies;
+
+        MovieIndex movieIndex;
+        TitleSearch titleSearch;
+        String[] titles;
+        String[] typos;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Movie> catalog = BenchCatalog.movies(movies, 1);
+            movieIndex = new MovieIndex();
+            movieIndex.rebuild(catalog);
+            titleSearch = new TitleSearch();
+            titleSearch.rebuild(catalog);
+            titles = new String[movies];
+            for (int i = 0; i < movies; i++) {
+                titles[i] = BenchCatalog.title(i);
+            }
+            typos = new String[Math.min(movies, 1_000)];
+            for (int i = 0; i < typos.length; i++) {
+                typos[i] = BenchCatalog.typo(i * (movies / typos.length));
+            }
+        }
+    }
+
+    /**
+     * Walks each thread through the showtimes or titles from its own start.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int thread;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threads) {
+            thread = threads.getThreadIndex();
+            next = thread;
+        }
+
+        int next(int bound) {
+            int i = next++ % bound;
+            if (next < 0) {
+                next = 0;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Operations that could not do their work, e.g. because seats sold out,
+     * reported by JMH next to the score.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Misses {
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            misses = 0;
+        }
+    }
+
+    // Price rules are read from the scratch database; a fresh one has none, so seats sell at base prices
+    private static void useScratchDatabase() throws SQLException {
+        BenchDatabase.useForApplication(); // Never let a benchmark touch the application database
+        try (Connection conn = BenchDatabase.connect()) {
+            BenchDatabase.applySchema(conn);
+        }
+    }
+
+    @Benchmark
+    public boolean checkSeatAvailability(Shows shows, Cursor cursor) {
+        return shows.bookingManager.checkSeatAvailability(shows.showTimes[cursor.thread % SHOWTIMES], PARTY_SIZE,
+                SEAT_TYPES[cursor.thread % SEAT_TYPES.length]);
+    }
+
+    // processBooking without the database write: hold the best seats, price them, let them go
+    @Benchmark
+    public long holdPriceRelease(Shows shows, Cursor cursor, Misses misses) {
+        ShowTime showTime = shows.showTimes[cursor.next(SHOWTIMES)];
+        SeatHold hold = shows.bookingManager.holdSeats(showTime, "STANDARD", PARTY_SIZE);
+        if (hold == null) {
+            misses.misses++;
+            return 0;
+        }
+        long total = shows.bookingManager.quote(hold, PricingEngine.NO_PROMO);
+        shows.bookingManager.releaseHold(hold);
+        return total;
+    }
+
+    @Benchmark
+    public long calculateTotalPrice(Party party) {
+        return party.bookingManager.calculateTotalPrice(party.seats);
+    }
+
+    @Benchmark
+    public long pricingQuote(Shows shows, Party party, Cursor cursor) {
+        ShowTime showTime = shows.showTimes[cursor.thread % SHOWTIMES];
+        return shows.pricingEngine.quote(showTime, party.seatIndices, shows.pricingEngine.surgeLevel(showTime),
+                PricingEngine.NO_PROMO);
+    }
+
+    @Benchmark
+    public List<Seat> createDefaultLayout() {
+        return Seat.createDefaultLayout();
+    }
+
+    @Benchmark
+    public Movie titleLookup(Catalog catalog, Cursor cursor) {
+        return catalog.movieIndex.findByTitle(catalog.titles[cursor.next(catalog.movies)]);
+    }
+
+    @Benchmark
+    public List<Movie> titleSearchTypo(Catalog catalog, Cursor cursor) {
+        return catalog.titleSearch.search(catalog.typos[cursor.next(catalog.typos.length)], 5);
+    }
+}
@@ -0,0 +1,331 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.User;
+import com.cinemahub.service.BookingManager;
+import com.cinemahub.service.BookingResult;
+import com.cinemahub.service.BookingService;
+import com.cinemahub.service.MovieManager;
+import com.cinemahub.service.PricingEngine;
+import com.cinemahub.util.SqlTracer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates many concurrent customers searching, checking availability and
+ * booking through the service layer, then checks the database for seats sold
+ * twice.
+ * <p>
+ * Customers arrive at random (Poisson) at a fixed rate whether or not earlier
+ * ones have finished, as real customers do, and each runs on its own virtual
+ * thread. Latencies are measured from the moment a customer was due to arrive,
+ * so a stalled system shows up in the percentiles rather than just slowing the
+ * arrivals. A customer arriving while all customer slots are busy is turned
+ * away and counted.
+ * <p>
+ * Movie popularity follows a Zipf distribution, so the first few movies play
+ * the hot premiere and sell out while the tail stays quiet. The scratch
+ * database (see {@link BenchDatabase}) is reseeded with no bookings first.
+ * <p>
+ * Settings (system properties):
+ * <ul>
+ * <li>{@code cinemahub.load.rate} - customer arrivals per second (default 200)</li>
+ * <li>{@code cinemahub.load.seconds} - how long customers keep arriving (default 30)</li>
+ * <li>{@code cinemahub.load.customers} - most customers in the system at once
+ * (default 5000)</li>
+ * <li>{@code cinemahub.load.movies} - catalog size (default 200)</li>
+ * <li>{@code cinemahub.load.skew} - Zipf exponent; 0 is uniform (default 1.1)</li>
+ * <li>{@code cinemahub.load.seatMix} - seat type weights (default
+ * STANDARD:70,PREMIUM:20,VIP:10)</li>
+ * <li>{@code cinemahub.load.maxParty} - largest party size (default 4)</li>
+ * </ul>
+ * Exits with status 1 if any seat was sold twice or the database disagrees
+ * with the bookings the customers were told succeeded.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class LoadGenerator {
+    private static final double RATE = Double.parseDouble(System.getProperty("cinemahub.load.rate", "200"));
+    private static final int SECONDS = Integer.getInteger("cinemahub.load.seconds", 30);
+    private static final int CUSTOMERS = Integer.getInteger("cinemahub.load.customers", 5_000);
+    private static final int MOVIES = Integer.getInteger("cinemahub.load.movies", 200);
+    private static final double SKEW = Double.parseDouble(System.getProperty("cinemahub.load.skew", "1.1"));
+    private static final String SEAT_MIX = System.getProperty("cinemahub.load.seatMix",
+            "STANDARD:70,PREMIUM:20,VIP:10");
+    private static final int MAX_PARTY = Integer.getInteger("cinemahub.load.maxParty", 4);
+    private static final long REPORT_EVERY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final MovieManager movieManager = MovieManager.getMovieManager();
+    private final BookingManager bookingManager = new BookingManager(); // Availability checks only
+    private final BookingService bookingService = BookingService.getBookingService();
+    private final User user = new User("Bench User", BenchDatabase.BENCH_NIC, "bench@example.com");
+    private final double[] movieCdf = zipfCdf(MOVIES, SKEW);
+    private final String[] seatTypes;
+    private final int[] seatTypeCdf;
+
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    private final LatencyHistogram availabilityLatency = new LatencyHistogram();
+    private final LatencyHistogram bookingLatency = new LatencyHistogram();
+    private final LatencyHistogram customerLatency = new LatencyHistogram(); // Arrival to done
+    private final AtomicLong booked = new AtomicLong();
+    private final AtomicLong seatsBooked = new AtomicLong();
+    private final AtomicLong soldOut = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong turnedAway = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private LoadGenerator() {
+        String[] entries = SEAT_MIX.split(",");
+        seatTypes = new String[entries.length];
+        seatTypeCdf = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] typeAndWeight = entries[i].split(":");
+            seatTypes[i] = typeAndWeight[0].trim();
+            total += Integer.parseInt(typeAndWeight[1].trim());
+            seatTypeCdf[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchDatabase.useForApplication(); // Never let the load touch the application database
+        try (Connection conn = BenchDatabase.connect()) {
+            BenchDatabase.applySchema(conn);
+            BenchDatabase.seedCatalog(conn, MOVIES, 0);
+        }
+
+        LoadGenerator generator = new LoadGenerator();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Bookings print their summaries
+        double elapsed;
+        try {
+            elapsed = generator.run(console);
+        } finally {
+            System.setOut(console);
+        }
+        generator.report(elapsed);
+        System.out.print(Metrics.getMetrics().dump()); // Where the time went, by service and DAO operation
+        if (SqlTracer.getSqlTracer().isEnabled()) {
+            System.out.print(SqlTracer.getSqlTracer().report()); // And by SQL statement
+        }
+
+        boolean passed;
+        try (Connection conn = BenchDatabase.connect()) {
+            passed = generator.verify(conn);
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1); // Singletons keep background threads (hold expiry, pool) alive
+    }
+
+    // Lets customers arrive for the configured time and waits for them to finish; returns seconds taken
+    private double run(PrintStream console) throws InterruptedException {
+        console.printf("rate=%.0f/s seconds=%d customers=%d movies=%d skew=%.2f seatMix=%s%n", RATE, SECONDS,
+                CUSTOMERS, MOVIES, SKEW, SEAT_MIX);
+        Semaphore slots = new Semaphore(CUSTOMERS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long began = System.nanoTime();
+        long end = began + TimeUnit.SECONDS.toNanos(SECONDS);
+        long nextReport = began + REPORT_EVERY_NANOS;
+        long arrivals = 0;
+        long due = began;
+        while (due < end) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            arrivals++;
+            if (!slots.tryAcquire()) {
+                turnedAway.incrementAndGet();
+            } else {
+                long arrival = due;
+                Thread.ofVirtual().start(() -> {
+                    try {
+                        visit(arrival);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            due += (long) (-Math.log(1 - random.nextDouble()) / RATE * 1e9); // Exponential gaps
+            if (due >= nextReport) {
+                console.printf("%5ds arrivals=%d booked=%d soldOut=%d inFlight=%d%n",
+                        TimeUnit.NANOSECONDS.toSeconds(nextReport - began), arrivals, booked.get(), soldOut.get(),
+                        CUSTOMERS - slots.availablePermits());
+                nextReport += REPORT_EVERY_NANOS;
+            }
+        }
+        if (!slots.tryAcquire(CUSTOMERS, 60, TimeUnit.SECONDS)) {
+            console.println("Some customers were still waiting after 60 s");
+        }
+        return (System.nanoTime() - began) / 1e9;
+    }
+
+    // One customer: search for a movie, check a showtime has seats, book them
+    private void visit(long arrival) {
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int movieIndex = pick(movieCdf, random.nextDouble());
+            String seatType = seatTypes[pick(seatTypeCdf, random.nextInt(seatTypeCdf[seatTypeCdf.length - 1]))];
+            int party = 1 + random.nextInt(MAX_PARTY);
+
+            long start = System.nanoTime();
+            String query = random.nextInt(4) == 0 ? BenchCatalog.typo(movieIndex) : BenchCatalog.title(movieIndex);
+            List<Movie> found = movieManager.searchMovies(query, 5);
+            long searched = System.nanoTime();
+            searchLatency.record(searched - start);
+            Movie movie = found.isEmpty() ? movieManager.getMovie(movieIndex + 1) : found.get(0);
+            if (movie == null || movie.getShowTimes().isEmpty()) {
+                errors.incrementAndGet();
+                return;
+            }
+
+            List<ShowTime> showTimes = movie.getShowTimes();
+            ShowTime showTime = showTimes.get(random.nextInt(showTimes.size()));
+            boolean available = bookingManager.checkSeatAvailability(showTime, party, seatType);
+            long checked = System.nanoTime();
+            availabilityLatency.record(checked - searched);
+            if (!available) {
+                soldOut.incrementAndGet();
+                return;
+            }
+
+            try {
+                BookingResult result = bookingService.book(movie, showTime, user, Seat.SeatType.valueOf(seatType),
+                        party, PricingEngine.NO_PROMO).join();
+                switch (result) {
+                    case BookingResult.Success success -> {
+                        booked.incrementAndGet();
+                        seatsBooked.addAndGet(success.booking().getSeats().size());
+                    }
+                    case BookingResult.SoldOut out -> soldOut.incrementAndGet(); // Taken since the check
+                    case BookingResult.Conflict conflict -> failed.incrementAndGet();
+                }
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof TimeoutException)) {
+                    throw e;
+                }
+                timedOut.incrementAndGet(); // Deadline passed waiting for the database; nothing was written
+            }
+            bookingLatency.record(System.nanoTime() - checked);
+        } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            e.printStackTrace();
+        } finally {
+            customerLatency.record(System.nanoTime() - arrival);
+        }
+    }
+
+    private void report(double elapsed) {
+        System.out.printf("%nbookings: %d (%.1f/s), seats: %d, sold out: %d, failed: %d, timed out: %d, "
+                + "turned away: %d, errors: %d%n", booked.get(), booked.get() / elapsed, seatsBooked.get(),
+                soldOut.get(), failed.get(), timedOut.get(), turnedAway.get(), errors.get());
+        System.out.printf("%-14s %10s %12s %12s %12s %12s%n", "latency (ms)", "count", "p50", "p99", "p999", "max");
+        printLatency("search", searchLatency);
+        printLatency("availability", availabilityLatency);
+        printLatency("booking", bookingLatency);
+        printLatency("customer", customerLatency);
+    }
+
+    private static void printLatency(String name, LatencyHistogram histogram) {
+        System.out.printf("%-14s %10d %12.3f %12.3f %12.3f %12.3f%n", name, histogram.getCount(),
+                histogram.percentile(0.50) / 1e6, histogram.percentile(0.99) / 1e6,
+                histogram.percentile(0.999) / 1e6, histogram.max() / 1e6);
+    }
+
+    /**
+     * Checks the database after the run: no seat of a showtime may belong to
+     * two bookings, every sold seat must be claimed in the seat inventory, and
+     * the seats sold must match the bookings customers were told succeeded.
+     */
+    private boolean verify(Connection conn) throws SQLException {
+        long oversold = count(conn, "SELECT COUNT(*) FROM (SELECT b.showtime_id, bs.seat_index FROM booking_seats bs "
+                + "JOIN bookings b ON b.booking_id = bs.booking_id "
+                + "GROUP BY b.showtime_id, bs.seat_index HAVING COUNT(*) > 1) sold_twice");
+        long unclaimed = count(conn, "SELECT COUNT(*) FROM booking_seats bs "
+                + "JOIN bookings b ON b.booking_id = bs.booking_id "
+                + "LEFT JOIN seat_inventory si ON si.showtime_id = b.showtime_id "
+                + "AND si.seat_index = bs.seat_index AND si.booking_id = bs.booking_id "
+                + "WHERE si.booking_id IS NULL");
+        long bookings = count(conn, "SELECT COUNT(*) FROM bookings");
+        long seats = count(conn, "SELECT COUNT(*) FROM booking_seats");
+
+        long heldInMemory = 0; // Seats the application believes are sold; every hold has ended by now
+        for (int movieId = 1; movieId <= MOVIES; movieId++) {
+            Movie movie = movieManager.getMovie(movieId);
+            if (movie != null) {
+                for (ShowTime showTime : movie.getShowTimes()) {
+                    heldInMemory += showTime.getSeatMap().getTakenCount();
+                }
+            }
+        }
+
+        System.out.printf("%nseats sold twice: %d, seats missing from inventory: %d%n", oversold, unclaimed);
+        System.out.printf("bookings in database: %d (reported %d), seats in database: %d (reported %d, "
+                + "taken in memory %d)%n", bookings, booked.get(), seats, seatsBooked.get(), heldInMemory);
+        return oversold == 0 && unclaimed == 0 && bookings == booked.get() && seats == seatsBooked.get()
+                && heldInMemory == seats;
+    }
+
+    private static long count(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Cumulative probabilities of picking each of n items, the i-th weighted 1 / (i + 1)^skew
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cdf[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    // Index of the first cumulative weight above the sample
+    private static int pick(double[] cdf, double sample) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] > sample) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static int pick(int[] cdf, int sample) {
+        for (int i = 0; i < cdf.length; i++) {
+            if (cdf[i] > sample) {
+                return i;
+            }
+        }
+        return cdf.length - 1;
+    }
+}
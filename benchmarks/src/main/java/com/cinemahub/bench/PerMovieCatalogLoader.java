@@ -0,0 +1,77 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.dao.CatalogLoader;
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.ShowTime;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The original catalog loader, kept as the baseline for
+ * {@link CatalogLoadBenchmark}: one query per movie for its showtimes and one
+ * join per showtime for its booked seats.
+ *
+ * @author Wasana Karunanayaka
+ */
+final class PerMovieCatalogLoader {
+
+    private PerMovieCatalogLoader() {
+    }
+
+    static List<Movie> load(Connection conn) throws SQLException {
+        List<Movie> movies = new ArrayList<>();
+        Map<Integer, SeatLayout> layouts = CatalogLoader.loadLayouts(conn);
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM movies");
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                movies.add(new Movie(
+                        rs.getInt("movie_id"),
+                        rs.getString("title"),
+                        rs.getString("language"),
+                        rs.getString("genre"),
+                        rs.getString("format"),
+                        rs.getDouble("imdb_rating"),
+                        rs.getString("release_date"),
+                        rs.getInt("duration"),
+                        List.of()));
+            }
+        }
+
+        for (int i = 0; i < movies.size(); i++) {
+            Movie movie = movies.get(i);
+            List<ShowTime> showTimes = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM showtimes WHERE movie_id = ?")) {
+                pstmt.setInt(1, movie.getId());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ShowTime showTime = new ShowTime(rs.getInt("screen_id"), rs.getInt("start_minute"),
+                                CatalogLoader.layoutFor(layouts, rs.getInt("layout_id")));
+                        showTime.setId(rs.getInt("showtime_id"));
+                        showTime.setMovieId(movie.getId());
+                        showTimes.add(showTime);
+                    }
+                }
+            }
+            movies.set(i, movie.withShowTimes(showTimes));
+            for (ShowTime showTime : showTimes) {
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT bs.seat_index FROM booking_seats bs "
+                        + "JOIN bookings b ON bs.booking_id = b.booking_id WHERE b.showtime_id = ?")) {
+                    pstmt.setInt(1, showTime.getId());
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            showTime.getSeatMap().reserve(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,127 @@
+package com.cinemahub.bench;
+
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.SeatMap;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-threaded stress check for {@link SeatMap}: many threads claim and
+ * release seats on a small set of showtimes, and every successful claim is
+ * recorded in a shadow ownership table. Any seat handed to two owners at once,
+ * or any drift between the free-seat counters and the bitset, fails the run.
+ * <p>
+ * Usage: {@code java com.cinemahub.bench.SeatReservationStress [threads] [seconds] [showtimes]}
+ *
+ * @author Wasana Karunanayaka
+ */
+public class SeatReservationStress {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int showTimeCount = args.length > 2 ? Integer.parseInt(args[2]) : 8; // Few showtimes = heavy contention
+
+        SeatLayout layout = SeatLayout.DEFAULT;
+        SeatMap[] maps = new SeatMap[showTimeCount];
+        AtomicIntegerArray[] owners = new AtomicIntegerArray[showTimeCount];
+        for (int i = 0; i < showTimeCount; i++) {
+            maps[i] = new SeatMap(layout);
+            owners[i] = new AtomicIntegerArray(layout.size());
+        }
+
+        AtomicLong claims = new AtomicLong();
+        AtomicLong soldOut = new AtomicLong();
+        AtomicLong doubleBookings = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Seat.SeatType[] types = Seat.SeatType.values();
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int ownerId = t + 1;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long localClaims = 0;
+                long localSoldOut = 0;
+                while (System.nanoTime() < deadline) {
+                    int show = random.nextInt(showTimeCount);
+                    Seat.SeatType type = types[random.nextInt(types.length)];
+                    int[] seats = switch (random.nextInt(4)) {
+                        case 0 -> claimExact(maps[show], random);
+                        case 1 -> maps[show].reserveBest(type, 1 + random.nextInt(4));
+                        default -> maps[show].reserve(type, 1 + random.nextInt(4));
+                    };
+                    if (seats == null) {
+                        localSoldOut++;
+                        continue;
+                    }
+                    localClaims++;
+                    for (int seat : seats) {
+                        if (!owners[show].compareAndSet(seat, 0, ownerId)) {
+                            doubleBookings.incrementAndGet();
+                        }
+                    }
+                    // Hand the seats back so the run keeps contending rather than selling out
+                    for (int seat : seats) {
+                        owners[show].compareAndSet(seat, ownerId, 0);
+                        maps[show].release(seat);
+                    }
+                }
+                claims.addAndGet(localClaims);
+                soldOut.addAndGet(localSoldOut);
+            }, "stress-" + t);
+            workers[t].start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - began) / 1e9;
+
+        long counterDrift = 0;
+        for (SeatMap map : maps) {
+            for (Seat.SeatType type : types) {
+                int free = 0;
+                for (int i = 0; i < layout.size(); i++) {
+                    if (layout.getSeatType(i) == type && map.isAvailable(i)) {
+                        free++;
+                    }
+                }
+                counterDrift += Math.abs(free - map.getAvailableCount(type));
+            }
+        }
+
+        System.out.printf("threads=%d showtimes=%d seconds=%.1f%n", threads, showTimeCount, elapsed);
+        System.out.printf("successful claims: %d (%.0f claims/s), rejected: %d%n",
+                claims.get(), claims.get() / elapsed, soldOut.get());
+        System.out.printf("double bookings: %d, counter drift: %d%n", doubleBookings.get(), counterDrift);
+        if (doubleBookings.get() != 0 || counterDrift != 0) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    // Picks a random run of up to four adjacent seats and claims them all-or-nothing
+    private static int[] claimExact(SeatMap map, ThreadLocalRandom random) {
+        int count = 1 + random.nextInt(4);
+        int first = random.nextInt(map.getLayout().size() - count);
+        int[] seats = new int[count];
+        for (int i = 0; i < count; i++) {
+            seats[i] = first + i;
+        }
+        return map.reserveAll(seats) ? seats : null;
+    }
+}
@@ -8,5 +8,10 @@ import com.cinemahub.model.Booking;
  * @author Wasana Karunanayaka
  */
 public interface BookingDAO {
-    void saveBooking(Booking booking);
+    /**
+     * Persists a booking and claims its seats.
+     *
+     * @return True if the booking was committed.
+     */
+    boolean saveBooking(Booking booking);
 }
@@ -1,7 +1,12 @@
 package com.cinemahub.dao;
 
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
 import com.cinemahub.model.Booking;
+import com.cinemahub.model.Money;
 import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatLayout;
 import com.cinemahub.model.User;
 import com.cinemahub.util.DatabaseHelper;
 
@@ -14,116 +19,230 @@ import java.util.List;
  * @author Wasana Karunanayaka
  */
 public class BookingDAOImpl implements BookingDAO {
+    private static final LatencyHistogram SAVE_BOOKING = Metrics.getMetrics().latency("dao.saveBooking");
+    private static final LatencyHistogram GET_OR_CREATE_USER = Metrics.getMetrics().latency("dao.getOrCreateUser");
+    private static final LatencyHistogram CLAIM_SEATS = Metrics.getMetrics().latency("dao.claimSeats");
+    // Shared with GroupCommitBookingDAO and JournalingBookingDAO
+    static final Counter ROLLBACKS = Metrics.getMetrics().counter("dao.rollbacks");
+    static final Counter SEAT_CONFLICTS = Metrics.getMetrics().counter("dao.seatConflicts");
 
     /**
-     * Saves a booking, creates/verifies the user, and records booked seats
-     * transactionally.
+     * Saves a booking, creates/verifies the user, claims the seats in the
+     * showtime's seat inventory and records booked seats transactionally.
+     *
+     * @return True if the booking was committed; false if any seat had already
+     *         been sold to another booking or the save failed.
      */
     @Override
-    public void saveBooking(Booking booking) {
+    public boolean saveBooking(Booking booking) {
+        long start = System.nanoTime();
         Connection conn = null;
         try {
             conn = DatabaseHelper.getConnection();
             conn.setAutoCommit(false); // Start Transaction
 
-            // 1. Get or Create User
-            // Ideally we check if user exists, but for this simple app, let's just
-            // insert/ignore or find.
-            // Simplified logic: Check by NIC, if not exists insert, else get ID.
+            // 1. Get or Create User (cache first, then a single upsert)
             int userId = getOrCreateUser(booking.getUser(), conn);
 
             // 2. Insert Booking
-            String insertBooking = "INSERT INTO bookings (user_id, showtime_id, total_price) VALUES (?, ?, ?)";
-            int bookingId = -1;
+            int bookingId = insertBooking(booking, userId, conn);
 
-            try (PreparedStatement pstmt = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setInt(1, userId);
-                pstmt.setInt(2, booking.getShowTime().getId());
-                pstmt.setDouble(3, booking.getTotalPrice());
-                pstmt.executeUpdate();
-
-                try (ResultSet keys = pstmt.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        bookingId = keys.getInt(1);
-                    }
-                }
+            // 3. Claim the seats; a short count means another booking got there first
+            if (claimSeats(booking, bookingId, conn) != booking.getSeats().size()) {
+                conn.rollback();
+                ROLLBACKS.increment();
+                SEAT_CONFLICTS.increment();
+                return false;
             }
 
-            // 3. Insert Booking Seats
-            if (bookingId != -1) {
-                String insertSeat = "INSERT INTO booking_seats (booking_id, seat_index, seat_type, price) VALUES (?, ?, ?, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(insertSeat)) {
-                    List<Seat> allSeats = booking.getShowTime().getSeats();
-                    List<Seat> bookedSeats = booking.getSeats();
-
-                    for (Seat seat : bookedSeats) {
-                        int seatIndex = allSeats.indexOf(seat); // Find index in the main list
-                        if (seatIndex == -1) {
-                            // Should not happen if logic is correct
-                            throw new SQLException("Seat not found in showtime layout");
-                        }
-
-                        pstmt.setInt(1, bookingId);
-                        pstmt.setInt(2, seatIndex);
-                        pstmt.setString(3, seat.getSeatType().toString());
-                        pstmt.setDouble(4, seat.getPrice());
-                        pstmt.addBatch();
-                    }
-                    pstmt.executeBatch();
-                }
-            }
+            // 4. Insert Booking Seats
+            insertBookingSeats(booking.getSeats(), bookingId, conn);
 
             conn.commit();
+            UserCache.getUserCache().put(booking.getUser().getNic(), userId);
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             if (conn != null) {
                 try {
                     conn.rollback();
+                    ROLLBACKS.increment();
                 } catch (SQLException ex) {
                     ex.printStackTrace();
                 }
             }
+            return false;
         } finally {
             if (conn != null) {
                 try {
-                    conn.setAutoCommit(true);
+                    conn.close(); // Return to the pool; the pool restores auto-commit
                 } catch (SQLException e) {
                     e.printStackTrace();
                 }
             }
+            SAVE_BOOKING.recordSince(start);
+        }
+    }
+
+    /**
+     * Inserts the booking row and returns its generated ID.
+     */
+    static int insertBooking(Booking booking, int userId, Connection conn) throws SQLException {
+        String insertBooking = "INSERT INTO bookings (user_id, showtime_id, total_price) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, booking.getShowTime().getId());
+            pstmt.setBigDecimal(3, Money.toBigDecimal(booking.getTotalPrice()));
+            pstmt.executeUpdate();
+            return generatedId(pstmt);
+        }
+    }
+
+    /**
+     * Inserts the booking row tagged with the (journal_id, journal_seq) key that
+     * identifies it to its writer, and returns its generated ID. The unique key
+     * on those columns lets the writer find out later whether it was committed.
+     */
+    static int insertBooking(Booking booking, int userId, long journalId, long journalSeq, Connection conn)
+            throws SQLException {
+        String insertBooking = "INSERT INTO bookings (user_id, showtime_id, total_price, journal_id, journal_seq) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, booking.getShowTime().getId());
+            pstmt.setBigDecimal(3, Money.toBigDecimal(booking.getTotalPrice()));
+            pstmt.setLong(4, journalId);
+            pstmt.setLong(5, journalSeq);
+            pstmt.executeUpdate();
+            return generatedId(pstmt);
+        }
+    }
+
+    private static int generatedId(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            if (keys.next()) {
+                return keys.getInt(1);
+            }
+        }
+        throw new SQLException("Failed to create booking.");
+    }
+
+    /**
+     * Claims the booking's seats in seat_inventory with one set-based conditional
+     * insert. Seats already sold for the showtime are skipped by the primary key,
+     * so no rows are locked for reading.
+     *
+     * @return The number of seats actually claimed.
+     */
+    static int claimSeats(Booking booking, int bookingId, Connection conn) throws SQLException {
+        if (!matchesLayout(booking)) {
+            // Should not happen if logic is correct
+            throw new SQLException("Seat not found in showtime layout");
         }
+        return claimSeats(booking.getShowTime().getId(), booking.getSeats(), bookingId, conn);
     }
 
     /**
-     * Checks if a user exists by NIC, returns their ID, or creates a new user and
-     * returns the new ID.
+     * Claims seats of a showtime for a booking, without checking them against
+     * the showtime's layout.
+     *
+     * @return The number of seats actually claimed.
      */
-    private int getOrCreateUser(User user, Connection conn) throws SQLException {
-        // Check if user exists by NIC
-        String selectUser = "SELECT user_id FROM users WHERE nic = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(selectUser)) {
-            pstmt.setString(1, user.getNic());
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("user_id");
+    static int claimSeats(int showTimeId, List<Seat> bookedSeats, int bookingId, Connection conn)
+            throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (bookedSeats.isEmpty()) {
+                return 0;
+            }
+            StringBuilder sql = new StringBuilder(
+                    "INSERT IGNORE INTO seat_inventory (showtime_id, seat_index, booking_id) VALUES ");
+            for (int i = 0; i < bookedSeats.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int param = 1;
+                for (Seat seat : bookedSeats) {
+                    pstmt.setInt(param++, showTimeId);
+                    pstmt.setInt(param++, seat.getIndex());
+                    pstmt.setInt(param++, bookingId);
                 }
+                return pstmt.executeUpdate();
             }
+        } finally {
+            CLAIM_SEATS.recordSince(start);
         }
+    }
 
-        // Create new user
-        String insertUser = "INSERT INTO users (nic, name, email) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(insertUser, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, user.getNic());
-            pstmt.setString(2, user.getName());
-            pstmt.setString(3, user.getEmail());
-            pstmt.executeUpdate();
+    /**
+     * Checks that every seat of a booking exists in its showtime's layout with
+     * the booked type. The showtime's template is the authority on what each
+     * seat index is.
+     */
+    static boolean matchesLayout(Booking booking) {
+        SeatLayout layout = booking.getShowTime().getSeatMap().getLayout();
+        for (Seat seat : booking.getSeats()) {
+            int seatIndex = seat.getIndex();
+            if (!layout.isSeat(seatIndex) || layout.getSeatType(seatIndex) != seat.getSeatType()) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            try (ResultSet keys = pstmt.getGeneratedKeys()) {
-                if (keys.next()) {
-                    return keys.getInt(1);
+    /**
+     * Records the booked seats with their type and price.
+     */
+    static void insertBookingSeats(List<Seat> bookedSeats, int bookingId, Connection conn) throws SQLException {
+        String insertSeat = "INSERT INTO booking_seats (booking_id, seat_index, seat_type, price) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSeat)) {
+            for (Seat seat : bookedSeats) {
+                pstmt.setInt(1, bookingId);
+                pstmt.setInt(2, seat.getIndex());
+                pstmt.setString(3, seat.getSeatType().toString());
+                pstmt.setBigDecimal(4, Money.toBigDecimal(seat.getPrice()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Returns the user's ID by NIC, creating the user if needed. Cached NICs skip
+     * the database; otherwise a single upsert both creates a new user and returns
+     * the ID of an existing one, so two first-time bookings with the same NIC
+     * cannot race each other.
+     * <p>
+     * The caller should add the result to the {@link UserCache} once its
+     * transaction has committed.
+     */
+    static int getOrCreateUser(User user, Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Integer cachedId = UserCache.getUserCache().get(user.getNic());
+            if (cachedId != null) {
+                return cachedId;
+            }
+
+            // LAST_INSERT_ID(user_id) makes the existing row's ID the generated key on a duplicate NIC
+            String upsertUser = "INSERT INTO users (nic, name, email) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE user_id = LAST_INSERT_ID(user_id)";
+            try (PreparedStatement pstmt = conn.prepareStatement(upsertUser, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, user.getNic());
+                pstmt.setString(2, user.getName());
+                pstmt.setString(3, user.getEmail());
+                pstmt.executeUpdate();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        return keys.getInt(1);
+                    }
                 }
             }
+            throw new SQLException("Failed to create user.");
+        } finally {
+            GET_OR_CREATE_USER.recordSince(start);
         }
-        throw new SQLException("Failed to create user.");
     }
 }
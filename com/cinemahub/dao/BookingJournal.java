@@ -0,0 +1,386 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.model.Booking;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of bookings in a memory-mapped file, written ahead of
+ * the database by {@link JournalingBookingDAO}.
+ * <p>
+ * The file is a fixed-size header followed by records back to back:
+ * <pre>
+ * header  int magic, int format version, long journal ID,
+ *         long sequence of the first record, long last sequence applied to the database
+ * record  int payload length, int CRC-32C of the sequence and payload, long sequence, payload
+ * payload long booked-at millis, int showtime ID, long total price,
+ *         user NIC, name and email (each a short length, 0xFFFF for null, then UTF-8),
+ *         short seat count, then per seat: int index, byte seat type ordinal, long price
+ * </pre>
+ * Sequences are consecutive. On opening, records are read from the start until
+ * one is torn, fails its CRC or breaks the sequence; whatever follows is
+ * overwritten by the next append. Appenders force their records to disk
+ * together: one force covers every record written before it. Once every record
+ * has been applied, the next append that does not fit starts again after the
+ * header, continuing the sequence.
+ *
+ * @author Wasana Karunanayaka
+ */
+final class BookingJournal implements Closeable {
+    private static final int MAGIC = 0x43484a31; // "CHJ1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int JOURNAL_ID_OFFSET = 8;
+    private static final int FIRST_SEQUENCE_OFFSET = 16;
+    private static final int APPLIED_SEQUENCE_OFFSET = 24;
+    private static final int RECORD_HEADER_SIZE = 16; // Length, CRC and sequence
+    private static final int SEAT_SIZE = 13;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final long FULL_WAIT_MILLIS = 10_000; // How long an append waits for the replicator to make room
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final long journalId;
+    private final Object forceLock = new Object(); // One force at a time; taken before this, never inside it
+
+    // Guarded by this
+    private long firstSequence; // Sequence of the record right after the header
+    private int writePosition;
+    private long writtenSequence; // Last sequence written, durable or not
+    private int durablePosition;
+    private long durableSequence; // Last sequence forced to disk
+    private int readPosition; // Start of the first record not yet applied
+    private long appliedSequence;
+
+    /**
+     * A journaled booking, as read back for replication.
+     *
+     * @param sequence   The record's sequence number.
+     * @param end        Where the next record starts.
+     * @param bookedAt   When the booking was journaled, in epoch millis.
+     * @param user       The customer.
+     * @param showTimeId The booked showtime.
+     * @param totalPrice Total price in minor units.
+     * @param seats      The booked seats with their prices.
+     */
+    record Entry(long sequence, int end, long bookedAt, User user, int showTimeId, long totalPrice,
+            List<Seat> seats) {
+    }
+
+    private BookingJournal(FileChannel channel, MappedByteBuffer map, long journalId) {
+        this.channel = channel;
+        this.map = map;
+        this.journalId = journalId;
+    }
+
+    /**
+     * Opens a journal, creating it with the given size if the file does not
+     * exist. An existing journal keeps its size and is scanned for the records
+     * still to be applied.
+     */
+    static BookingJournal open(Path file, int capacity) throws IOException {
+        boolean created = !Files.exists(file) || Files.size(file) == 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size = created ? capacity : channel.size();
+            if (size < HEADER_SIZE + RECORD_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Bad booking journal size " + size + ": " + file);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            BookingJournal journal;
+            if (created) {
+                journal = new BookingJournal(channel, map, new SecureRandom().nextLong() & Long.MAX_VALUE);
+                map.putInt(0, MAGIC);
+                map.putInt(4, FORMAT_VERSION);
+                map.putLong(JOURNAL_ID_OFFSET, journal.journalId);
+                journal.reset(1);
+                channel.force(true); // The file's size, too
+            } else {
+                if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT_VERSION) {
+                    throw new IOException("Not a booking journal: " + file);
+                }
+                journal = new BookingJournal(channel, map, map.getLong(JOURNAL_ID_OFFSET));
+                journal.recover();
+            }
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the random ID that tells this journal's records apart from those
+     * of other journals in the database.
+     */
+    long getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * Appends a booking and returns once it is on disk. Waits up to ten seconds
+     * for room if the journal is full of records not yet applied.
+     *
+     * @return The booking's sequence number, or -1 if there was no room.
+     * @throws IOException If the booking is too large for the record format.
+     */
+    long append(Booking booking) throws IOException, InterruptedException {
+        byte[] nic = encode(booking.getUser().getNic());
+        byte[] name = encode(booking.getUser().getName());
+        byte[] email = encode(booking.getUser().getEmail());
+        List<Seat> seats = booking.getSeats();
+        int payloadSize = 8 + 4 + 8 + stringSize(nic) + stringSize(name) + stringSize(email) + 2
+                + seats.size() * SEAT_SIZE;
+        int recordSize = RECORD_HEADER_SIZE + payloadSize;
+        if (recordSize > map.capacity() - HEADER_SIZE || seats.size() > Short.MAX_VALUE) {
+            throw new IOException("Booking too large for the journal");
+        }
+
+        long sequence;
+        synchronized (this) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FULL_WAIT_MILLIS);
+            while (writePosition + recordSize > map.capacity()) {
+                if (appliedSequence == writtenSequence) {
+                    reset(writtenSequence + 1);
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return -1;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            sequence = writtenSequence + 1;
+            ByteBuffer record = map.slice(writePosition, recordSize);
+            record.putInt(payloadSize).putInt(0).putLong(sequence);
+            record.putLong(System.currentTimeMillis());
+            record.putInt(booking.getShowTime().getId());
+            record.putLong(booking.getTotalPrice());
+            putString(record, nic);
+            putString(record, name);
+            putString(record, email);
+            record.putShort((short) seats.size());
+            for (Seat seat : seats) {
+                record.putInt(seat.getIndex()).put((byte) seat.getSeatType().ordinal()).putLong(seat.getPrice());
+            }
+            record.putInt(4, checksum(record, recordSize));
+            writePosition += recordSize;
+            writtenSequence = sequence;
+        }
+        forceThrough(sequence);
+        return sequence;
+    }
+
+    /**
+     * Waits until durable records are waiting to be applied and returns up to
+     * {@code max} of them, oldest first.
+     */
+    synchronized List<Entry> awaitPending(int max) throws InterruptedException {
+        while (durableSequence == appliedSequence) {
+            wait();
+        }
+        return readPending(max);
+    }
+
+    /**
+     * Returns every durable record not yet applied, oldest first, without
+     * waiting.
+     */
+    synchronized List<Entry> getPending() {
+        return readPending(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Records that every entry up to and including {@code last} is in the
+     * database.
+     */
+    synchronized void markApplied(Entry last) {
+        readPosition = last.end();
+        appliedSequence = last.sequence();
+        // Not forced: replaying an entry that was already applied is harmless
+        map.putLong(APPLIED_SEQUENCE_OFFSET, appliedSequence);
+        notifyAll(); // Appenders waiting for room
+    }
+
+    /**
+     * Returns the number of bookings journaled but not yet applied.
+     */
+    synchronized long getPendingCount() {
+        return writtenSequence - appliedSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            map.force();
+            channel.close();
+        }
+    }
+
+    // Forces every record written so far, unless a concurrent force already covered this sequence
+    private void forceThrough(long sequence) {
+        synchronized (forceLock) {
+            int from;
+            int to;
+            long last;
+            synchronized (this) {
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                from = durablePosition;
+                to = writePosition;
+                last = writtenSequence;
+            }
+            map.force(from, to - from);
+            synchronized (this) {
+                durablePosition = to;
+                durableSequence = last;
+                notifyAll(); // The replicator
+            }
+        }
+    }
+
+    // Reads up to max records from the first one not yet applied
+    private List<Entry> readPending(int max) {
+        List<Entry> entries = new ArrayList<>();
+        int position = readPosition;
+        for (long sequence = appliedSequence + 1; sequence <= durableSequence && entries.size() < max; sequence++) {
+            Entry entry = read(position, sequence);
+            if (entry == null) {
+                throw new IllegalStateException("Booking journal record " + sequence + " is unreadable");
+            }
+            entries.add(entry);
+            position = entry.end();
+        }
+        return entries;
+    }
+
+    // Starts over after the header; only called once every record has been applied
+    private void reset(long nextSequence) {
+        firstSequence = nextSequence;
+        writePosition = durablePosition = readPosition = HEADER_SIZE;
+        writtenSequence = durableSequence = appliedSequence = nextSequence - 1;
+        map.putLong(FIRST_SEQUENCE_OFFSET, firstSequence);
+        map.putLong(APPLIED_SEQUENCE_OFFSET, appliedSequence);
+        // Must be on disk before any record that follows, or recovery would stop at the first of them
+        map.force(0, HEADER_SIZE);
+    }
+
+    // Finds the end of the valid records and where replication resumes
+    private void recover() {
+        firstSequence = map.getLong(FIRST_SEQUENCE_OFFSET);
+        long applied = map.getLong(APPLIED_SEQUENCE_OFFSET);
+        int position = HEADER_SIZE;
+        int resumeAt = HEADER_SIZE;
+        long sequence = firstSequence;
+        while (true) {
+            Entry entry = read(position, sequence);
+            if (entry == null) {
+                break;
+            }
+            position = entry.end();
+            if (sequence <= applied) {
+                resumeAt = position;
+            }
+            sequence++;
+        }
+        writePosition = durablePosition = position;
+        writtenSequence = durableSequence = sequence - 1;
+        readPosition = resumeAt;
+        appliedSequence = Math.max(firstSequence - 1, Math.min(applied, writtenSequence));
+    }
+
+    // Decodes the record at a position, or returns null if it is torn, corrupt or out of sequence
+    private Entry read(int position, long expectedSequence) {
+        if (position + RECORD_HEADER_SIZE > map.capacity()) {
+            return null;
+        }
+        int payloadSize = map.getInt(position);
+        if (payloadSize <= 0 || payloadSize > map.capacity() - position - RECORD_HEADER_SIZE
+                || map.getLong(position + 8) != expectedSequence) {
+            return null;
+        }
+        int recordSize = RECORD_HEADER_SIZE + payloadSize;
+        ByteBuffer record = map.slice(position, recordSize);
+        if (record.getInt(4) != checksum(record, recordSize)) {
+            return null;
+        }
+        try {
+            record.position(RECORD_HEADER_SIZE);
+            long bookedAt = record.getLong();
+            int showTimeId = record.getInt();
+            long totalPrice = record.getLong();
+            String nic = getString(record);
+            String name = getString(record);
+            String email = getString(record);
+            int seatCount = record.getShort();
+            Seat.SeatType[] types = Seat.SeatType.values();
+            List<Seat> seats = new ArrayList<>(seatCount);
+            for (int i = 0; i < seatCount; i++) {
+                int index = record.getInt();
+                Seat.SeatType type = types[record.get()];
+                seats.add(new Seat(index, type, record.getLong()));
+            }
+            return new Entry(expectedSequence, position + recordSize, bookedAt, new User(name, nic, email),
+                    showTimeId, totalPrice, seats);
+        } catch (RuntimeException e) {
+            return null; // A valid checksum over a malformed payload: written by something else
+        }
+    }
+
+    // CRC-32C of everything after the checksum field
+    private static int checksum(ByteBuffer record, int recordSize) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.slice(8, recordSize - 8));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(String value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("Text too long for the journal");
+        }
+        return bytes;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 2 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_STRING);
+        } else {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
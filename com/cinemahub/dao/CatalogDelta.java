@@ -0,0 +1,102 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.ShowTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The catalog changes recorded in the change log after a given version.
+ * <p>
+ * Movies and showtimes carry their current database state (without seats);
+ * seat changes are listed in version order. Because slow transactions can
+ * commit late with a lower version, the changes may overlap what an earlier
+ * delta already reported. Movie and showtime updates are safe to apply twice;
+ * seat changes carry their version so callers can skip ones already applied.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class CatalogDelta {
+
+    /**
+     * A seat sold ('I') or returned ('D') at a given change-log version.
+     */
+    public static final class SeatChange {
+        private final long version;
+        private final int showTimeId;
+        private final int seatIndex;
+        private final boolean booked;
+
+        SeatChange(long version, int showTimeId, int seatIndex, boolean booked) {
+            this.version = version;
+            this.showTimeId = showTimeId;
+            this.seatIndex = seatIndex;
+            this.booked = booked;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int getShowTimeId() {
+            return showTimeId;
+        }
+
+        public int getSeatIndex() {
+            return seatIndex;
+        }
+
+        public boolean isBooked() {
+            return booked;
+        }
+    }
+
+    private final long version;
+    final List<Movie> upsertedMovies = new ArrayList<>();
+    final List<Integer> deletedMovieIds = new ArrayList<>();
+    final List<ShowTime> upsertedShowTimes = new ArrayList<>();
+    final List<Integer> deletedShowTimeIds = new ArrayList<>();
+    final List<SeatChange> seatChanges = new ArrayList<>();
+
+    // Constructor
+    CatalogDelta(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns the version to pass to the next refresh. Every change up to and
+     * including it is final.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Movie> getUpsertedMovies() {
+        return upsertedMovies;
+    }
+
+    public List<Integer> getDeletedMovieIds() {
+        return deletedMovieIds;
+    }
+
+    /**
+     * Returns showtimes that were added or changed; each carries its movie ID.
+     */
+    public List<ShowTime> getUpsertedShowTimes() {
+        return upsertedShowTimes;
+    }
+
+    public List<Integer> getDeletedShowTimeIds() {
+        return deletedShowTimeIds;
+    }
+
+    public List<SeatChange> getSeatChanges() {
+        return seatChanges;
+    }
+
+    public boolean isEmpty() {
+        return upsertedMovies.isEmpty() && deletedMovieIds.isEmpty() && upsertedShowTimes.isEmpty()
+                && deletedShowTimeIds.isEmpty() && seatChanges.isEmpty();
+    }
+}
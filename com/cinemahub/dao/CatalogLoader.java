@@ -0,0 +1,333 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.model.Money;
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.ShowTime;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the in-memory Movie/ShowTime/seat graph from the database.
+ * <p>
+ * {@link #load(Connection)} reads the whole catalog with three set-based
+ * queries (movies, showtimes, booked seats) regardless of catalog size. Each
+ * result set is streamed forward-only and consumed before the next query is
+ * issued, so the driver never has to buffer a whole table.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class CatalogLoader {
+    // Connector/J streams rows one at a time when the fetch size is
+    // Integer.MIN_VALUE on a forward-only, read-only statement.
+    static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final String MOVIE_QUERY = "SELECT movie_id, title, language, genre, format, imdb_rating, "
+            + "release_date, duration FROM movies ORDER BY movie_id";
+    private static final String SHOWTIME_QUERY = "SELECT showtime_id, movie_id, screen_id, start_minute, layout_id "
+            + "FROM showtimes "
+            + "ORDER BY movie_id, showtime_id";
+    private static final String LAYOUT_QUERY = "SELECT layout_id, name, cells, tier_prices FROM seat_layouts";
+    private static final String BOOKED_SEAT_QUERY = "SELECT showtime_id, seat_index FROM seat_inventory "
+            + "ORDER BY showtime_id, seat_index";
+
+    private static final String MOVIE_QUERY_BY_ID = "SELECT movie_id, title, language, genre, format, "
+            + "imdb_rating, release_date, duration FROM movies WHERE movie_id";
+    private static final String SHOWTIME_QUERY_BY_ID = "SELECT showtime_id, movie_id, screen_id, "
+            + "start_minute, layout_id FROM showtimes WHERE showtime_id";
+    private static final String CHANGE_QUERY = "SELECT version, entity, entity_id, seat_index, operation, "
+            + "changed_at < TIMESTAMPADD(MICROSECOND, ?, NOW(3)) FROM change_log WHERE version > ? "
+            + "ORDER BY version LIMIT ?";
+    private static final String RECENT_VERSION_QUERY = "SELECT version, "
+            + "changed_at < TIMESTAMPADD(MICROSECOND, ?, NOW(3)) FROM change_log ORDER BY version DESC LIMIT 1000";
+
+    private static final int DELTA_ROW_LIMIT = 100_000; // Larger backlogs are read over several refreshes
+    private static final int IN_LIST_CHUNK = 500;
+
+    private final int fetchSize;
+
+    // Constructor
+    public CatalogLoader() {
+        this(STREAMING_FETCH_SIZE);
+    }
+
+    public CatalogLoader(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Loads every movie with its showtimes and booked seats in a constant number
+     * of queries.
+     *
+     * @param conn An open connection.
+     * @return The movies in id order.
+     */
+    public List<Movie> load(Connection conn) throws SQLException {
+        List<Movie> movies = new ArrayList<>();
+        Map<Integer, List<ShowTime>> showTimesByMovie = new HashMap<>();
+
+        try (PreparedStatement pstmt = prepareStreaming(conn, MOVIE_QUERY);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                // Showtimes are attached below, once all are read
+                Movie movie = new Movie(
+                        rs.getInt(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getString(5),
+                        rs.getDouble(6),
+                        rs.getString(7),
+                        rs.getInt(8),
+                        List.of());
+                movies.add(movie);
+                showTimesByMovie.put(movie.getId(), new ArrayList<>());
+            }
+        }
+
+        Map<Integer, SeatLayout> layouts = loadLayouts(conn);
+        Map<Integer, ShowTime> showTimesById = new HashMap<>();
+        try (PreparedStatement pstmt = prepareStreaming(conn, SHOWTIME_QUERY);
+                ResultSet rs = pstmt.executeQuery()) {
+            List<ShowTime> current = null;
+            int currentMovieId = 0;
+            while (rs.next()) {
+                int movieId = rs.getInt(2);
+                // Rows arrive grouped by movie, so the map is only hit once per movie
+                if (current == null || currentMovieId != movieId) {
+                    current = showTimesByMovie.get(movieId);
+                    currentMovieId = movieId;
+                }
+                if (current == null) {
+                    continue; // Movie deleted between the two queries
+                }
+                ShowTime showTime = new ShowTime(rs.getInt(3), rs.getInt(4), layoutFor(layouts, rs.getInt(5)));
+                showTime.setId(rs.getInt(1));
+                showTime.setMovieId(movieId);
+                current.add(showTime);
+                showTimesById.put(showTime.getId(), showTime);
+            }
+        }
+        movies.replaceAll(movie -> movie.withShowTimes(showTimesByMovie.get(movie.getId())));
+
+        try (PreparedStatement pstmt = prepareStreaming(conn, BOOKED_SEAT_QUERY);
+                ResultSet rs = pstmt.executeQuery()) {
+            ShowTime current = null;
+            while (rs.next()) {
+                int showTimeId = rs.getInt(1);
+                if (current == null || current.getId() != showTimeId) {
+                    current = showTimesById.get(showTimeId);
+                }
+                if (current != null) {
+                    markBooked(current, rs.getInt(2));
+                }
+            }
+        }
+        return movies;
+    }
+
+    /**
+     * Returns the change-log version a fresh {@link #load} reflects: the newest
+     * version below which every change is older than the grace period. Changes
+     * after it are picked up (again, harmlessly) by the next delta.
+     */
+    public long currentVersion(Connection conn, long graceMillis) throws SQLException {
+        long version = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(RECENT_VERSION_QUERY)) {
+            pstmt.setLong(1, -graceMillis * 1000);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                // Newest first: the watermark sits just below the oldest unsettled change
+                while (rs.next()) {
+                    if (rs.getBoolean(2)) {
+                        version = Math.max(version, rs.getLong(1));
+                        break;
+                    }
+                    version = rs.getLong(1) - 1;
+                }
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Reads the catalog changes recorded after {@code version}.
+     *
+     * @param graceMillis Changes younger than this may still have slower, lower
+     *                    versioned transactions committing around them; the
+     *                    returned version stops before them so they are re-read.
+     */
+    public CatalogDelta loadChangesSince(Connection conn, long version, long graceMillis) throws SQLException {
+        Map<Integer, Character> movieOps = new LinkedHashMap<>();
+        Map<Integer, Character> showTimeOps = new LinkedHashMap<>();
+        List<CatalogDelta.SeatChange> seatChanges = new ArrayList<>();
+        long watermark = version;
+        boolean settledPrefix = true;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(CHANGE_QUERY)) {
+            pstmt.setLong(1, -graceMillis * 1000);
+            pstmt.setLong(2, version);
+            pstmt.setInt(3, DELTA_ROW_LIMIT);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long rowVersion = rs.getLong(1);
+                    String entity = rs.getString(2);
+                    int entityId = rs.getInt(3);
+                    char operation = rs.getString(5).charAt(0);
+                    settledPrefix &= rs.getBoolean(6);
+                    if (settledPrefix) {
+                        watermark = rowVersion;
+                    }
+                    switch (entity) {
+                        case "MOVIE" -> movieOps.put(entityId, operation);
+                        case "SHOWTIME" -> showTimeOps.put(entityId, operation);
+                        case "SEAT" -> seatChanges.add(new CatalogDelta.SeatChange(rowVersion, entityId,
+                                rs.getInt(4), operation != 'D'));
+                        default -> {
+                            // Unknown entity from a newer schema; ignore
+                        }
+                    }
+                }
+            }
+        }
+
+        CatalogDelta delta = new CatalogDelta(watermark);
+        delta.seatChanges.addAll(seatChanges);
+
+        // Re-read the current state of every touched movie; ids no longer present were deleted
+        List<Integer> movieIds = liveIds(movieOps, delta.deletedMovieIds);
+        for (List<Integer> chunk : chunks(movieIds)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(MOVIE_QUERY_BY_ID + inList(chunk.size()))) {
+                bindIds(pstmt, chunk);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Movie movie = new Movie(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                rs.getString(5), rs.getDouble(6), rs.getString(7), rs.getInt(8), List.of());
+                        delta.upsertedMovies.add(movie);
+                        movieOps.remove(movie.getId());
+                    }
+                }
+            }
+        }
+        for (Integer movieId : movieIds) {
+            if (movieOps.containsKey(movieId)) {
+                delta.deletedMovieIds.add(movieId);
+            }
+        }
+
+        List<Integer> showTimeIds = liveIds(showTimeOps, delta.deletedShowTimeIds);
+        Map<Integer, SeatLayout> layouts = showTimeIds.isEmpty() ? Map.of() : loadLayouts(conn);
+        for (List<Integer> chunk : chunks(showTimeIds)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SHOWTIME_QUERY_BY_ID + inList(chunk.size()))) {
+                bindIds(pstmt, chunk);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ShowTime showTime = new ShowTime(rs.getInt(3), rs.getInt(4), layoutFor(layouts, rs.getInt(5)));
+                        showTime.setId(rs.getInt(1));
+                        showTime.setMovieId(rs.getInt(2));
+                        delta.upsertedShowTimes.add(showTime);
+                        showTimeOps.remove(showTime.getId());
+                    }
+                }
+            }
+        }
+        for (Integer showTimeId : showTimeIds) {
+            if (showTimeOps.containsKey(showTimeId)) {
+                delta.deletedShowTimeIds.add(showTimeId);
+            }
+        }
+        return delta;
+    }
+
+    // Splits ids into those whose last operation was a delete and the rest
+    private static List<Integer> liveIds(Map<Integer, Character> lastOps, List<Integer> deleted) {
+        List<Integer> live = new ArrayList<>();
+        for (Map.Entry<Integer, Character> entry : lastOps.entrySet()) {
+            if (entry.getValue() == 'D') {
+                deleted.add(entry.getKey());
+            } else {
+                live.add(entry.getKey());
+            }
+        }
+        return live;
+    }
+
+    private static List<List<Integer>> chunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + IN_LIST_CHUNK)));
+        }
+        return chunks;
+    }
+
+    private static String inList(int size) {
+        StringBuilder sb = new StringBuilder(" IN (");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(')').toString();
+    }
+
+    private static void bindIds(PreparedStatement pstmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            pstmt.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    /**
+     * Reads every seat layout template, interned so showtimes loaded at different
+     * times share the same instances.
+     *
+     * @throws SQLException If a template cannot be parsed. Its showtimes cannot be
+     *                      sold safely against any other template, so the load
+     *                      fails rather than guessing.
+     */
+    public static Map<Integer, SeatLayout> loadLayouts(Connection conn) throws SQLException {
+        Map<Integer, SeatLayout> layouts = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(LAYOUT_QUERY);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    String[] priceText = rs.getString(4).split(",");
+                    long[] tierPrices = new long[priceText.length];
+                    for (int i = 0; i < priceText.length; i++) {
+                        tierPrices[i] = Money.parse(priceText[i]);
+                    }
+                    SeatLayout layout = new SeatLayout(rs.getInt(1), rs.getString(2), rs.getString(3), tierPrices);
+                    layouts.put(layout.getId(), SeatLayout.intern(layout));
+                } catch (IllegalArgumentException | ArithmeticException e) { // Includes unparseable prices
+                    throw new SQLException("Seat layout " + rs.getInt(1) + " cannot be parsed", e);
+                }
+            }
+        }
+        return layouts;
+    }
+
+    public static SeatLayout layoutFor(Map<Integer, SeatLayout> layouts, int layoutId) throws SQLException {
+        SeatLayout layout = layouts.get(layoutId);
+        if (layout == null) {
+            // Added after the templates were read, or a broken row; either way, do not guess
+            throw new SQLException("Unknown seat layout " + layoutId);
+        }
+        return layout;
+    }
+
+    private PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql); // Forward-only, read-only by default
+        if (fetchSize != STREAMING_FETCH_SIZE || "MySQL".equals(conn.getMetaData().getDatabaseProductName())) {
+            pstmt.setFetchSize(fetchSize); // Other drivers (e.g. H2 for benchmarks) reject the streaming hint
+        }
+        return pstmt;
+    }
+
+    private static void markBooked(ShowTime showTime, int seatIndex) {
+        showTime.getSeatMap().reserve(seatIndex); // Ignores indices outside the layout
+    }
+}
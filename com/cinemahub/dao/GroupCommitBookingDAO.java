@@ -0,0 +1,293 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Booking;
+import com.cinemahub.model.Money;
+import com.cinemahub.model.Seat;
+import com.cinemahub.util.DatabaseHelper;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A BookingDAO that commits concurrent bookings in groups.
+ * <p>
+ * Callers enqueue bookings with {@link #submit(Booking)}. A single writer thread
+ * collects them until the group is full or the oldest booking has waited the
+ * maximum delay, then writes the whole group in one transaction, so the group
+ * shares one commit (and one log flush). Each booking is written behind its own
+ * savepoint: a seat conflict or error rolls back only that booking. Every
+ * caller's future completes once the group's commit is durable.
+ * <p>
+ * Each booking row carries this writer's random ID and a sequence number in
+ * its (journal_id, journal_seq) columns. If the commit itself fails, it may
+ * still have landed, so the writer looks the group's keys up before retrying
+ * any booking; a committed booking is never written twice.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class GroupCommitBookingDAO implements BookingDAO {
+    private static final int GROUP_SIZE = Integer.getInteger("cinemahub.booking.groupSize", 64);
+    private static final long GROUP_DELAY_MS = Long.getLong("cinemahub.booking.groupDelayMs", 5);
+    private static final LatencyHistogram SAVE_BOOKING = Metrics.getMetrics().latency("dao.groupCommit.saveBooking");
+    private static final LatencyHistogram FLUSH = Metrics.getMetrics().latency("dao.groupCommit.flush");
+    private static final Counter GROUPS = Metrics.getMetrics().counter("dao.groupCommit.groups");
+    private static final Counter GROUP_ROLLBACKS = Metrics.getMetrics().counter("dao.groupCommit.groupRollbacks");
+    private static final Counter COMMIT_FAILURES = Metrics.getMetrics().counter("dao.groupCommit.commitFailures");
+
+    private static GroupCommitBookingDAO groupCommitBookingDAO; // Singleton instance
+
+    private final BlockingQueue<PendingBooking> queue = new LinkedBlockingQueue<>();
+    private final BookingDAOImpl fallbackDAO = new BookingDAOImpl();
+    private final int groupSize;
+    private final long groupDelayNanos;
+    private final Thread writer;
+    private final long writerId = new SecureRandom().nextLong() & Long.MAX_VALUE;
+    private long sequence; // Last key handed out; writer thread only
+
+    // Constructor
+    public GroupCommitBookingDAO(int groupSize, long groupDelay, TimeUnit unit) {
+        this.groupSize = groupSize;
+        this.groupDelayNanos = unit.toNanos(groupDelay);
+        this.writer = new Thread(this::writeLoop, "cinemahub-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Get the shared instance configured from system properties
+    public static synchronized GroupCommitBookingDAO getGroupCommitBookingDAO() {
+        if (groupCommitBookingDAO == null)
+            groupCommitBookingDAO = new GroupCommitBookingDAO(GROUP_SIZE, GROUP_DELAY_MS, TimeUnit.MILLISECONDS);
+        return groupCommitBookingDAO;
+    }
+
+    /**
+     * Saves a booking and waits until its group has committed.
+     */
+    @Override
+    public boolean saveBooking(Booking booking) {
+        long start = System.nanoTime();
+        try {
+            return submit(booking).join();
+        } finally {
+            SAVE_BOOKING.recordSince(start);
+        }
+    }
+
+    /**
+     * Queues a booking for the next group commit.
+     *
+     * @return A future that completes with true once the booking is durable, or
+     *         false if its seats were already sold or it could not be saved.
+     */
+    public CompletableFuture<Boolean> submit(Booking booking) {
+        PendingBooking pending = new PendingBooking(booking);
+        queue.add(pending);
+        return pending.result;
+    }
+
+    private void writeLoop() {
+        List<PendingBooking> group = new ArrayList<>(groupSize);
+        while (true) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + groupDelayNanos;
+                while (group.size() < groupSize) {
+                    queue.drainTo(group, groupSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= groupSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingBooking next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                flush(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Never let one bad group kill the writer
+                e.printStackTrace();
+                for (PendingBooking pending : group) {
+                    pending.result.complete(false);
+                }
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * Writes a group in one transaction. Bookings whose seats conflict are rolled
+     * back to their savepoint and reported as failed; the rest commit together.
+     */
+    private void flush(List<PendingBooking> group) {
+        long start = System.nanoTime();
+        try {
+            writeGroup(group);
+        } finally {
+            FLUSH.recordSince(start);
+            GROUPS.increment();
+        }
+    }
+
+    private void writeGroup(List<PendingBooking> group) {
+        List<PendingBooking> written = new ArrayList<>(group.size());
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            for (PendingBooking pending : group) {
+                pending.sequence = ++sequence;
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    Booking booking = pending.booking;
+                    int userId = BookingDAOImpl.getOrCreateUser(booking.getUser(), conn);
+                    int bookingId = BookingDAOImpl.insertBooking(booking, userId, writerId, pending.sequence, conn);
+                    if (BookingDAOImpl.claimSeats(booking, bookingId, conn) != booking.getSeats().size()) {
+                        conn.rollback(savepoint); // Seat conflict: drop just this booking
+                        BookingDAOImpl.ROLLBACKS.increment();
+                        BookingDAOImpl.SEAT_CONFLICTS.increment();
+                        pending.result.complete(false);
+                        continue;
+                    }
+                    pending.userId = userId;
+                    pending.bookingId = bookingId;
+                    written.add(pending);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    conn.rollback(savepoint);
+                    BookingDAOImpl.ROLLBACKS.increment();
+                    pending.result.complete(false);
+                }
+            }
+
+            insertBookingSeats(written, conn);
+            try {
+                conn.commit();
+            } catch (SQLException e) {
+                // The commit may have landed even though it reported failure
+                e.printStackTrace();
+                COMMIT_FAILURES.increment();
+                resolveUncertainCommit(written);
+                retry(group);
+                return;
+            }
+        } catch (SQLException e) {
+            // The group failed before its commit, so none of it was saved
+            e.printStackTrace();
+            retry(group);
+            return;
+        }
+
+        for (PendingBooking pending : written) {
+            complete(pending);
+        }
+    }
+
+    // Completes the bookings of a failed commit that the database did commit
+    private void resolveUncertainCommit(List<PendingBooking> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            Set<Long> committed = findCommitted(written, conn);
+            for (PendingBooking pending : written) {
+                if (committed.contains(pending.sequence)) {
+                    complete(pending);
+                }
+            }
+        } catch (SQLException e) {
+            // Cannot tell whether they were saved; retrying could book them twice
+            e.printStackTrace();
+            System.err.println("Could not check " + written.size() + " booking(s) after a failed group commit "
+                    + "(writer " + writerId + ", sequences " + written.get(0).sequence + "-"
+                    + written.get(written.size() - 1).sequence + "); reporting them as failed");
+            for (PendingBooking pending : written) {
+                pending.result.complete(false);
+            }
+        }
+    }
+
+    // Sequences of the written bookings that are in the database
+    private Set<Long> findCommitted(List<PendingBooking> written, Connection conn) throws SQLException {
+        Set<Long> committed = new HashSet<>();
+        String sql = "SELECT journal_seq FROM bookings WHERE journal_id = ? AND journal_seq BETWEEN ? AND ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, writerId);
+            pstmt.setLong(2, written.get(0).sequence);
+            pstmt.setLong(3, written.get(written.size() - 1).sequence);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    committed.add(rs.getLong(1));
+                }
+            }
+        }
+        return committed;
+    }
+
+    // Retries the group's unfinished bookings one by one so a single bad booking cannot fail the others
+    private void retry(List<PendingBooking> group) {
+        if (group.stream().allMatch(pending -> pending.result.isDone())) {
+            return;
+        }
+        GROUP_ROLLBACKS.increment();
+        for (PendingBooking pending : group) {
+            if (!pending.result.isDone()) {
+                pending.result.complete(fallbackDAO.saveBooking(pending.booking));
+            }
+        }
+    }
+
+    private static void complete(PendingBooking pending) {
+        UserCache.getUserCache().put(pending.booking.getUser().getNic(), pending.userId);
+        pending.result.complete(true);
+    }
+
+    // One batched (multi-row) insert for the seats of every booking in the group
+    private static void insertBookingSeats(List<PendingBooking> written, Connection conn) throws SQLException {
+        if (written.isEmpty()) {
+            return;
+        }
+        String insertSeat = "INSERT INTO booking_seats (booking_id, seat_index, seat_type, price) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSeat)) {
+            for (PendingBooking pending : written) {
+                for (Seat seat : pending.booking.getSeats()) {
+                    pstmt.setInt(1, pending.bookingId);
+                    pstmt.setInt(2, seat.getIndex());
+                    pstmt.setString(3, seat.getSeatType().toString());
+                    pstmt.setBigDecimal(4, Money.toBigDecimal(seat.getPrice()));
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // A queued booking and the future its caller is waiting on
+    private static final class PendingBooking {
+        private final Booking booking;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private int userId;
+        private int bookingId;
+        private long sequence;
+
+        PendingBooking(Booking booking) {
+            this.booking = booking;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Booking;
+import com.cinemahub.model.Money;
+import com.cinemahub.model.Seat;
+import com.cinemahub.util.DatabaseHelper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A BookingDAO that confirms bookings from a local write-ahead journal instead
+ * of waiting for the database.
+ * <p>
+ * {@link #saveBooking(Booking)} appends the booking to a memory-mapped
+ * {@link BookingJournal} and returns as soon as the record is on disk, so the
+ * database is off the customer's path and a database outage does not fail
+ * bookings. A replicator thread drains the journal into the database in
+ * batches, one transaction per batch with a savepoint per booking, and retries
+ * a batch until the database takes it. Each booking row records the journal
+ * and sequence it came from under a unique key, so entries replayed after a
+ * crash, before the journal learnt they were applied, are skipped rather than
+ * inserted twice.
+ * <p>
+ * The in-memory seat maps keep one instance from selling a seat twice before
+ * its bookings reach the database. Bookings journaled but not yet replicated
+ * are reserved again in the seat maps whenever MovieManager loads the catalog,
+ * and the replicator only starts once the first load has done so (see
+ * {@link #startReplicator()}).
+ * <p>
+ * Journal mode gives up the database's protection against overselling across
+ * instances: a booking is confirmed before the database sees it, so when
+ * several instances share a database two of them can confirm the same seat.
+ * The booking replicated second loses the seat. It is not dropped: it is
+ * recorded in {@code rejected_bookings} under its journal ID and sequence for
+ * a refund or rebooking, counted as {@code dao.journal.conflicts} and logged to
+ * standard error. Entries the database refuses outright (e.g. their showtime
+ * was deleted) are recorded there too.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class JournalingBookingDAO implements BookingDAO {
+    private static final String JOURNAL_FILE = System.getProperty("cinemahub.booking.journal", "bookings.journal");
+    private static final int JOURNAL_MB = Integer.getInteger("cinemahub.booking.journalMb", 64);
+    private static final int BATCH_SIZE = Integer.getInteger("cinemahub.booking.journalBatch", 64);
+    private static final long RETRY_MILLIS = 1000; // Pause after the database refused a batch
+
+    private static final LatencyHistogram SAVE_BOOKING = Metrics.getMetrics().latency("dao.journal.saveBooking");
+    private static final LatencyHistogram REPLICATE = Metrics.getMetrics().latency("dao.journal.replicate");
+    private static final Counter REPLICATED = Metrics.getMetrics().counter("dao.journal.replicated");
+    private static final Counter REPLAYED = Metrics.getMetrics().counter("dao.journal.replayed");
+    private static final Counter CONFLICTS = Metrics.getMetrics().counter("dao.journal.conflicts");
+    private static final Counter REJECTED = Metrics.getMetrics().counter("dao.journal.rejected");
+    private static final Counter RETRIES = Metrics.getMetrics().counter("dao.journal.retries");
+    private static final Counter FULL = Metrics.getMetrics().counter("dao.journal.full");
+
+    private static JournalingBookingDAO journalingBookingDAO; // Singleton instance
+
+    private final BookingJournal journal;
+    private final int batchSize;
+    private final Thread replicator;
+
+    /**
+     * The seats of a booking that is journaled but not yet in the database.
+     *
+     * @param showTimeId  The booked showtime.
+     * @param seatIndices The booked seats.
+     */
+    public record PendingSeats(int showTimeId, int[] seatIndices) {
+    }
+
+    // Constructor; replication waits for startReplicator
+    public JournalingBookingDAO(Path file, int capacityBytes, int batchSize) throws IOException {
+        this.journal = BookingJournal.open(file, capacityBytes);
+        this.batchSize = batchSize;
+        Metrics.getMetrics().gauge("dao.journal.pending", journal::getPendingCount);
+        this.replicator = new Thread(this::replicateLoop, "cinemahub-journal-replicator");
+        replicator.setDaemon(true); // Whatever is left is replayed on the next start
+    }
+
+    // True if -Dcinemahub.booking.journal asks for bookings to be journaled
+    public static boolean isConfigured() {
+        return System.getProperty("cinemahub.booking.journal") != null;
+    }
+
+    // Get the shared instance configured from system properties
+    public static synchronized JournalingBookingDAO getJournalingBookingDAO() {
+        if (journalingBookingDAO == null) {
+            try {
+                journalingBookingDAO = new JournalingBookingDAO(Path.of(JOURNAL_FILE), JOURNAL_MB << 20, BATCH_SIZE);
+            } catch (IOException e) {
+                // Carrying on without the journal would silently give up its guarantees
+                throw new UncheckedIOException("Cannot open the booking journal " + JOURNAL_FILE, e);
+            }
+        }
+        return journalingBookingDAO;
+    }
+
+    /**
+     * Journals a booking. The database is updated later by the replicator.
+     *
+     * @return True once the booking is on disk; false if its seats do not match
+     *         the showtime's layout, the journal stayed full or it could not be
+     *         written.
+     */
+    @Override
+    public boolean saveBooking(Booking booking) {
+        long start = System.nanoTime();
+        try {
+            if (!BookingDAOImpl.matchesLayout(booking)) {
+                System.err.println("Seat not found in showtime layout"); // Should not happen if logic is correct
+                return false;
+            }
+            if (journal.append(booking) < 0) {
+                FULL.increment();
+                return false;
+            }
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            SAVE_BOOKING.recordSince(start);
+        }
+    }
+
+    /**
+     * Starts copying journaled bookings into the database, unless already
+     * started. Call it once the catalog's seat maps hold the seats of
+     * {@link #getPendingSeats()}, or a database read before then would show
+     * those seats as free.
+     */
+    public synchronized void startReplicator() {
+        if (replicator.getState() == Thread.State.NEW) {
+            replicator.start();
+        }
+    }
+
+    /**
+     * Returns the seats of every booking confirmed but not yet in the
+     * database, oldest first. A catalog loaded from the database after this
+     * call holds every other confirmed booking.
+     */
+    public List<PendingSeats> getPendingSeats() {
+        List<PendingSeats> pending = new ArrayList<>();
+        for (BookingJournal.Entry entry : journal.getPending()) {
+            int[] seatIndices = new int[entry.seats().size()];
+            for (int i = 0; i < seatIndices.length; i++) {
+                seatIndices[i] = entry.seats().get(i).getIndex();
+            }
+            pending.add(new PendingSeats(entry.showTimeId(), seatIndices));
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the number of bookings confirmed but not yet in the database.
+     */
+    public long getPendingCount() {
+        return journal.getPendingCount();
+    }
+
+    private void replicateLoop() {
+        while (true) {
+            try {
+                List<BookingJournal.Entry> batch = journal.awaitPending(batchSize);
+                while (!replicate(batch)) {
+                    RETRIES.increment();
+                    Thread.sleep(RETRY_MILLIS);
+                }
+                journal.markApplied(batch.get(batch.size() - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Never let one bad batch kill the replicator
+                e.printStackTrace();
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction, skipping entries already in the
+     * database. Entries that cannot be booked are written to
+     * {@code rejected_bookings} in the same transaction instead.
+     *
+     * @return True if the batch committed; false if it should be retried.
+     */
+    private boolean replicate(List<BookingJournal.Entry> batch) {
+        long start = System.nanoTime();
+        List<BookingJournal.Entry> written = new ArrayList<>(batch.size());
+        List<Integer> userIds = new ArrayList<>(batch.size());
+        int replayed = 0;
+        int rejected = 0;
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            Set<Long> applied = findApplied(batch, conn);
+            for (BookingJournal.Entry entry : batch) {
+                if (applied.contains(entry.sequence())) {
+                    replayed++;
+                    continue;
+                }
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    int userId = BookingDAOImpl.getOrCreateUser(entry.user(), conn);
+                    int bookingId = insertBooking(entry, userId, conn);
+                    if (BookingDAOImpl.claimSeats(entry.showTimeId(), entry.seats(), bookingId, conn)
+                            != entry.seats().size()) {
+                        conn.rollback(savepoint); // Sold by another instance first
+                        BookingDAOImpl.ROLLBACKS.increment();
+                        BookingDAOImpl.SEAT_CONFLICTS.increment();
+                        CONFLICTS.increment();
+                        reject(entry, "SEAT_TAKEN", conn);
+                        rejected++;
+                        System.err.println("Journaled booking " + entry.sequence() + " for NIC " + entry.user().getNic()
+                                + " lost its seats in showtime " + entry.showTimeId()
+                                + " to another booking; recorded in rejected_bookings");
+                        continue;
+                    }
+                    BookingDAOImpl.insertBookingSeats(entry.seats(), bookingId, conn);
+                    written.add(entry);
+                    userIds.add(userId);
+                } catch (SQLIntegrityConstraintViolationException | SQLDataException e) {
+                    // The entry itself is bad (e.g. its showtime was deleted); retrying would not help
+                    e.printStackTrace();
+                    conn.rollback(savepoint);
+                    BookingDAOImpl.ROLLBACKS.increment();
+                    reject(entry, "INVALID", conn);
+                    rejected++;
+                    System.err.println("Journaled booking " + entry.sequence() + " for NIC " + entry.user().getNic()
+                            + " could not be saved; recorded in rejected_bookings");
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            BookingDAOImpl.ROLLBACKS.increment();
+            return false;
+        } finally {
+            REPLICATE.recordSince(start);
+        }
+
+        UserCache userCache = UserCache.getUserCache();
+        for (int i = 0; i < written.size(); i++) {
+            userCache.put(written.get(i).user().getNic(), userIds.get(i));
+        }
+        REPLICATED.add(written.size());
+        REPLAYED.add(replayed);
+        REJECTED.add(rejected);
+        return true;
+    }
+
+    // Sequences of the batch that an earlier run already committed, as bookings or rejections
+    private Set<Long> findApplied(List<BookingJournal.Entry> batch, Connection conn) throws SQLException {
+        Set<Long> applied = new HashSet<>();
+        String sql = "SELECT journal_seq FROM bookings WHERE journal_id = ? AND journal_seq BETWEEN ? AND ? "
+                + "UNION ALL SELECT journal_seq FROM rejected_bookings WHERE journal_id = ? AND journal_seq BETWEEN ? AND ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int offset = 0; offset <= 3; offset += 3) {
+                pstmt.setLong(offset + 1, journal.getJournalId());
+                pstmt.setLong(offset + 2, batch.get(0).sequence());
+                pstmt.setLong(offset + 3, batch.get(batch.size() - 1).sequence());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    applied.add(rs.getLong(1));
+                }
+            }
+        }
+        return applied;
+    }
+
+    // Keeps a confirmed booking the database would not take, for a refund or rebooking
+    private void reject(BookingJournal.Entry entry, String reason, Connection conn) throws SQLException {
+        StringBuilder seatIndices = new StringBuilder();
+        for (Seat seat : entry.seats()) {
+            if (seatIndices.length() > 0) {
+                seatIndices.append(',');
+            }
+            seatIndices.append(seat.getIndex());
+        }
+        String insertRejection = "INSERT INTO rejected_bookings (journal_id, journal_seq, showtime_id, nic, name, email, "
+                + "seat_indexes, total_price, booking_date, reason) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertRejection)) {
+            pstmt.setLong(1, journal.getJournalId());
+            pstmt.setLong(2, entry.sequence());
+            pstmt.setInt(3, entry.showTimeId());
+            // Clipped to the columns: an overlong value may be why the booking was refused
+            pstmt.setString(4, clip(entry.user().getNic(), 50));
+            pstmt.setString(5, clip(entry.user().getName(), 100));
+            pstmt.setString(6, clip(entry.user().getEmail(), 100));
+            pstmt.setString(7, seatIndices.toString());
+            pstmt.setBigDecimal(8, Money.toBigDecimal(entry.totalPrice()));
+            pstmt.setTimestamp(9, new Timestamp(entry.bookedAt()));
+            pstmt.setString(10, reason);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static String clip(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private int insertBooking(BookingJournal.Entry entry, int userId, Connection conn) throws SQLException {
+        String insertBooking = "INSERT INTO bookings (user_id, showtime_id, total_price, booking_date, journal_id, "
+                + "journal_seq) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insertBooking, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, entry.showTimeId());
+            pstmt.setBigDecimal(3, Money.toBigDecimal(entry.totalPrice()));
+            pstmt.setTimestamp(4, new Timestamp(entry.bookedAt()));
+            pstmt.setLong(5, journal.getJournalId());
+            pstmt.setLong(6, entry.sequence());
+            pstmt.executeUpdate();
+
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getInt(1);
+                }
+            }
+        }
+        throw new SQLException("Failed to create booking.");
+    }
+}
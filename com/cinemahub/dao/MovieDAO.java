@@ -12,9 +12,33 @@ import java.util.List;
 public interface MovieDAO {
     List<Movie> getAllMovies();
 
-    void saveMovie(Movie movie);
+    /**
+     * Saves a movie and its showtimes in a single transaction. The showtimes
+     * get their IDs; the movie, being immutable, does not.
+     *
+     * @return The movie's new ID, or 0 if it could not be saved.
+     */
+    int saveMovie(Movie movie);
 
     void deleteMovie(Movie movie);
 
     void addShowTime(ShowTime showTime, int movieId);
+
+    /**
+     * Saves several showtimes of one movie in a single transaction.
+     *
+     * @return True if all were saved, false if none were.
+     */
+    boolean addShowTimes(List<ShowTime> showTimes, int movieId);
+
+    /**
+     * Returns the change-log version that a catalog loaded now reflects.
+     */
+    long getCatalogVersion();
+
+    /**
+     * Returns the catalog changes recorded after a version, or null if they could
+     * not be read.
+     */
+    CatalogDelta getChangesSince(long version);
 }
@@ -1,7 +1,8 @@
 package com.cinemahub.dao;
 
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
 import com.cinemahub.model.Movie;
-import com.cinemahub.model.Seat;
 import com.cinemahub.model.ShowTime;
 import com.cinemahub.util.DatabaseHelper;
 
@@ -16,190 +17,260 @@ import java.util.List;
  */
 public class MovieDAOImpl implements MovieDAO {
 
+    // Changes younger than this are re-read on the next refresh in case a slower
+    // transaction with a lower version commits around them
+    private static final long CHANGE_GRACE_MS = Long.getLong("cinemahub.catalog.changeGraceMs", 5_000);
+    private static final LatencyHistogram GET_ALL_MOVIES = Metrics.getMetrics().latency("dao.getAllMovies");
+    private static final LatencyHistogram SAVE_MOVIE = Metrics.getMetrics().latency("dao.saveMovie");
+    private static final LatencyHistogram DELETE_MOVIE = Metrics.getMetrics().latency("dao.deleteMovie");
+    private static final LatencyHistogram ADD_SHOW_TIME = Metrics.getMetrics().latency("dao.addShowTime");
+    private static final LatencyHistogram ADD_SHOW_TIMES = Metrics.getMetrics().latency("dao.addShowTimes");
+    private static final LatencyHistogram GET_CATALOG_VERSION = Metrics.getMetrics()
+            .latency("dao.getCatalogVersion");
+    private static final LatencyHistogram GET_CHANGES_SINCE = Metrics.getMetrics().latency("dao.getChangesSince");
+
+    private final CatalogLoader catalogLoader = new CatalogLoader();
+
     /**
      * Retrieves all movies, their showtimes, and seat availability from the
-     * database.
+     * database in a constant number of queries.
      */
     @Override
     public List<Movie> getAllMovies() {
-        List<Movie> movies = new ArrayList<>();
-        String movieQuery = "SELECT * FROM movies";
-
-        try (Connection conn = DatabaseHelper.getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(movieQuery)) {
-
-            while (rs.next()) {
-                Movie movie = new Movie(
-                        rs.getString("title"),
-                        rs.getString("language"),
-                        rs.getString("genre"),
-                        rs.getString("format"),
-                        rs.getDouble("imdb_rating"),
-                        rs.getString("release_date"),
-                        rs.getInt("duration"));
-                movie.setId(rs.getInt("movie_id"));
-
-                // Load showtimes for this movie
-                loadShowTimes(movie, conn);
-
-                movies.add(movie);
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = DatabaseHelper.getConnection()) {
+                return catalogLoader.load(conn);
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return new ArrayList<>();
+        } finally {
+            GET_ALL_MOVIES.recordSince(start);
         }
-        return movies;
     }
 
     /**
-     * Loads showtimes for a specific movie and marks booked seats.
+     * Saves a new movie and its showtimes to the database transactionally.
      */
-    private void loadShowTimes(Movie movie, Connection conn) throws SQLException {
-        String showTimeQuery = "SELECT * FROM showtimes WHERE movie_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(showTimeQuery)) {
-            pstmt.setInt(1, movie.getId());
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    ShowTime showTime = new ShowTime(
-                            rs.getString("day"),
-                            rs.getString("show_time"));
-                    showTime.setId(rs.getInt("showtime_id"));
-
-                    // Mark booked seats as unavailable
-                    markBookedSeats(showTime, conn);
-
-                    movie.getShowTimes().add(showTime);
+    @Override
+    public int saveMovie(Movie movie) {
+        long start = System.nanoTime();
+        try {
+            int savedId = 0;
+            String insertMovie = "INSERT INTO movies (title, language, genre, format, imdb_rating, release_date, duration) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            String insertShowTime = "INSERT INTO showtimes (movie_id, screen_id, start_minute, layout_id) VALUES (?, ?, ?, ?)";
+
+            Connection conn = null;
+            try {
+                conn = DatabaseHelper.getConnection();
+                conn.setAutoCommit(false); // Start transaction
+
+                // Insert Movie
+                int movieId = -1;
+                try (PreparedStatement movieStmt = conn.prepareStatement(insertMovie, Statement.RETURN_GENERATED_KEYS)) {
+                    movieStmt.setString(1, movie.getTitle());
+                    movieStmt.setString(2, movie.getLanguage());
+                    movieStmt.setString(3, movie.getGenre());
+                    movieStmt.setString(4, movie.getFormat());
+                    movieStmt.setDouble(5, movie.getImdbRating());
+                    movieStmt.setString(6, movie.getReleaseDate());
+                    movieStmt.setInt(7, movie.getDuration());
+                    movieStmt.executeUpdate();
+
+                    try (ResultSet generatedKeys = movieStmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            movieId = generatedKeys.getInt(1);
+                        }
+                    }
+                }
+
+                // Insert ShowTimes
+                if (movieId != -1) {
+                    try (PreparedStatement showTimeStmt = conn.prepareStatement(insertShowTime,
+                            Statement.RETURN_GENERATED_KEYS)) {
+                        for (ShowTime st : movie.getShowTimes()) {
+                            showTimeStmt.setInt(1, movieId);
+                            showTimeStmt.setInt(2, st.getScreenId());
+                            showTimeStmt.setInt(3, st.getStartMinute());
+                            showTimeStmt.setInt(4, st.getSeatMap().getLayout().getId());
+                            showTimeStmt.executeUpdate();
+
+                            try (ResultSet stKeys = showTimeStmt.getGeneratedKeys()) {
+                                if (stKeys.next()) {
+                                    st.setId(stKeys.getInt(1));
+                                    st.setMovieId(movieId);
+                                }
+                            }
+                        }
+                    }
+                }
+
+                conn.commit(); // Commit transaction
+                savedId = Math.max(movieId, 0);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                if (conn != null) {
+                    try {
+                        conn.rollback();
+                    } catch (SQLException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.close(); // Return to the pool; the pool restores auto-commit
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
+            return savedId;
+        } finally {
+            SAVE_MOVIE.recordSince(start);
         }
     }
 
-    /**
-     * Identifies which seats are booked for a showtime and marks them as
-     * unavailable.
-     */
-    private void markBookedSeats(ShowTime showTime, Connection conn) throws SQLException {
-        // Query to get booked seat indices for this showtime
-        String seatQuery = "SELECT bs.seat_index FROM booking_seats bs " +
-                "JOIN bookings b ON bs.booking_id = b.booking_id " +
-                "WHERE b.showtime_id = ?";
-
-        try (PreparedStatement pstmt = conn.prepareStatement(seatQuery)) {
-            pstmt.setInt(1, showTime.getId());
-            try (ResultSet rs = pstmt.executeQuery()) {
-                List<Seat> seats = showTime.getSeats();
-                while (rs.next()) {
-                    int seatIndex = rs.getInt("seat_index");
-                    if (seatIndex >= 0 && seatIndex < seats.size()) {
-                        seats.get(seatIndex).setAvailable(false);
+    @Override
+    public void deleteMovie(Movie movie) {
+        long start = System.nanoTime();
+        try {
+            String deleteQuery = "DELETE FROM movies WHERE movie_id = ?";
+            try (Connection conn = DatabaseHelper.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(deleteQuery)) {
+                pstmt.setInt(1, movie.getId());
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        } finally {
+            DELETE_MOVIE.recordSince(start);
+        }
+    }
+
+    @Override
+    public void addShowTime(ShowTime showTime, int movieId) {
+        long start = System.nanoTime();
+        try {
+            String insertQuery = "INSERT INTO showtimes (movie_id, screen_id, start_minute, layout_id) VALUES (?, ?, ?, ?)";
+            try (Connection conn = DatabaseHelper.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, movieId);
+                pstmt.setInt(2, showTime.getScreenId());
+                pstmt.setInt(3, showTime.getStartMinute());
+                pstmt.setInt(4, showTime.getSeatMap().getLayout().getId());
+                pstmt.executeUpdate();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        showTime.setId(keys.getInt(1));
+                        showTime.setMovieId(movieId);
                     }
                 }
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
+        } finally {
+            ADD_SHOW_TIME.recordSince(start);
         }
     }
 
     /**
-     * Saves a new movie and its showtimes to the database transactionally.
+     * Saves a batch of showtimes in one transaction, so a bulk schedule upload is
+     * applied completely or not at all.
      */
     @Override
-    public void saveMovie(Movie movie) {
-        String insertMovie = "INSERT INTO movies (title, language, genre, format, imdb_rating, release_date, duration) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        String insertShowTime = "INSERT INTO showtimes (movie_id, day, show_time) VALUES (?, ?, ?)";
-
-        Connection conn = null;
+    public boolean addShowTimes(List<ShowTime> showTimes, int movieId) {
+        long start = System.nanoTime();
         try {
-            conn = DatabaseHelper.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-
-            // Insert Movie
-            int movieId = -1;
-            try (PreparedStatement movieStmt = conn.prepareStatement(insertMovie, Statement.RETURN_GENERATED_KEYS)) {
-                movieStmt.setString(1, movie.getTitle());
-                movieStmt.setString(2, movie.getLanguage());
-                movieStmt.setString(3, movie.getGenre());
-                movieStmt.setString(4, movie.getFormat());
-                movieStmt.setDouble(5, movie.getImdbRating());
-                movieStmt.setString(6, movie.getReleaseDate());
-                movieStmt.setInt(7, movie.getDuration());
-                movieStmt.executeUpdate();
-
-                try (ResultSet generatedKeys = movieStmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        movieId = generatedKeys.getInt(1);
-                        movie.setId(movieId);
+            String insertQuery = "INSERT INTO showtimes (movie_id, screen_id, start_minute, layout_id) VALUES (?, ?, ?, ?)";
+            Connection conn = null;
+            try {
+                conn = DatabaseHelper.getConnection();
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+                    for (ShowTime showTime : showTimes) {
+                        pstmt.setInt(1, movieId);
+                        pstmt.setInt(2, showTime.getScreenId());
+                        pstmt.setInt(3, showTime.getStartMinute());
+                        pstmt.setInt(4, showTime.getSeatMap().getLayout().getId());
+                        pstmt.addBatch();
                     }
-                }
-            }
+                    pstmt.executeBatch();
 
-            // Insert ShowTimes
-            if (movieId != -1) {
-                try (PreparedStatement showTimeStmt = conn.prepareStatement(insertShowTime,
-                        Statement.RETURN_GENERATED_KEYS)) {
-                    for (ShowTime st : movie.getShowTimes()) {
-                        showTimeStmt.setInt(1, movieId);
-                        showTimeStmt.setString(2, st.getDay());
-                        showTimeStmt.setString(3, st.getTime());
-                        showTimeStmt.executeUpdate();
-
-                        try (ResultSet stKeys = showTimeStmt.getGeneratedKeys()) {
-                            if (stKeys.next()) {
-                                st.setId(stKeys.getInt(1));
+                    // Keys come back in batch order
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        for (ShowTime showTime : showTimes) {
+                            if (!keys.next()) {
+                                throw new SQLException("Missing generated key for showtime");
                             }
+                            showTime.setId(keys.getInt(1));
                         }
                     }
                 }
-            }
-
-            conn.commit(); // Commit transaction
-        } catch (SQLException e) {
-            e.printStackTrace();
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
+                conn.commit();
+                for (ShowTime showTime : showTimes) {
+                    showTime.setMovieId(movieId);
                 }
-            }
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (SQLException e) {
-                    e.printStackTrace();
+                return true;
+            } catch (SQLException e) {
+                e.printStackTrace();
+                if (conn != null) {
+                    try {
+                        conn.rollback();
+                    } catch (SQLException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                for (ShowTime showTime : showTimes) {
+                    showTime.setId(0);
+                }
+                return false;
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.close(); // Return to the pool; the pool restores auto-commit
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
+        } finally {
+            ADD_SHOW_TIMES.recordSince(start);
         }
     }
 
     @Override
-    public void deleteMovie(Movie movie) {
-        String deleteQuery = "DELETE FROM movies WHERE movie_id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(deleteQuery)) {
-            pstmt.setInt(1, movie.getId());
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    public long getCatalogVersion() {
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = DatabaseHelper.getConnection()) {
+                return catalogLoader.currentVersion(conn, CHANGE_GRACE_MS);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            return 0;
+        } finally {
+            GET_CATALOG_VERSION.recordSince(start);
         }
     }
 
+    /**
+     * Reads the movies, showtimes and sold seats that changed after a version.
+     */
     @Override
-    public void addShowTime(ShowTime showTime, int movieId) {
-        String insertQuery = "INSERT INTO showtimes (movie_id, day, show_time) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseHelper.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setInt(1, movieId);
-            pstmt.setString(2, showTime.getDay());
-            pstmt.setString(3, showTime.getTime());
-            pstmt.executeUpdate();
-
-            try (ResultSet keys = pstmt.getGeneratedKeys()) {
-                if (keys.next()) {
-                    showTime.setId(keys.getInt(1));
-                }
+    public CatalogDelta getChangesSince(long version) {
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = DatabaseHelper.getConnection()) {
+                return catalogLoader.loadChangesSince(conn, version, CHANGE_GRACE_MS);
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return null;
+        } finally {
+            GET_CHANGES_SINCE.recordSince(start);
         }
     }
 }
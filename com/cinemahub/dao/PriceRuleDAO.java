@@ -0,0 +1,16 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.model.PriceRule;
+import java.util.List;
+
+/**
+ * Interface definition for Price Rule Data Access Object.
+ *
+ * @author Wasana Karunanayaka
+ */
+public interface PriceRuleDAO {
+    /**
+     * Returns the active pricing rules in ID order.
+     */
+    List<PriceRule> getActivePriceRules();
+}
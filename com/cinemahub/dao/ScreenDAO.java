@@ -0,0 +1,18 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.model.Screen;
+import com.cinemahub.model.SeatLayout;
+import java.util.List;
+
+/**
+ * Interface definition for Screen Data Access Object.
+ *
+ * @author Wasana Karunanayaka
+ */
+public interface ScreenDAO {
+    List<Screen> getAllScreens();
+
+    void saveScreen(Screen screen);
+
+    List<SeatLayout> getSeatLayouts();
+}
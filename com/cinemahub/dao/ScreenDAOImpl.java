@@ -0,0 +1,92 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Screen;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.util.DatabaseHelper;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of ScreenDAO using JDBC.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class ScreenDAOImpl implements ScreenDAO {
+    private static final LatencyHistogram GET_ALL_SCREENS = Metrics.getMetrics().latency("dao.getAllScreens");
+    private static final LatencyHistogram SAVE_SCREEN = Metrics.getMetrics().latency("dao.saveScreen");
+    private static final LatencyHistogram GET_SEAT_LAYOUTS = Metrics.getMetrics().latency("dao.getSeatLayouts");
+
+    @Override
+    public List<Screen> getAllScreens() {
+        long start = System.nanoTime();
+        try {
+            List<Screen> screens = new ArrayList<>();
+            String query = "SELECT screen_id, name, cleanup_minutes, layout_id FROM screens ORDER BY screen_id";
+            try (Connection conn = DatabaseHelper.getConnection()) {
+                Map<Integer, SeatLayout> layouts = CatalogLoader.loadLayouts(conn);
+                try (PreparedStatement pstmt = conn.prepareStatement(query);
+                        ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Screen screen = new Screen(rs.getString("name"), rs.getInt("cleanup_minutes"),
+                                CatalogLoader.layoutFor(layouts, rs.getInt("layout_id")));
+                        screen.setId(rs.getInt("screen_id"));
+                        screens.add(screen);
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            return screens;
+        } finally {
+            GET_ALL_SCREENS.recordSince(start);
+        }
+    }
+
+    @Override
+    public void saveScreen(Screen screen) {
+        long start = System.nanoTime();
+        try {
+            String insertQuery = "INSERT INTO screens (name, cleanup_minutes, layout_id) VALUES (?, ?, ?)";
+            try (Connection conn = DatabaseHelper.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, screen.getName());
+                pstmt.setInt(2, screen.getCleanupMinutes());
+                pstmt.setInt(3, screen.getLayout().getId());
+                pstmt.executeUpdate();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        screen.setId(keys.getInt(1));
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        } finally {
+            SAVE_SCREEN.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<SeatLayout> getSeatLayouts() {
+        long start = System.nanoTime();
+        try {
+            List<SeatLayout> layouts = new ArrayList<>();
+            try (Connection conn = DatabaseHelper.getConnection()) {
+                layouts.addAll(CatalogLoader.loadLayouts(conn).values());
+                layouts.sort(Comparator.comparingInt(SeatLayout::getId));
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            return layouts;
+        } finally {
+            GET_SEAT_LAYOUTS.recordSince(start);
+        }
+    }
+}
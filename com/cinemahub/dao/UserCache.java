@@ -0,0 +1,110 @@
+package com.cinemahub.dao;
+
+import com.cinemahub.metrics.Metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least-recently-used cache of NIC to user_id, shared by the booking
+ * DAOs so repeat customers skip the users table entirely.
+ * <p>
+ * Only ids of committed users are cached; callers add an entry after the
+ * transaction that created or found the user has committed.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class UserCache {
+    private static final int DEFAULT_CAPACITY = Integer.getInteger("cinemahub.userCache.size", 10_000);
+
+    private static UserCache userCache; // Singleton instance
+
+    private final int capacity;
+    private final Map<String, Integer> userIds;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Constructor
+    public UserCache(int capacity) {
+        this.capacity = capacity;
+        this.userIds = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > UserCache.this.capacity;
+            }
+        };
+    }
+
+    // Get the shared instance
+    public static synchronized UserCache getUserCache() {
+        if (userCache == null) {
+            userCache = new UserCache(DEFAULT_CAPACITY);
+            Metrics.getMetrics().gauge("userCache.hits", userCache::getHitCount);
+            Metrics.getMetrics().gauge("userCache.misses", userCache::getMissCount);
+            Metrics.getMetrics().gauge("userCache.size", userCache::size);
+        }
+        return userCache;
+    }
+
+    /**
+     * Looks up a user id by NIC and records a hit or miss.
+     *
+     * @return The user id, or null if the NIC is not cached.
+     */
+    public Integer get(String nic) {
+        Integer userId;
+        synchronized (userIds) {
+            userId = userIds.get(nic);
+        }
+        if (userId == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return userId;
+    }
+
+    /**
+     * Caches the id of a committed user.
+     */
+    public void put(String nic, int userId) {
+        if (capacity <= 0) {
+            return;
+        }
+        synchronized (userIds) {
+            userIds.put(nic, userId);
+        }
+    }
+
+    public void clear() {
+        synchronized (userIds) {
+            userIds.clear();
+        }
+    }
+
+    // Statistics for sizing the cache
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        synchronized (userIds) {
+            return userIds.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
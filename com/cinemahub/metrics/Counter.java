@@ -0,0 +1,26 @@
+package com.cinemahub.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A running total, e.g. bookings made. Counting is lock-free and does not
+ * allocate once the counter has been contended.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class Counter implements CounterMBean {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    @Override
+    public long getValue() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,10 @@
+package com.cinemahub.metrics;
+
+/**
+ * JMX view of a {@link Counter}.
+ *
+ * @author Wasana Karunanayaka
+ */
+public interface CounterMBean {
+    long getValue();
+}
@@ -0,0 +1,27 @@
+package com.cinemahub.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A value read on demand, e.g. idle pool connections or seats left. The
+ * supplier is only called when the gauge is read.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class Gauge implements GaugeMBean {
+    private volatile LongSupplier supplier;
+
+    Gauge(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    // Points the gauge at a new source, e.g. a pool that was recreated
+    void setSupplier(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public long getValue() {
+        return supplier.getAsLong();
+    }
+}
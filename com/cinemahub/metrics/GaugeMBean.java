@@ -0,0 +1,10 @@
+package com.cinemahub.metrics;
+
+/**
+ * JMX view of a {@link Gauge}.
+ *
+ * @author Wasana Karunanayaka
+ */
+public interface GaugeMBean {
+    long getValue();
+}
@@ -0,0 +1,20 @@
+package com.cinemahub.metrics;
+
+/**
+ * JMX view of a {@link LatencyHistogram}.
+ *
+ * @author Wasana Karunanayaka
+ */
+public interface LatencyHistogramMBean {
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,162 @@
+package com.cinemahub.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A singleton registry of the application's latency histograms, counters and
+ * gauges.
+ * <p>
+ * Every metric is published as a JMX MBean under {@code com.cinemahub}, e.g.
+ * {@code com.cinemahub:type=Latency,name=dao.saveBooking}, so it can be
+ * watched with JConsole or VisualVM. {@link #startDump} also writes all of
+ * them as text at a fixed period.
+ * <p>
+ * Look metrics up once, e.g. into a static final field, and record through
+ * the returned object: recording never touches the registry.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class Metrics {
+    private static final String DOMAIN = "com.cinemahub";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static Metrics metrics; // Singleton instance
+
+    // Sorted by name so dumps group related metrics together
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentSkipListMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    private ScheduledExecutorService dumper;
+
+    // private constructor
+    private Metrics() {
+    }
+
+    // Get the Singleton instance
+    public static synchronized Metrics getMetrics() {
+        if (metrics == null)
+            metrics = new Metrics();
+        return metrics;
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating and
+     * publishing it on first use.
+     */
+    public LatencyHistogram latency(String name) {
+        return latencies.computeIfAbsent(name, key -> register("Latency", key, new LatencyHistogram()));
+    }
+
+    /**
+     * Returns the counter with the given name, creating and publishing it on
+     * first use.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> register("Counter", key, new Counter()));
+    }
+
+    /**
+     * Publishes a gauge, or points an existing gauge of that name at a new
+     * supplier.
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.computeIfAbsent(name, key -> register("Gauge", key, new Gauge(supplier))).setSupplier(supplier);
+    }
+
+    /**
+     * Returns every metric as text, one per line.
+     */
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append("CinemaHub metrics at ").append(LocalDateTime.now().format(TIMESTAMP)).append('\n');
+        if (!latencies.isEmpty()) {
+            // Microseconds, so fast in-memory operations don't all print as zero
+            text.append(String.format("%-36s %10s %10s %10s %10s %10s %10s%n", "latency (us)", "count", "mean",
+                    "p50", "p99", "p999", "max"));
+            for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                long count = histogram.getCount();
+                if (count == 0) {
+                    continue;
+                }
+                text.append(String.format("%-36s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(), count,
+                        histogram.getMeanMillis() * 1e3, histogram.percentile(0.50) / 1e3,
+                        histogram.percentile(0.99) / 1e3, histogram.percentile(0.999) / 1e3, histogram.max() / 1e3));
+            }
+        }
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            text.append(String.format("%-36s %10d%n", entry.getKey(), entry.getValue().getValue()));
+        }
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            long value;
+            try {
+                value = entry.getValue().getValue();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                continue;
+            }
+            text.append(String.format("%-36s %10d%n", entry.getKey(), value));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes {@link #dump()} to {@code out} every {@code periodMillis}
+     * milliseconds from a background thread.
+     */
+    public synchronized void startDump(long periodMillis, PrintStream out) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cinemahub-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                out.print(dump());
+                out.flush();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic dump.
+     */
+    public synchronized void stopDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    // Publishes a metric over JMX; the metric still works if that fails
+    private <T> T register(String type, String name, T metric) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+            if (!mbeanServer.isRegistered(objectName)) {
+                mbeanServer.registerMBean(metric, objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        return metric;
+    }
+}
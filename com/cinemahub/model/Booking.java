@@ -13,10 +13,10 @@ public class Booking {
     private Movie movie; // Movie details
     private ShowTime showTime; // Showtime details
     private List<Seat> seats; // Booked seats
-    private double totalPrice; // Total price of the booking
+    private long totalPrice; // Total price of the booking, in minor units
 
     // Constructor
-    public Booking(User user, Movie movie, ShowTime showTime, List<Seat> seats, double totalPrice) {
+    public Booking(User user, Movie movie, ShowTime showTime, List<Seat> seats, long totalPrice) {
         this.user = user;
         this.movie = movie;
         this.showTime = showTime;
@@ -34,10 +34,24 @@ public class Booking {
                 "Showtime: " + showTime.getDay() + " at " + showTime.getTime() + "\n" +
                 "Seat Type: " + seats.get(0).getSeatType() + "\n" +
                 "No of Seats: " + seats.size() + "\n" +
-                "Total Price: Rs." + totalPrice;
+                "Seats: " + seatLabels() + "\n" +
+                "Total Price: Rs." + Money.format(totalPrice);
         return summary;
     }
 
+    // e.g. "F5, F6, F7"
+    private String seatLabels() {
+        SeatLayout layout = showTime.getSeatMap().getLayout();
+        StringBuilder labels = new StringBuilder();
+        for (Seat seat : seats) {
+            if (labels.length() > 0) {
+                labels.append(", ");
+            }
+            labels.append(layout.getSeatLabel(seat.getIndex()));
+        }
+        return labels.toString();
+    }
+
     // Getters for DAO
     public User getUser() {
         return user;
@@ -55,7 +69,8 @@ public class Booking {
         return seats;
     }
 
-    public double getTotalPrice() {
+    // In minor units; see Money
+    public long getTotalPrice() {
         return totalPrice;
     }
 
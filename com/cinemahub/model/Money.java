@@ -0,0 +1,68 @@
+package com.cinemahub.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts between amounts in minor units (cents of a rupee) and their decimal
+ * forms. Prices are held and added up as {@code long} minor units so totals are
+ * exact; BigDecimal is only used at the database and text boundaries.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class Money {
+    public static final int SCALE = 2; // Digits after the decimal point, as in the DECIMAL(10, 2) columns
+    public static final long MINOR_PER_UNIT = 100;
+
+    private Money() {
+        // Static helpers only
+    }
+
+    /**
+     * Returns the amount in minor units for a whole number of rupees.
+     */
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_PER_UNIT);
+    }
+
+    /**
+     * Returns the exact decimal value of an amount, e.g. 125050 as 1250.50.
+     */
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * Returns an amount in minor units, rounding half up to the nearest minor unit.
+     *
+     * @throws ArithmeticException If it does not fit in a long.
+     */
+    public static long fromBigDecimal(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Parses a decimal amount such as "750" or "750.50".
+     *
+     * @throws NumberFormatException If the text is not a number.
+     */
+    public static long parse(String text) {
+        return fromBigDecimal(new BigDecimal(text.trim()));
+    }
+
+    /**
+     * Formats an amount for display, e.g. "1250.50".
+     */
+    public static String format(long minor) {
+        return toBigDecimal(minor).toPlainString();
+    }
+
+    /**
+     * Applies a percentage given in basis points (10000 = 100%) to an amount,
+     * rounding half up. Uses only long arithmetic.
+     */
+    public static long applyBasisPoints(long minor, long basisPoints) {
+        long scaled = Math.multiplyExact(minor, basisPoints);
+        return scaled >= 0 ? (scaled + 5_000) / 10_000 : -((-scaled + 5_000) / 10_000);
+    }
+}
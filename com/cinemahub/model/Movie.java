@@ -1,28 +1,34 @@
 package com.cinemahub.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Represents a movie with attributes like title, genre, language, and
- * associated showtimes.
+ * associated showtimes. Immutable: a changed movie is a new copy made with
+ * {@link #withId}, {@link #withDetails} or {@link #withShowTimes}.
  * 
  * @author Wasana Karunanayaka
  */
 public class Movie {
-    private int id; // Database ID
-    private String title;
-    private String language;
-    private String genre;
-    private String format;
-    private double imdbRating;
-    private String releaseDate;
-    private int duration;
-    private List<ShowTime> showTimes;
-
-    // Constructor
+    private final int id; // Database ID; 0 until saved
+    private final String title;
+    private final String language;
+    private final String genre;
+    private final String format;
+    private final double imdbRating;
+    private final String releaseDate;
+    private final int duration;
+    private final List<ShowTime> showTimes;
+
+    // Constructor for a new movie, not yet saved and without showtimes
     public Movie(String title, String language, String genre, String format, double imdbRating,
             String releaseDate, int duration) {
+        this(0, title, language, genre, format, imdbRating, releaseDate, duration, List.of());
+    }
+
+    public Movie(int id, String title, String language, String genre, String format, double imdbRating,
+            String releaseDate, int duration, List<ShowTime> showTimes) {
+        this.id = id;
         this.title = title;
         this.language = language;
         this.genre = genre;
@@ -30,7 +36,12 @@ public class Movie {
         this.imdbRating = imdbRating;
         this.releaseDate = releaseDate;
         this.duration = duration;
-        this.showTimes = new ArrayList<>();
+        this.showTimes = List.copyOf(showTimes);
+    }
+
+    private Movie(Movie details, int id, List<ShowTime> showTimes) {
+        this(id, details.title, details.language, details.genre, details.format, details.imdbRating,
+                details.releaseDate, details.duration, showTimes);
     }
 
     // Method to return movie details
@@ -73,6 +84,7 @@ public class Movie {
         return duration;
     }
 
+    // Unmodifiable; use withShowTimes for a copy with other showtimes
     public List<ShowTime> getShowTimes() {
         return showTimes;
     }
@@ -81,7 +93,18 @@ public class Movie {
         return id;
     }
 
-    public void setId(int id) {
-        this.id = id;
+    // A copy with the database ID assigned when it was saved
+    public Movie withId(int id) {
+        return new Movie(this, id, showTimes);
+    }
+
+    // A copy with the descriptive fields of another movie, keeping this movie's ID and showtimes
+    public Movie withDetails(Movie other) {
+        return new Movie(other, id, showTimes);
+    }
+
+    // A copy with the same details and ID and another list of showtimes
+    public Movie withShowTimes(List<ShowTime> showTimes) {
+        return new Movie(this, id, showTimes);
     }
 }
@@ -0,0 +1,87 @@
+package com.cinemahub.model;
+
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A pricing rule: an adjustment to the base seat price that applies when all
+ * of its conditions hold. A condition left empty matches everything.
+ * <p>
+ * Matching rules add up: their percentages are summed and applied to the base
+ * price once, then their fixed amounts are added, so the result does not
+ * depend on rule order.
+ *
+ * @param id                    Database ID.
+ * @param name                  Description, e.g. "Weekend evenings".
+ * @param seatType              Seat type it applies to, or null for all.
+ * @param days                  Days of the show it applies to; empty for all.
+ * @param fromMinute            Start of the time band as a minute of the day,
+ *                              inclusive.
+ * @param toMinute              End of the time band, exclusive. A band ending
+ *                              at or before its start runs past midnight;
+ *                              0 to 1440 is the whole day.
+ * @param minOccupancyPercent   Surge rules apply once at least this share of
+ *                              the showtime's seats is taken; 0 for always.
+ * @param promoCode             Code the customer must enter, or null.
+ * @param adjustmentBasisPoints Percentage change in basis points, e.g. -2000
+ *                              for 20% off.
+ * @param adjustmentMinor       Fixed change per seat in minor units.
+ * @author Wasana Karunanayaka
+ */
+public record PriceRule(int id, String name, Seat.SeatType seatType, Set<DayOfWeek> days, int fromMinute,
+        int toMinute, int minOccupancyPercent, String promoCode, int adjustmentBasisPoints, long adjustmentMinor) {
+
+    public PriceRule {
+        if (fromMinute < 0 || fromMinute > WeekTime.MINUTES_PER_DAY || toMinute < 0
+                || toMinute > WeekTime.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Time band out of range: " + fromMinute + "-" + toMinute);
+        }
+        if (minOccupancyPercent < 0 || minOccupancyPercent > 100) {
+            throw new IllegalArgumentException("Occupancy out of range: " + minOccupancyPercent);
+        }
+        days = days == null || days.isEmpty() ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(days));
+        promoCode = normalizePromoCode(promoCode);
+    }
+
+    /**
+     * Returns true if the rule applies to a seat type in a show starting at a
+     * minute of the week, leaving occupancy and promo codes aside.
+     */
+    public boolean appliesTo(Seat.SeatType type, int startMinute) {
+        if (seatType != null && seatType != type) {
+            return false;
+        }
+        if (!days.isEmpty() && !days.contains(WeekTime.dayOf(startMinute))) {
+            return false;
+        }
+        int minuteOfDay = startMinute % WeekTime.MINUTES_PER_DAY;
+        if (fromMinute == 0 && toMinute == WeekTime.MINUTES_PER_DAY) {
+            return true;
+        }
+        return fromMinute < toMinute ? minuteOfDay >= fromMinute && minuteOfDay < toMinute
+                : minuteOfDay >= fromMinute || minuteOfDay < toMinute;
+    }
+
+    public boolean isSurge() {
+        return minOccupancyPercent > 0;
+    }
+
+    public boolean isPromo() {
+        return promoCode != null;
+    }
+
+    /**
+     * Returns a promo code in the form rules store it (trimmed, upper case), or
+     * null if it is blank.
+     */
+    public static String normalizePromoCode(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,171 @@
+package com.cinemahub.model;
+
+import java.util.List;
+
+/**
+ * Seat prices for one showtime with every pricing rule already applied.
+ * <p>
+ * The rules that can match a showtime depend only on its day, start time,
+ * seat types and price tiers, plus two inputs known at booking time: how full
+ * the show is and which promo code was entered. Occupancy only matters at the
+ * thresholds used by surge rules, so it is reduced to a surge level. The table
+ * holds a final price for every combination of promo code, surge level, seat
+ * type and tier, and pricing a seat is an array lookup with no allocation.
+ * <p>
+ * Tables are immutable; a showtime gets a new one when the rules change or
+ * the show is moved (see {@link #isCompiledFor}).
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class PriceTable {
+    private static final int TYPE_COUNT = Seat.SeatType.values().length;
+
+    private final int rulesVersion;
+    private final int startMinute;
+    private final SeatLayout layout;
+    private final int[] surgeThresholds; // Ascending occupancy percentages; level n starts at the n-th
+    private final int levelCount;
+    private final int promoCount; // Including 'no code'
+    private final int tierCount;
+    private final List<String> promoCodes;
+    private final long[] prices; // Minor units, by [promo][level][seat type][tier]
+
+    /**
+     * Applies the rules to a showtime.
+     *
+     * @param rules           All rules, promo and surge rules included.
+     * @param surgeThresholds Distinct minimum occupancies of the surge rules,
+     *                        ascending.
+     * @param promoCodes      Distinct promo codes; promo ID n is
+     *                        {@code promoCodes.get(n - 1)}, 0 is no code.
+     * @param rulesVersion    Identifies the rule set, for {@link #isCompiledFor}.
+     */
+    public PriceTable(List<PriceRule> rules, int[] surgeThresholds, List<String> promoCodes, int rulesVersion,
+            ShowTime showTime) {
+        this.rulesVersion = rulesVersion;
+        this.startMinute = showTime.getStartMinute();
+        this.layout = showTime.getSeatMap().getLayout();
+        this.surgeThresholds = surgeThresholds.clone();
+        this.levelCount = surgeThresholds.length + 1;
+        this.tierCount = layout.getTierCount();
+        long[] tierPrices = layout.getTierPrices();
+        this.promoCodes = List.copyOf(promoCodes);
+        this.promoCount = promoCodes.size() + 1;
+        this.prices = new long[promoCount * levelCount * TYPE_COUNT * tierCount];
+
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            for (int promo = 0; promo < promoCount; promo++) {
+                for (int level = 0; level < levelCount; level++) {
+                    // Occupancy at this level is at least the level's threshold
+                    int occupancy = level == 0 ? 0 : surgeThresholds[level - 1];
+                    long basisPoints = 10_000;
+                    long amount = 0;
+                    for (PriceRule rule : rules) {
+                        if (rule.isPromo() && (promo == 0 || !rule.promoCode().equals(promoCodes.get(promo - 1)))) {
+                            continue;
+                        }
+                        if (rule.minOccupancyPercent() > occupancy || !rule.appliesTo(type, startMinute)) {
+                            continue;
+                        }
+                        basisPoints += rule.adjustmentBasisPoints();
+                        amount += rule.adjustmentMinor();
+                    }
+                    for (int tier = 0; tier < tierCount; tier++) {
+                        long price = Money.applyBasisPoints(tierPrices[tier], Math.max(0, basisPoints)) + amount;
+                        prices[index(promo, level, type.ordinal(), tier)] = Math.max(0, price);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the promo ID a normalized code has in this table: 0 for null,
+     * -1 if the table's rules do not use the code.
+     */
+    public int promoId(String normalizedCode) {
+        if (normalizedCode == null) {
+            return 0;
+        }
+        int index = promoCodes.indexOf(normalizedCode);
+        return index < 0 ? -1 : index + 1;
+    }
+
+    /**
+     * Returns true if this table was built from the given rule set for the
+     * showtime as it is now.
+     */
+    public boolean isCompiledFor(int rulesVersion, ShowTime showTime) {
+        return this.rulesVersion == rulesVersion && startMinute == showTime.getStartMinute()
+                && layout == showTime.getSeatMap().getLayout();
+    }
+
+    /**
+     * Returns the surge level for the showtime's current occupancy, held seats
+     * included.
+     */
+    public int surgeLevel(SeatMap seatMap) {
+        int occupancy = (int) (100L * seatMap.getTakenCount() / Math.max(1, layout.size()));
+        int level = 0;
+        while (level < surgeThresholds.length && occupancy >= surgeThresholds[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Returns the final price of a seat in minor units.
+     *
+     * @param level   From {@link #surgeLevel}; out-of-range levels are clamped.
+     * @param promoId 0 for no promo code; unknown IDs are treated as 0.
+     */
+    public long seatPrice(int seatIndex, int level, int promoId) {
+        int clamped = Math.max(0, Math.min(level, levelCount - 1));
+        int promo = promoId > 0 && promoId < promoCount ? promoId : 0;
+        return prices[index(promo, clamped, layout.getSeatType(seatIndex).ordinal(), layout.getTier(seatIndex))];
+    }
+
+    /**
+     * Returns the total price of the seats in minor units.
+     */
+    public long total(int[] seatIndices, int level, int promoId) {
+        long total = 0;
+        for (int seatIndex : seatIndices) {
+            total += seatPrice(seatIndex, level, promoId);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the cheapest price of a seat type in minor units, or -1 if the
+     * layout has none.
+     */
+    public long lowestPrice(Seat.SeatType seatType, int level, int promoId) {
+        return extremePrice(seatType, level, promoId, false);
+    }
+
+    /**
+     * Returns the dearest price of a seat type in minor units, or -1 if the
+     * layout has none.
+     */
+    public long highestPrice(Seat.SeatType seatType, int level, int promoId) {
+        return extremePrice(seatType, level, promoId, true);
+    }
+
+    private long extremePrice(Seat.SeatType seatType, int level, int promoId, boolean highest) {
+        long extreme = -1;
+        for (int seatIndex = 0; seatIndex < layout.size(); seatIndex++) {
+            if (layout.getSeatType(seatIndex) == seatType) {
+                long price = seatPrice(seatIndex, level, promoId);
+                if (extreme < 0 || (highest ? price > extreme : price < extreme)) {
+                    extreme = price;
+                }
+            }
+        }
+        return extreme;
+    }
+
+    private int index(int promo, int level, int type, int tier) {
+        return ((promo * levelCount + level) * TYPE_COUNT + type) * tierCount + tier;
+    }
+}
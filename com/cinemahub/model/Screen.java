@@ -0,0 +1,60 @@
+package com.cinemahub.model;
+
+/**
+ * A screen (auditorium) that showtimes run in. A screen shows one film at a
+ * time and needs a cleanup gap between shows.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class Screen {
+    public static final int DEFAULT_CLEANUP_MINUTES = 15;
+
+    private int id; // Database ID
+    private String name; // e.g. "Screen 1"
+    private int cleanupMinutes; // Turnaround after each show before the next may start
+    private final SeatLayout layout; // Seats in this hall
+
+    // Constructor
+    public Screen(String name, int cleanupMinutes, SeatLayout layout) {
+        if (cleanupMinutes < 0) {
+            throw new IllegalArgumentException("Cleanup minutes cannot be negative: " + cleanupMinutes);
+        }
+        this.name = name;
+        this.cleanupMinutes = cleanupMinutes;
+        this.layout = layout;
+    }
+
+    public Screen(String name, int cleanupMinutes) {
+        this(name, cleanupMinutes, SeatLayout.DEFAULT);
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCleanupMinutes() {
+        return cleanupMinutes;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    // Setters
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setCleanupMinutes(int cleanupMinutes) {
+        this.cleanupMinutes = cleanupMinutes;
+    }
+}
@@ -1,11 +1,11 @@
 package com.cinemahub.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Defines seat properties like type (STANDARD, PREMIUM, VIP), availability, and
- * price.
+ * Defines seat properties like type (STANDARD, PREMIUM, VIP), position, and
+ * price. Availability is tracked per showtime by {@link SeatMap}; a Seat only
+ * describes a seat, typically one that has been booked.
  * 
  * @author Wasana Karunanayaka
  */
@@ -14,51 +14,33 @@ public class Seat {
         STANDARD, PREMIUM, VIP
     } // Seat types
 
-    private SeatType seatType;
-    private boolean isAvailable;
-    private double price;
+    private final int index; // Position in the showtime's seat layout
+    private final SeatType seatType;
+    private final long price; // In minor units
 
     // Constructor
-    public Seat(SeatType seatType, double price) {
+    public Seat(int index, SeatType seatType, long price) {
+        this.index = index;
         this.seatType = seatType;
         this.price = price;
-        this.isAvailable = true; // Default: seat is available
     }
 
-    // Factory method to generate a fresh layout of new Seat objects
+    // Factory method to generate descriptors for every seat of the default layout
     public static List<Seat> createDefaultLayout() {
-        List<Seat> layout = new ArrayList<>();
-        for (int i = 0; i < 50; i++)
-            layout.add(new Seat(SeatType.STANDARD, 500.0));
-        for (int i = 0; i < 30; i++)
-            layout.add(new Seat(SeatType.PREMIUM, 750.0));
-        for (int i = 0; i < 20; i++)
-            layout.add(new Seat(SeatType.VIP, 1000.0));
-        return layout;
+        return SeatLayout.DEFAULT.createSeats();
     }
 
-    // Reserve a seat
-    public void reserve() {
-        if (isAvailable) {
-            isAvailable = false;
-        }
+    // Getters
+    public int getIndex() {
+        return index;
     }
 
-    // Getters
-    public double getPrice() {
+    // Price in minor units; see Money
+    public long getPrice() {
         return price;
     }
 
     public SeatType getSeatType() {
         return seatType;
     }
-
-    public boolean isAvailable() {
-        return isAvailable;
-    }
-
-    // Set availability
-    public void setAvailable(boolean isAvailable) {
-        this.isAvailable = isAvailable;
-    }
 }
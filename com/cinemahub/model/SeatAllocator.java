@@ -0,0 +1,115 @@
+package com.cinemahub.model;
+
+import java.util.Arrays;
+
+/**
+ * Chooses the best seats of a type for a party: one block of adjacent seats in
+ * a row if there is one, otherwise as few blocks as possible, close together.
+ * <p>
+ * Works on 64-bit words of the seat bitset. A seat starts a free block of
+ * k + 1 seats if it starts one of k seats, so does its right-hand neighbour,
+ * and that neighbour is in the same row with no aisle between:
+ * {@code starts(k + 1) = starts(k) & (starts(k) >>> 1) & rightNeighbours}.
+ * Finding a block of n seats therefore takes n shift-and passes over the
+ * words, and the candidates are the bits left set. Each candidate block is
+ * scored by its distance from the middle of the type's rows and the centre of
+ * the screen; rows count more than columns.
+ * <p>
+ * The allocator only reads a snapshot; {@link SeatMap#reserveBest} claims the
+ * chosen seats and retries if someone else took one first.
+ *
+ * @author Wasana Karunanayaka
+ */
+final class SeatAllocator {
+    // A row off centre costs as much as this many seats along the row
+    private static final double ROW_WEIGHT = 1.5;
+
+    private SeatAllocator() {
+    }
+
+    /**
+     * Picks {@code count} free seats of a type.
+     *
+     * @param layout   The showtime's layout.
+     * @param occupied Snapshot of the occupancy words.
+     * @return Seat indices in ascending order, or null if fewer than
+     *         {@code count} seats of the type are free in the snapshot.
+     */
+    static int[] choose(SeatLayout layout, long[] occupied, Seat.SeatType seatType, int count) {
+        long[] typeMask = layout.typeMask(seatType);
+        long[] links = layout.rightNeighbours();
+        long[] free = new long[typeMask.length];
+        int freeCount = 0;
+        for (int word = 0; word < free.length; word++) {
+            free[word] = typeMask[word] & ~occupied[word];
+            freeCount += Long.bitCount(free[word]);
+        }
+        if (count <= 0 || freeCount < count) {
+            return null;
+        }
+
+        int[] chosen = new int[count];
+        int picked = 0;
+        double targetRow = layout.centreRow(seatType);
+        double targetColumn = layout.centreColumn();
+        long[] starts = new long[free.length];
+        long[] longest = new long[free.length];
+        while (picked < count) {
+            // Grow blocks one seat at a time until the party fits or no longer block exists
+            System.arraycopy(free, 0, starts, 0, free.length);
+            System.arraycopy(free, 0, longest, 0, free.length);
+            int length = 1;
+            while (length < count - picked && extend(starts, links)) {
+                length++;
+                System.arraycopy(starts, 0, longest, 0, starts.length);
+            }
+
+            int best = bestStart(layout, longest, length, targetRow, targetColumn);
+            for (int i = 0; i < length; i++) {
+                int seat = best + i;
+                chosen[picked++] = seat;
+                free[seat >>> 6] &= ~(1L << seat);
+            }
+            if (picked < count && picked == length) {
+                // The rest of a split party should sit as close to the first block as possible
+                targetRow = layout.getRow(best);
+                targetColumn = (layout.getColumn(best) + layout.getColumn(best + length - 1)) / 2.0;
+            }
+        }
+        Arrays.sort(chosen);
+        return chosen;
+    }
+
+    // starts &= (starts >>> 1) & links across word boundaries; returns false if no start is left
+    private static boolean extend(long[] starts, long[] links) {
+        long any = 0;
+        for (int word = 0; word < starts.length; word++) {
+            long next = word + 1 < starts.length ? starts[word + 1] << 63 : 0L;
+            starts[word] &= ((starts[word] >>> 1) | next) & links[word];
+            any |= starts[word];
+        }
+        return any != 0;
+    }
+
+    // The candidate block closest to the target; ties go to the lower seat index
+    private static int bestStart(SeatLayout layout, long[] starts, int length, double targetRow,
+            double targetColumn) {
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int word = 0; word < starts.length; word++) {
+            long bits = starts[word];
+            while (bits != 0) {
+                int start = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                double middle = (layout.getColumn(start) + layout.getColumn(start + length - 1)) / 2.0;
+                double score = Math.abs(middle - targetColumn)
+                        + ROW_WEIGHT * Math.abs(layout.getRow(start) - targetRow);
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = start;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,91 @@
+package com.cinemahub.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A time-limited hold on specific seats of a showtime while a customer checks
+ * out. The seats are taken in the showtime's {@link SeatMap} for as long as the
+ * hold is active; a hold ends exactly once, by being confirmed, released, or
+ * expiring.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class SeatHold {
+    public enum Status {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    } // Hold states
+
+    private final long id;
+    private final ShowTime showTime;
+    private final int[] seatIndices;
+    private final long expiresAt; // Epoch millis
+    private volatile PriceTable priceTable; // Prices in force when held, kept even if the rules are reloaded
+    private volatile int priceLevel; // Surge level the seats are priced at, fixed when held
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.HELD);
+
+    // Constructor
+    public SeatHold(long id, ShowTime showTime, int[] seatIndices, long expiresAt) {
+        this.id = id;
+        this.showTime = showTime;
+        this.seatIndices = seatIndices;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Moves an active hold to its final state.
+     *
+     * @return True if the hold was still HELD; false if it had already ended.
+     */
+    public boolean finish(Status outcome) {
+        if (outcome == Status.HELD) {
+            throw new IllegalArgumentException("A hold cannot finish as HELD");
+        }
+        return status.compareAndSet(Status.HELD, outcome);
+    }
+
+    // Getters
+    public long getId() {
+        return id;
+    }
+
+    public ShowTime getShowTime() {
+        return showTime;
+    }
+
+    public int[] getSeatIndices() {
+        return seatIndices.clone();
+    }
+
+    public int getSeatCount() {
+        return seatIndices.length;
+    }
+
+    // The i-th held seat, for callers that walk the seats without copying them
+    public int getSeatIndex(int i) {
+        return seatIndices[i];
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    public PriceTable getPriceTable() {
+        return priceTable;
+    }
+
+    public int getPriceLevel() {
+        return priceLevel;
+    }
+
+    /**
+     * Fixes the prices the held seats are quoted and sold at.
+     */
+    public void setPricing(PriceTable priceTable, int priceLevel) {
+        this.priceLevel = priceLevel;
+        this.priceTable = priceTable;
+    }
+}
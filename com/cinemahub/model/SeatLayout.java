@@ -0,0 +1,325 @@
+package com.cinemahub.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable seat layout template: a grid of rows and columns where each cell
+ * is either a seat, with a seat type and a price tier, or an aisle/gap.
+ * <p>
+ * Seats are numbered row by row, left to right, skipping gaps; that number is
+ * the seat index stored with bookings. A template is stored once in the
+ * database and shared, through {@link #intern}, by every screen and showtime
+ * that uses it, so per-showtime state is reduced to occupancy (see
+ * {@link SeatMap}).
+ * <p>
+ * Cells are written as two characters: a seat type initial (S, P or V) and a
+ * price tier digit, or {@code "__"} for a gap. Rows are separated by '/', e.g.
+ * {@code "S0S0__S0S0/P1P1__P1P1"}.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class SeatLayout {
+    public static final String GAP = "__";
+
+    // Declared before DEFAULT, which is interned during class initialization
+    private static final Map<SeatLayout, SeatLayout> INTERNED = new ConcurrentHashMap<>();
+
+    /**
+     * The standard hall: 10 rows of 10 seats, rows A-E STANDARD, F-H PREMIUM and
+     * I-J VIP. Seat indices 0-99 match the fixed seat list used before layouts
+     * were configurable.
+     */
+    public static final SeatLayout DEFAULT = intern(new SeatLayout(1, "Standard 10x10",
+            "S0S0S0S0S0S0S0S0S0S0/S0S0S0S0S0S0S0S0S0S0/S0S0S0S0S0S0S0S0S0S0/S0S0S0S0S0S0S0S0S0S0/"
+                    + "S0S0S0S0S0S0S0S0S0S0/P1P1P1P1P1P1P1P1P1P1/P1P1P1P1P1P1P1P1P1P1/P1P1P1P1P1P1P1P1P1P1/"
+                    + "V2V2V2V2V2V2V2V2V2V2/V2V2V2V2V2V2V2V2V2V2",
+            new long[] { Money.ofUnits(500), Money.ofUnits(750), Money.ofUnits(1000) }));
+
+    private final int id; // Database ID
+    private final String name;
+    private final int rows;
+    private final int columns;
+    private final String cells; // Encoded grid, as stored in the database
+    private final long[] tierPrices; // Base price by tier, in minor units
+
+    private final int[] seatByCell; // Seat index by row * columns + column, or -1 for a gap
+    private final short[] rowOf; // Row by seat index
+    private final short[] columnOf; // Column by seat index
+    private final Seat.SeatType[] seatTypes; // Seat type by seat index
+    private final byte[] tiers; // Price tier by seat index
+    private final int[] seatCounts; // Number of seats by seat type ordinal
+    private final long[] lowestPrices; // Cheapest base price by seat type ordinal, -1 if none
+    private final long[][] typeMasks; // Per seat type, one bit per seat index
+    private final long[] rightNeighbours; // Bit i set if seat i + 1 is directly to the right of seat i
+    private final double[] centreRows; // Middle row of each seat type's block, by ordinal
+
+    /**
+     * Creates a layout from its encoded cells.
+     *
+     * @param id         Database ID.
+     * @param name       Display name.
+     * @param cells      Rows of two-character cells separated by '/'.
+     * @param tierPrices Base price of each tier used by the cells, in minor units.
+     * @throws IllegalArgumentException If the cells are malformed, rows differ in
+     *                                  length, or a tier has no price.
+     */
+    public SeatLayout(int id, String name, String cells, long[] tierPrices) {
+        String[] rowCells = cells.split("/", -1);
+        int width = rowCells[0].length();
+        if (width == 0 || width % 2 != 0) {
+            throw new IllegalArgumentException("Each row needs whole two-character cells");
+        }
+        for (String row : rowCells) {
+            if (row.length() != width) {
+                throw new IllegalArgumentException("All rows must have the same number of cells");
+            }
+        }
+
+        this.id = id;
+        this.name = name;
+        this.rows = rowCells.length;
+        this.columns = width / 2;
+        this.cells = cells;
+        this.tierPrices = tierPrices.clone();
+        this.seatByCell = new int[rows * columns];
+
+        int typeCount = Seat.SeatType.values().length;
+        List<int[]> seats = new ArrayList<>(); // row, column, type ordinal, tier
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                String cell = rowCells[r].substring(2 * c, 2 * c + 2);
+                if (cell.equals(GAP)) {
+                    seatByCell[r * columns + c] = -1;
+                    continue;
+                }
+                int tier = cell.charAt(1) - '0';
+                if (tier < 0 || tier >= this.tierPrices.length) {
+                    throw new IllegalArgumentException("No price for tier in cell " + cell);
+                }
+                seatByCell[r * columns + c] = seats.size();
+                seats.add(new int[] { r, c, typeOf(cell.charAt(0)).ordinal(), tier });
+            }
+        }
+
+        int size = seats.size();
+        this.rowOf = new short[size];
+        this.columnOf = new short[size];
+        this.seatTypes = new Seat.SeatType[size];
+        this.tiers = new byte[size];
+        this.seatCounts = new int[typeCount];
+        this.lowestPrices = new long[typeCount];
+        Arrays.fill(lowestPrices, -1);
+        this.typeMasks = new long[typeCount][SeatMap.wordCount(size)];
+        for (int index = 0; index < size; index++) {
+            int[] seat = seats.get(index);
+            rowOf[index] = (short) seat[0];
+            columnOf[index] = (short) seat[1];
+            seatTypes[index] = Seat.SeatType.values()[seat[2]];
+            tiers[index] = (byte) seat[3];
+            seatCounts[seat[2]]++;
+            long price = this.tierPrices[seat[3]];
+            if (lowestPrices[seat[2]] < 0 || price < lowestPrices[seat[2]]) {
+                lowestPrices[seat[2]] = price;
+            }
+            typeMasks[seat[2]][index >>> 6] |= 1L << index;
+        }
+
+        // Seats are numbered along each row, so neighbours in a row have consecutive indices
+        this.rightNeighbours = new long[SeatMap.wordCount(size)];
+        for (int index = 0; index + 1 < size; index++) {
+            if (rowOf[index + 1] == rowOf[index] && columnOf[index + 1] == columnOf[index] + 1) {
+                rightNeighbours[index >>> 6] |= 1L << index;
+            }
+        }
+        this.centreRows = new double[typeCount];
+        for (int type = 0; type < typeCount; type++) {
+            int first = -1;
+            int last = -1;
+            for (int index = 0; index < size; index++) {
+                if (seatTypes[index].ordinal() == type) {
+                    last = rowOf[index];
+                    if (first < 0) {
+                        first = last;
+                    }
+                }
+            }
+            centreRows[type] = (first + last) / 2.0;
+        }
+    }
+
+    /**
+     * Returns the shared instance equal to this layout, registering it if it is
+     * the first. Layouts loaded from the database should always be interned so
+     * every showtime on the same template shares one copy.
+     */
+    public static SeatLayout intern(SeatLayout layout) {
+        SeatLayout existing = INTERNED.putIfAbsent(layout, layout);
+        return existing != null ? existing : layout;
+    }
+
+    /**
+     * Returns the total number of seats.
+     */
+    public int size() {
+        return seatTypes.length;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    // Encoded cells, as stored in the database
+    public String getCells() {
+        return cells;
+    }
+
+    // Base prices in minor units
+    public long[] getTierPrices() {
+        return tierPrices.clone();
+    }
+
+    public int getTierCount() {
+        return tierPrices.length;
+    }
+
+    public int getTier(int seatIndex) {
+        return tiers[seatIndex];
+    }
+
+    /**
+     * Returns true if the index is a seat of this layout.
+     */
+    public boolean isSeat(int seatIndex) {
+        return seatIndex >= 0 && seatIndex < seatTypes.length;
+    }
+
+    /**
+     * Returns the seat index at a row and column, or -1 for an aisle or gap.
+     */
+    public int seatIndexAt(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return -1;
+        }
+        return seatByCell[row * columns + column];
+    }
+
+    public int getRow(int seatIndex) {
+        return rowOf[seatIndex];
+    }
+
+    public int getColumn(int seatIndex) {
+        return columnOf[seatIndex];
+    }
+
+    public Seat.SeatType getSeatType(int seatIndex) {
+        return seatTypes[seatIndex];
+    }
+
+    // Base price in minor units, before pricing rules
+    public long getSeatPrice(int seatIndex) {
+        return tierPrices[tiers[seatIndex]];
+    }
+
+    /**
+     * Returns the base price of the cheapest seat of a type in minor units, or
+     * -1 if the layout has none.
+     */
+    public long getPrice(Seat.SeatType seatType) {
+        return lowestPrices[seatType.ordinal()];
+    }
+
+    public int getSeatCount(Seat.SeatType seatType) {
+        return seatCounts[seatType.ordinal()];
+    }
+
+    /**
+     * Returns the label printed on a seat, e.g. "C7" for row 3, column 7. Gaps
+     * count as columns, so labels match the physical position.
+     */
+    public String getSeatLabel(int seatIndex) {
+        return rowLabel(rowOf[seatIndex]) + (columnOf[seatIndex] + 1);
+    }
+
+    /**
+     * Returns a seat descriptor for the given index, at its base price.
+     */
+    public Seat seatAt(int seatIndex) {
+        return new Seat(seatIndex, seatTypes[seatIndex], getSeatPrice(seatIndex));
+    }
+
+    /**
+     * Creates descriptors for every seat in the layout.
+     */
+    public List<Seat> createSeats() {
+        List<Seat> seats = new ArrayList<>(seatTypes.length);
+        for (int i = 0; i < seatTypes.length; i++) {
+            seats.add(seatAt(i));
+        }
+        return seats;
+    }
+
+    // Bit mask of the seats of a type; shared, must not be modified
+    long[] typeMask(Seat.SeatType seatType) {
+        return typeMasks[seatType.ordinal()];
+    }
+
+    // Bit mask of seats whose right-hand neighbour is the next seat index; shared, must not be modified
+    long[] rightNeighbours() {
+        return rightNeighbours;
+    }
+
+    // The row in the middle of a seat type's rows, where its best seats are
+    double centreRow(Seat.SeatType seatType) {
+        return centreRows[seatType.ordinal()];
+    }
+
+    // The column in the middle of the hall, facing the centre of the screen
+    double centreColumn() {
+        return (columns - 1) / 2.0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SeatLayout other && id == other.id && name.equals(other.name)
+                && cells.equals(other.cells) && Arrays.equals(tierPrices, other.tierPrices);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * id + cells.hashCode()) + Arrays.hashCode(tierPrices);
+    }
+
+    // Row letters A-Z, then AA, AB, ...
+    private static String rowLabel(int row) {
+        StringBuilder label = new StringBuilder();
+        for (int r = row; r >= 0; r = r / 26 - 1) {
+            label.insert(0, (char) ('A' + r % 26));
+        }
+        return label.toString();
+    }
+
+    private static Seat.SeatType typeOf(char initial) {
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            if (type.name().charAt(0) == initial) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown seat type initial: " + initial);
+    }
+}
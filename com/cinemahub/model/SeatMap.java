@@ -0,0 +1,270 @@
+package com.cinemahub.model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat occupancy for a single showtime, stored as a bitset over the seat
+ * indices of a shared {@link SeatLayout}. A running free-seat counter per seat
+ * type keeps availability checks O(1); picking seats scans one 64-bit word at
+ * a time.
+ * <p>
+ * All operations are lock-free and safe to call concurrently. A claim first
+ * takes its seat count off the per-type counter and only then sets bits with
+ * compare-and-set, so the counter never promises more seats than there are free
+ * bits and concurrent buyers can never end up holding the same seat.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class SeatMap {
+    // Best-seat picks that lose a race are recomputed this many times before settling for any free seats
+    private static final int BEST_SEAT_ATTEMPTS = 4;
+
+    private final SeatLayout layout;
+    private final AtomicLongArray occupied; // One bit per seat index, set when taken
+    private final AtomicIntegerArray available; // Unclaimed seats by seat type ordinal
+
+    // Constructor
+    public SeatMap(SeatLayout layout) {
+        this.layout = layout;
+        this.occupied = new AtomicLongArray(wordCount(layout.size()));
+        this.available = new AtomicIntegerArray(Seat.SeatType.values().length);
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            available.set(type.ordinal(), layout.getSeatCount(type));
+        }
+    }
+
+    static int wordCount(int seatCount) {
+        return (seatCount + 63) >>> 6;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    public boolean isAvailable(int seatIndex) {
+        return (occupied.get(seatIndex >>> 6) & (1L << seatIndex)) == 0;
+    }
+
+    /**
+     * Returns the number of free seats of a type.
+     */
+    public int getAvailableCount(Seat.SeatType seatType) {
+        return available.get(seatType.ordinal());
+    }
+
+    /**
+     * Returns the number of seats sold or held, counting a claim as soon as it
+     * has been admitted.
+     */
+    public int getTakenCount() {
+        int free = 0;
+        for (int type = 0; type < available.length(); type++) {
+            free += available.get(type);
+        }
+        return layout.size() - free;
+    }
+
+    /**
+     * Marks a single seat as taken.
+     *
+     * @return True if the seat was free and is now held by the caller.
+     */
+    public boolean reserve(int seatIndex) {
+        if (seatIndex < 0 || seatIndex >= layout.size()) {
+            return false;
+        }
+        int type = layout.getSeatType(seatIndex).ordinal();
+        if (!tryTake(type, 1)) {
+            return false;
+        }
+        if (!setBit(seatIndex)) {
+            available.incrementAndGet(type); // Someone else holds it; give the count back
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks a single seat as free again.
+     *
+     * @return True if the seat was taken.
+     */
+    public boolean release(int seatIndex) {
+        if (seatIndex < 0 || seatIndex >= layout.size() || !clearBit(seatIndex)) {
+            return false;
+        }
+        // Bit first, counter second: the counter must never exceed the free bits
+        available.incrementAndGet(layout.getSeatType(seatIndex).ordinal());
+        return true;
+    }
+
+    /**
+     * Atomically takes {@code count} free seats of a type, lowest indices first.
+     *
+     * @return The reserved seat indices, or null if not enough seats are free
+     *         (nothing is reserved in that case).
+     */
+    public int[] reserve(Seat.SeatType seatType, int count) {
+        if (count <= 0 || !tryTake(seatType.ordinal(), count)) {
+            return null;
+        }
+        // The counter now guarantees at least 'count' free bits are ours to find;
+        // other claimers can only take bits they have paid for in the same way.
+        int[] picked = new int[count];
+        int n = 0;
+        long[] mask = layout.typeMask(seatType);
+        while (n < count) {
+            for (int word = 0; word < mask.length && n < count; word++) {
+                long current = occupied.get(word);
+                long free = mask[word] & ~current;
+                while (free != 0 && n < count) {
+                    long bit = free & -free; // Lowest free seat in this word
+                    long updated = occupied.compareAndExchange(word, current, current | bit);
+                    if (updated == current) {
+                        picked[n++] = (word << 6) + Long.numberOfTrailingZeros(bit);
+                        current |= bit;
+                    } else {
+                        current = updated; // Lost a race in this word; rescan it
+                    }
+                    free = mask[word] & ~current;
+                }
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Atomically takes the best {@code count} free seats of a type: adjacent
+     * seats in one row near the centre if possible, otherwise the fewest
+     * blocks, close together (see {@link SeatAllocator}).
+     *
+     * @return The reserved seat indices in ascending order, or null if not
+     *         enough seats are free (nothing is reserved in that case).
+     */
+    public int[] reserveBest(Seat.SeatType seatType, int count) {
+        if (count <= 0) {
+            return null;
+        }
+        for (int attempt = 0; attempt < BEST_SEAT_ATTEMPTS; attempt++) {
+            if (getAvailableCount(seatType) < count) {
+                return null;
+            }
+            int[] seats = SeatAllocator.choose(layout, snapshot(), seatType, count);
+            if (seats == null) {
+                break; // Seats still being claimed by others; let the counter decide
+            }
+            if (reserveAll(seats)) {
+                return seats;
+            }
+        }
+        // Heavy contention on this showtime: take whatever seats are free
+        return reserve(seatType, count);
+    }
+
+    /**
+     * Atomically takes a specific set of seats. Either every seat is taken or,
+     * if any of them is already held, none are.
+     *
+     * @param seatIndices Distinct seat indices.
+     * @return True if all seats were taken.
+     */
+    public boolean reserveAll(int[] seatIndices) {
+        int[] perType = new int[Seat.SeatType.values().length];
+        for (int seatIndex : seatIndices) {
+            if (seatIndex < 0 || seatIndex >= layout.size()) {
+                return false;
+            }
+            perType[layout.getSeatType(seatIndex).ordinal()]++;
+        }
+        for (int type = 0; type < perType.length; type++) {
+            if (perType[type] > 0 && !tryTake(type, perType[type])) {
+                giveBack(perType, type);
+                return false;
+            }
+        }
+
+        for (int i = 0; i < seatIndices.length; i++) {
+            if (!setBit(seatIndices[i])) {
+                // Partial claim: undo the seats taken so far, then the counters
+                for (int j = 0; j < i; j++) {
+                    clearBit(seatIndices[j]);
+                }
+                giveBack(perType, perType.length);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Frees every seat. Not safe to call while other threads are reserving.
+     */
+    public void clear() {
+        for (int word = 0; word < occupied.length(); word++) {
+            occupied.set(word, 0L);
+        }
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            available.set(type.ordinal(), layout.getSeatCount(type));
+        }
+    }
+
+    // Copy of the occupancy words; each word is read atomically, the whole array is not
+    private long[] snapshot() {
+        long[] words = new long[occupied.length()];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = occupied.get(word);
+        }
+        return words;
+    }
+
+    // Decrements a type's counter by 'count' unless that would take it below zero
+    private boolean tryTake(int type, int count) {
+        int current = available.get(type);
+        while (current >= count) {
+            int witness = available.compareAndExchange(type, current, current - count);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    // Restores the counters of the first 'upToType' types
+    private void giveBack(int[] perType, int upToType) {
+        for (int type = 0; type < upToType; type++) {
+            if (perType[type] > 0) {
+                available.addAndGet(type, perType[type]);
+            }
+        }
+    }
+
+    private boolean setBit(int seatIndex) {
+        int word = seatIndex >>> 6;
+        long bit = 1L << seatIndex;
+        long current = occupied.get(word);
+        while ((current & bit) == 0) {
+            long witness = occupied.compareAndExchange(word, current, current | bit);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private boolean clearBit(int seatIndex) {
+        int word = seatIndex >>> 6;
+        long bit = 1L << seatIndex;
+        long current = occupied.get(word);
+        while ((current & bit) != 0) {
+            long witness = occupied.compareAndExchange(word, current, current & ~bit);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+}
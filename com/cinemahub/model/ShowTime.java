@@ -1,50 +1,91 @@
 package com.cinemahub.model;
 
-import java.util.List;
-
 /**
  * Represents a specific showtime for a movie, including day, time, and seat
  * availability.
+ * <p>
+ * The schedule is weekly: a showtime starts at a minute of the week (see
+ * {@link WeekTime}), and its day and time are derived from it.
  * 
  * @author Wasana Karunanayaka
  */
 public class ShowTime {
     // Attributes
     private int id; // Database ID
-    private String day;
-    private String time;
-    private List<Seat> seats; // List of seats for this showtime
+    private int movieId; // Database ID of the movie showing
+    private final int screenId; // Database ID of the screen it runs in
+    private final int startMinute; // Minute of the week the show starts
+    private final SeatMap seatMap; // Seat occupancy for this showtime
+    private volatile PriceTable priceTable; // Compiled prices, rebuilt when stale
 
     // Constructor
-    public ShowTime(String day, String time) {
-        this.day = day;
-        this.time = time;
-        this.seats = Seat.createDefaultLayout(); // Initialize with a fresh seat layout
+    public ShowTime(int screenId, int startMinute, SeatLayout layout) {
+        this.screenId = screenId;
+        this.startMinute = checkStartMinute(startMinute);
+        this.seatMap = new SeatMap(layout); // Shares the layout template; only occupancy is per showtime
+    }
+
+    public ShowTime(int screenId, int startMinute) {
+        this(screenId, startMinute, SeatLayout.DEFAULT);
+    }
+
+    private ShowTime(ShowTime original, int movieId, int screenId, int startMinute) {
+        this.id = original.id;
+        this.movieId = movieId;
+        this.screenId = screenId;
+        this.startMinute = checkStartMinute(startMinute);
+        this.seatMap = original.seatMap;
+    }
+
+    /**
+     * Returns this showtime moved to another movie, screen or start. The copy
+     * shares this showtime's seat map, so seats sold or held through either
+     * stay sold or held; prices are compiled afresh for the new start.
+     */
+    public ShowTime moveTo(int movieId, int screenId, int startMinute) {
+        return new ShowTime(this, movieId, screenId, startMinute);
     }
 
     // Method to print showTimes
     public String getShowTimeInfo() {
-        return "Day: " + day + ", Time: " + time;
+        return "Day: " + getDay() + ", Time: " + getTime();
     }
 
     // Reset seat availability for new showtimes
     public void resetSeatAvailability() {
-        for (Seat seat : seats) {
-            seat.setAvailable(true);
-        }
+        seatMap.clear();
     }
 
     // Getters
+    // Short day name, e.g. "Fri"
     public String getDay() {
-        return day;
+        return WeekTime.dayName(startMinute);
     }
 
+    // 24-hour start time, e.g. "18:30"
     public String getTime() {
-        return time;
+        return WeekTime.timeText(startMinute);
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public int getScreenId() {
+        return screenId;
     }
 
-    public List<Seat> getSeats() {
-        return seats;
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    // May be stale; see PriceTable.isCompiledFor
+    public PriceTable getPriceTable() {
+        return priceTable;
+    }
+
+    public void setPriceTable(PriceTable priceTable) {
+        this.priceTable = priceTable;
     }
 
     public int getId() {
@@ -54,4 +95,19 @@ public class ShowTime {
     public void setId(int id) {
         this.id = id;
     }
+
+    public int getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(int movieId) {
+        this.movieId = movieId;
+    }
+
+    private static int checkStartMinute(int startMinute) {
+        if (!WeekTime.isValid(startMinute)) {
+            throw new IllegalArgumentException("Start minute out of range: " + startMinute);
+        }
+        return startMinute;
+    }
 }
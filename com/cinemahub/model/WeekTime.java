@@ -0,0 +1,112 @@
+package com.cinemahub.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * Converts between day/time text and minute-of-week, the encoding used for
+ * weekly showtime schedules. Minute 0 is Monday 00:00 and the week has
+ * {@link #MINUTES_PER_WEEK} minutes.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class WeekTime {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private WeekTime() {
+        // Static helpers only
+    }
+
+    /**
+     * Returns the minute of the week for a day and a minute of that day.
+     */
+    public static int of(DayOfWeek day, int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Minute of day out of range: " + minuteOfDay);
+        }
+        return (day.getValue() - 1) * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    /**
+     * Parses a day such as "Fri" or "friday" and a 24-hour time such as "18:30".
+     *
+     * @throws IllegalArgumentException If either cannot be parsed.
+     */
+    public static int parse(String day, String time) {
+        return of(parseDay(day), parseTime(time));
+    }
+
+    /**
+     * Parses a day name or an abbreviation of at least three letters, ignoring
+     * case.
+     *
+     * @throws IllegalArgumentException If the text is not a day of the week.
+     */
+    public static DayOfWeek parseDay(String text) {
+        String day = text == null ? "" : text.trim().toUpperCase(Locale.ROOT);
+        if (day.length() >= 3) {
+            for (DayOfWeek candidate : DayOfWeek.values()) {
+                if (candidate.name().startsWith(day)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Not a day of the week: " + text);
+    }
+
+    /**
+     * Parses a 24-hour "H:mm" or "HH:mm" time into a minute of the day.
+     *
+     * @throws IllegalArgumentException If the text is not a valid time.
+     */
+    public static int parseTime(String text) {
+        String time = text == null ? "" : text.trim();
+        int colon = time.indexOf(':');
+        if (colon < 1 || colon > 2 || time.length() != colon + 3) {
+            throw new IllegalArgumentException("Time must look like 18:30: " + text);
+        }
+        try {
+            int hour = Integer.parseInt(time.substring(0, colon));
+            int minute = Integer.parseInt(time.substring(colon + 1));
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                throw new IllegalArgumentException("Time out of range: " + text);
+            }
+            return hour * 60 + minute;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Time must look like 18:30: " + text, e);
+        }
+    }
+
+    public static DayOfWeek dayOf(int minuteOfWeek) {
+        return DayOfWeek.of(minuteOfWeek / MINUTES_PER_DAY + 1);
+    }
+
+    // Short day name, e.g. "Fri"
+    public static String dayName(int minuteOfWeek) {
+        return dayOf(minuteOfWeek).getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+    }
+
+    // 24-hour time of day, e.g. "18:30"
+    public static String timeText(int minuteOfWeek) {
+        int minuteOfDay = minuteOfWeek % MINUTES_PER_DAY;
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Returns the current minute of the week in the system time zone.
+     */
+    public static int now() {
+        LocalDateTime now = LocalDateTime.now();
+        return of(now.getDayOfWeek(), now.getHour() * 60 + now.getMinute());
+    }
+
+    /**
+     * Returns true if the value is a valid minute of the week.
+     */
+    public static boolean isValid(int minuteOfWeek) {
+        return minuteOfWeek >= 0 && minuteOfWeek < MINUTES_PER_WEEK;
+    }
+}
@@ -2,24 +2,59 @@ package com.cinemahub.service;
 
 import com.cinemahub.dao.BookingDAO;
 import com.cinemahub.dao.BookingDAOImpl;
+import com.cinemahub.dao.GroupCommitBookingDAO;
+import com.cinemahub.dao.JournalingBookingDAO;
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
 import com.cinemahub.model.Booking;
 import com.cinemahub.model.Movie;
 import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
 import com.cinemahub.model.ShowTime;
 import com.cinemahub.model.User;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Manages booking operations, including seat selection, availability checks,
- * and finalizing bookings.
+ * and finalizing bookings. One instance may be shared by any number of threads.
  * 
  * @author Wasana Karunanayaka
  */
 public class BookingManager {
-    private final List<Booking> bookings = new ArrayList<>();
-    private final BookingDAO bookingDAO = new BookingDAOImpl();
+    // -Dcinemahub.booking.groupCommit=true batches concurrent bookings into shared commits
+    private static final boolean GROUP_COMMIT = Boolean.getBoolean("cinemahub.booking.groupCommit");
+    // -Dcinemahub.booking.journal=bookings.journal confirms bookings from a local journal instead
+    private static final boolean JOURNAL = JournalingBookingDAO.isConfigured();
+
+    private static final LatencyHistogram PROCESS_BOOKING = Metrics.getMetrics().latency("booking.processBooking");
+    private static final LatencyHistogram HOLD_SEATS = Metrics.getMetrics().latency("booking.holdSeats");
+    private static final LatencyHistogram QUOTE = Metrics.getMetrics().latency("booking.quote");
+    private static final LatencyHistogram COMPLETE_BOOKING = Metrics.getMetrics().latency("booking.completeBooking");
+    private static final LatencyHistogram RELEASE_HOLD = Metrics.getMetrics().latency("booking.releaseHold");
+    private static final LatencyHistogram CHECK_AVAILABILITY = Metrics.getMetrics()
+            .latency("booking.checkSeatAvailability");
+    private static final LatencyHistogram CALCULATE_TOTAL = Metrics.getMetrics()
+            .latency("booking.calculateTotalPrice");
+    private static final LatencyHistogram CONFIRM_BOOKING = Metrics.getMetrics().latency("booking.confirmBooking");
+    private static final Counter BOOKINGS = Metrics.getMetrics().counter("bookings.completed");
+    private static final Counter FAILED_BOOKINGS = Metrics.getMetrics().counter("bookings.failed");
+    private static final Counter EXPIRED_HOLDS = Metrics.getMetrics().counter("bookings.expiredHolds");
+    private static final Counter SOLD_OUT = Metrics.getMetrics().counter("bookings.soldOut");
+    private static final Counter[] SEATS_SOLD = new Counter[Seat.SeatType.values().length]; // By seat type
+
+    static {
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            SEATS_SOLD[type.ordinal()] = Metrics.getMetrics().counter("seats.sold." + type);
+        }
+    }
+
+    private final BookingDAO bookingDAO = JOURNAL ? JournalingBookingDAO.getJournalingBookingDAO()
+            : GROUP_COMMIT ? GroupCommitBookingDAO.getGroupCommitBookingDAO() : new BookingDAOImpl();
+    private final SeatHoldManager seatHoldManager = SeatHoldManager.getSeatHoldManager();
+    private final PricingEngine pricingEngine = PricingEngine.getPricingEngine();
+    private final SeatFeed seatFeed = SeatFeed.getSeatFeed();
 
     /**
      * Handles the complete booking process: checks availability, reserves seats,
@@ -32,35 +67,149 @@ public class BookingManager {
      * @param seatCount The number of seats to book.
      */
     public void processBooking(Movie movie, ShowTime showTime, User user, String seatType, int seatCount) {
-        // Check seat availability
-        if (!checkSeatAvailability(showTime, seatCount, seatType)) {
-            System.out.println("Not enough seats available.");
-            return;
+        long start = System.nanoTime();
+        try {
+            SeatHold hold = holdSeats(showTime, seatType, seatCount);
+            if (hold == null) {
+                System.out.println("Not enough seats available.");
+                return;
+            }
+            completeBooking(movie, hold, user, PricingEngine.NO_PROMO);
+        } finally {
+            PROCESS_BOOKING.recordSince(start);
         }
+    }
 
-        // Reserve seats
-        List<Seat> selectedSeats = new ArrayList<>();
-        for (Seat seat : showTime.getSeats()) {
-            if (seat.getSeatType().toString().equalsIgnoreCase(seatType) && seat.isAvailable()) {
-                seat.reserve();
-                selectedSeats.add(seat);
-                if (selectedSeats.size() == seatCount)
-                    break;
+    /**
+     * Holds seats for a customer during checkout. The seats are released
+     * automatically if the hold is not completed in time. Prices are fixed at
+     * the surge level of the moment the seats are held.
+     * 
+     * @param showTime  The selected showtime.
+     * @param seatType  The desired type of seat (e.g., STANDARD).
+     * @param seatCount The number of seats to hold.
+     * @return The hold, or null if not enough seats are available or the seat
+     *         type is unknown.
+     */
+    public SeatHold holdSeats(ShowTime showTime, String seatType, int seatCount) {
+        long start = System.nanoTime();
+        try {
+            // Check seat availability
+            if (!checkSeatAvailability(showTime, seatCount, seatType)) {
+                SOLD_OUT.increment();
+                return null;
             }
+            SeatHold hold = seatHoldManager.hold(showTime, parseSeatType(seatType), seatCount);
+            if (hold != null) {
+                pricingEngine.priceHold(hold);
+            } else {
+                SOLD_OUT.increment(); // Taken by another customer since the check
+            }
+            return hold;
+        } finally {
+            HOLD_SEATS.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns the price of a held booking in minor units.
+     *
+     * @param promoId From {@link PricingEngine#promoId}.
+     */
+    public long quote(SeatHold hold, int promoId) {
+        long start = System.nanoTime();
+        try {
+            return pricingEngine.quote(hold, promoId);
+        } finally {
+            QUOTE.recordSince(start);
+        }
+    }
+
+    /**
+     * Turns a seat hold into a booking and prints the outcome for the customer.
+     * 
+     * @param movie   The movie to book.
+     * @param hold    An active hold from {@link #holdSeats}.
+     * @param user    The user making the booking.
+     * @param promoId From {@link PricingEngine#promoId}, or
+     *                {@link PricingEngine#NO_PROMO}.
+     * @return True if the booking was saved.
+     */
+    public boolean completeBooking(Movie movie, SeatHold hold, User user, int promoId) {
+        BookingResult result = bookHeldSeats(movie, hold, user, promoId);
+        if (result instanceof BookingResult.Success success) {
+            System.out.println("\nBooking successful! Here are your details:\n"
+                    + success.booking().generateBookingSummary());
+            return true;
+        }
+        if (result instanceof BookingResult.Conflict conflict) {
+            System.out.println(conflict.reason());
         }
+        return false;
+    }
+
+    /**
+     * Turns a seat hold into a booking: confirms the hold, calculates the price,
+     * and saves the booking. Nothing is printed, so this is safe to call from
+     * the {@link BookingService}'s threads.
+     * 
+     * @param movie   The movie to book.
+     * @param hold    An active hold from {@link #holdSeats}.
+     * @param user    The user making the booking.
+     * @param promoId From {@link PricingEngine#promoId}, or
+     *                {@link PricingEngine#NO_PROMO}.
+     * @return {@link BookingResult.Success} if the booking was saved, otherwise a
+     *         {@link BookingResult.Conflict}; the held seats are given back on
+     *         failure.
+     */
+    public BookingResult bookHeldSeats(Movie movie, SeatHold hold, User user, int promoId) {
+        long start = System.nanoTime();
+        try {
+            if (!seatHoldManager.confirm(hold)) {
+                EXPIRED_HOLDS.increment();
+                return new BookingResult.Conflict("Your seat hold has expired. Please start the booking again.");
+            }
 
-        // Confirm reservation
-        System.out.println("Seats reserved successfully.");
+            ShowTime showTime = hold.getShowTime();
+            int[] seatIndices = hold.getSeatIndices();
+            List<Seat> selectedSeats = pricingEngine.priceSeats(hold, promoId);
 
-        // Calculate total price
-        double totalPrice = calculateTotalPrice(selectedSeats);
+            // Calculate total price
+            long totalPrice = calculateTotalPrice(selectedSeats);
 
-        // Create a booking
-        Booking booking = new Booking(user, movie, showTime, selectedSeats, totalPrice);
+            // Create a booking
+            Booking booking = new Booking(user, movie, showTime, selectedSeats, totalPrice);
 
-        // Save and display booking
-        confirmBooking(booking);
-        System.out.println("\nBooking successful! Here are your details:\n" + booking.generateBookingSummary());
+            // Save the booking
+            if (!confirmBooking(booking)) {
+                // Seats were sold by another booking or the save failed; give ours back
+                seatFeed.releaseAll(showTime, seatIndices);
+                FAILED_BOOKINGS.increment();
+                return new BookingResult.Conflict(
+                        "Sorry, the booking could not be completed. Some seats may have just been sold; please try again.");
+            }
+            BOOKINGS.increment();
+            for (Seat seat : selectedSeats) {
+                SEATS_SOLD[seat.getSeatType().ordinal()].increment();
+            }
+            return new BookingResult.Success(booking);
+        } finally {
+            COMPLETE_BOOKING.recordSince(start);
+        }
+    }
+
+    /**
+     * Cancels a seat hold and returns its seats to the showtime.
+     * 
+     * @param hold The hold to release.
+     */
+    public void releaseHold(SeatHold hold) {
+        long start = System.nanoTime();
+        try {
+            seatHoldManager.release(hold);
+        } finally {
+            RELEASE_HOLD.recordSince(start);
+        }
     }
 
     /**
@@ -69,40 +218,66 @@ public class BookingManager {
      * @param showTime  The showtime to check.
      * @param seatCount Number of seats required.
      * @param seatType  The type of seat.
-     * @return True if enough seats are available, false otherwise.
+     * @return True if enough seats are available, false otherwise (also for an
+     *         unknown seat type).
      */
     public boolean checkSeatAvailability(ShowTime showTime, int seatCount, String seatType) {
-        int availableSeats = 0;
-        for (Seat seat : showTime.getSeats()) {
-            if (seat.getSeatType().toString().equalsIgnoreCase(seatType) && seat.isAvailable()) {
-                availableSeats++;
+        long start = System.nanoTime();
+        try {
+            Seat.SeatType type = parseSeatType(seatType);
+            return type != null && showTime.getSeatMap().getAvailableCount(type) >= seatCount;
+        } finally {
+            CHECK_AVAILABILITY.recordSince(start);
+        }
+    }
+
+    // Seat types arrive from the UI as text, e.g. "VIP"; null if there is no such type, which has no seats
+    private static Seat.SeatType parseSeatType(String seatType) {
+        if (seatType == null) {
+            return null;
+        }
+        String name = seatType.trim().toUpperCase();
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            if (type.name().equals(name)) {
+                return type;
             }
         }
-        return availableSeats >= seatCount;
+        return null;
     }
 
     /**
      * Calculate the total price based on selected seats.
      * 
      * @param selectedSeats List of selected seats.
-     * @return Total price of the seats.
+     * @return Total price of the seats in minor units.
      */
-    public double calculateTotalPrice(List<Seat> selectedSeats) {
-        double total = 0;
-        for (Seat seat : selectedSeats) {
-            total += seat.getPrice();
+    public long calculateTotalPrice(List<Seat> selectedSeats) {
+        long start = System.nanoTime();
+        try {
+            long total = 0;
+            for (Seat seat : selectedSeats) {
+                total += seat.getPrice();
+            }
+            return total;
+        } finally {
+            CALCULATE_TOTAL.recordSince(start);
         }
-        return total;
     }
 
     /**
      * Confirm and save the booking using the DAO.
      * 
      * @param booking The booking to save.
+     * @return True if the booking was saved; false if its seats could not be
+     *         claimed in the database.
      */
-    public void confirmBooking(Booking booking) {
-        bookings.add(booking);
-        // Use DAO to save to database
-        bookingDAO.saveBooking(booking);
+    public boolean confirmBooking(Booking booking) {
+        long start = System.nanoTime();
+        try {
+            // Use DAO to save to database
+            return bookingDAO.saveBooking(booking);
+        } finally {
+            CONFIRM_BOOKING.recordSince(start);
+        }
     }
 }
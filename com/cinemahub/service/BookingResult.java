@@ -0,0 +1,39 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.Booking;
+import com.cinemahub.model.Seat;
+
+/**
+ * The outcome of a booking attempt made through the {@link BookingService}.
+ *
+ * @author Wasana Karunanayaka
+ */
+public sealed interface BookingResult {
+    /**
+     * The booking was saved.
+     *
+     * @param booking The saved booking, priced and with its seats assigned.
+     */
+    record Success(Booking booking) implements BookingResult {
+    }
+
+    /**
+     * Not enough seats of the requested type were free to hold.
+     *
+     * @param seatType  The requested seat type.
+     * @param requested The number of seats asked for.
+     * @param available The number of seats free when the request was refused.
+     */
+    record SoldOut(Seat.SeatType seatType, int requested, int available) implements BookingResult {
+    }
+
+    /**
+     * The seats were held but the booking could not be saved: the hold expired,
+     * or another booking claimed a seat first, or the save failed. The held
+     * seats have been given back.
+     *
+     * @param reason A message that can be shown to the customer.
+     */
+    record Conflict(String reason) implements BookingResult {
+    }
+}
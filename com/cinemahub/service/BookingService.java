@@ -0,0 +1,189 @@
+package com.cinemahub.service;
+
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.User;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous booking API. Every call runs on its own virtual thread and
+ * returns a future of its {@link BookingResult}, so one JVM can have thousands
+ * of bookings in flight without a platform thread each.
+ * <p>
+ * At most {@code -Dcinemahub.booking.maxConcurrentSaves} bookings (default: the
+ * connection pool's maximum size) are written to the database at once; the
+ * rest wait for a permit rather than for a pooled connection. Each call takes
+ * a deadline. A booking still waiting for a permit when its deadline passes
+ * fails with a {@link TimeoutException} and its seats are released. A booking
+ * that has started writing is always allowed to finish, so a result never
+ * disagrees with the database.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class BookingService {
+    private static final int MAX_CONCURRENT_SAVES = Integer.getInteger("cinemahub.booking.maxConcurrentSaves",
+            Integer.getInteger("cinemahub.pool.max", 16));
+    private static final long DEFAULT_TIMEOUT_MS = Long.getLong("cinemahub.booking.timeoutMs", 10_000);
+
+    private static final LatencyHistogram BOOK = Metrics.getMetrics().latency("bookingService.book");
+    private static final LatencyHistogram PERMIT_WAIT = Metrics.getMetrics().latency("bookingService.permitWait");
+    private static final Counter TIMEOUTS = Metrics.getMetrics().counter("bookingService.timeouts");
+
+    private static BookingService bookingService; // Singleton instance
+
+    private final BookingManager bookingManager = new BookingManager();
+    private final ExecutorService executor = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("cinemahub-booking-", 0).factory());
+    private final Semaphore savePermits = new Semaphore(MAX_CONCURRENT_SAVES, true); // Fair: first come, first saved
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // private constructor
+    private BookingService() {
+        Metrics.getMetrics().gauge("bookingService.inFlight", inFlight::get);
+        Metrics.getMetrics().gauge("bookingService.savePermitsFree", savePermits::availablePermits);
+    }
+
+    // Get the Singleton instance
+    public static synchronized BookingService getBookingService() {
+        if (bookingService == null)
+            bookingService = new BookingService();
+        return bookingService;
+    }
+
+    /**
+     * Holds and books seats in one step using the default deadline.
+     *
+     * @see #book(Movie, ShowTime, User, Seat.SeatType, int, int, Duration)
+     */
+    public CompletableFuture<BookingResult> book(Movie movie, ShowTime showTime, User user, Seat.SeatType seatType,
+            int seatCount, int promoId) {
+        return book(movie, showTime, user, seatType, seatCount, promoId, Duration.ofMillis(DEFAULT_TIMEOUT_MS));
+    }
+
+    /**
+     * Holds the best available seats and books them in one step.
+     *
+     * @param promoId From {@link PricingEngine#promoId}, or
+     *                {@link PricingEngine#NO_PROMO}.
+     * @param timeout How long the booking may wait for database capacity.
+     * @return A future of the outcome; it fails with a {@link TimeoutException}
+     *         if the deadline passed before the booking could be saved.
+     */
+    public CompletableFuture<BookingResult> book(Movie movie, ShowTime showTime, User user, Seat.SeatType seatType,
+            int seatCount, int promoId, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return submit(() -> {
+            SeatHold hold = bookingManager.holdSeats(showTime, seatType.name(), seatCount);
+            if (hold == null) {
+                return new BookingResult.SoldOut(seatType, seatCount,
+                        showTime.getSeatMap().getAvailableCount(seatType));
+            }
+            return save(movie, hold, user, promoId, deadline);
+        });
+    }
+
+    /**
+     * Books seats already held by {@link #hold} using the default deadline.
+     */
+    public CompletableFuture<BookingResult> complete(Movie movie, SeatHold hold, User user, int promoId) {
+        return complete(movie, hold, user, promoId, Duration.ofMillis(DEFAULT_TIMEOUT_MS));
+    }
+
+    /**
+     * Books seats already held by {@link #hold}. The hold is released if the
+     * deadline passes first.
+     *
+     * @param timeout How long the booking may wait for database capacity.
+     */
+    public CompletableFuture<BookingResult> complete(Movie movie, SeatHold hold, User user, int promoId,
+            Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return submit(() -> save(movie, hold, user, promoId, deadline));
+    }
+
+    /**
+     * Holds seats while a customer checks out. This only touches memory, so it
+     * runs on the caller's thread.
+     *
+     * @return The hold, or null if not enough seats are available.
+     */
+    public SeatHold hold(ShowTime showTime, Seat.SeatType seatType, int seatCount) {
+        return bookingManager.holdSeats(showTime, seatType.name(), seatCount);
+    }
+
+    /**
+     * Returns the price of a held booking in minor units.
+     */
+    public long quote(SeatHold hold, int promoId) {
+        return bookingManager.quote(hold, promoId);
+    }
+
+    /**
+     * Cancels a seat hold and returns its seats to the showtime.
+     */
+    public void release(SeatHold hold) {
+        bookingManager.releaseHold(hold);
+    }
+
+    /**
+     * Returns the number of calls still running.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    // Waits for a database permit until the deadline, then saves the booking
+    private BookingResult save(Movie movie, SeatHold hold, User user, int promoId, long deadline)
+            throws InterruptedException, TimeoutException {
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = savePermits.tryAcquire(deadline - start, TimeUnit.NANOSECONDS);
+        } finally {
+            PERMIT_WAIT.recordSince(start);
+            if (!acquired) {
+                bookingManager.releaseHold(hold); // Give the seats to someone who can still buy them
+            }
+        }
+        if (!acquired) {
+            TIMEOUTS.increment();
+            throw new TimeoutException("Booking deadline passed while waiting for the database");
+        }
+        try {
+            return bookingManager.bookHeldSeats(movie, hold, user, promoId);
+        } finally {
+            savePermits.release();
+        }
+    }
+
+    private CompletableFuture<BookingResult> submit(Callable<BookingResult> task) {
+        CompletableFuture<BookingResult> result = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                inFlight.decrementAndGet();
+                BOOK.recordSince(start);
+            }
+        });
+        return result;
+    }
+}
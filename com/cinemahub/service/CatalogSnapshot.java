@@ -0,0 +1,279 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.Screen;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.util.HashTrie;
+import com.cinemahub.util.SortedTree;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable version of the catalog: the movies, showtimes and screens and
+ * the indexes over them. {@link MovieManager} publishes one snapshot at a time
+ * through an atomic reference, so readers never lock and always see lookups
+ * and indexes that agree with each other.
+ * <p>
+ * A change builds the next snapshot from the current one. A published Movie or
+ * ShowTime is never changed; a change replaces it with a new instance (a movie
+ * with a new showtime list), so a reader holding an older snapshot keeps seeing
+ * objects that agree with its indexes. Only each showtime's SeatMap is shared
+ * across versions, as seat sales are not part of the catalog.
+ * <p>
+ * The movies and showtimes are kept in persistent maps ({@link SortedTree} and
+ * {@link HashTrie}) that the next snapshot copies in O(1), and each change then
+ * copies only the O(log n) nodes on its path. An index that changes is copied
+ * once per snapshot in the same way: its maps share their nodes, its slot and
+ * posting tables copy one reference per 1024 entries, and what is still copied
+ * whole is a few bitsets of one bit per movie and the small attribute maps.
+ * The screens are few and are copied whole when one changes.
+ *
+ * @author Wasana Karunanayaka
+ */
+final class CatalogSnapshot {
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, new SortedTree<>(), new HashTrie<>(), Map.of(),
+            new MovieIndex(), new TitleSearch(), new ScheduleIndex());
+
+    private final long version; // Change-log version the snapshot reflects
+    private final SortedTree<Integer, Movie> moviesById;
+    private final HashTrie<Integer, ShowTime> showTimesById;
+    private final Map<Integer, Screen> screensById; // In ID order
+    private final MovieIndex movieIndex; // Title, attribute and rating lookups
+    private final TitleSearch titleSearch; // Ranked, typo-tolerant title search
+    private final ScheduleIndex scheduleIndex; // All showtimes by start minute
+
+    private CatalogSnapshot(long version, SortedTree<Integer, Movie> moviesById,
+            HashTrie<Integer, ShowTime> showTimesById, Map<Integer, Screen> screensById, MovieIndex movieIndex,
+            TitleSearch titleSearch, ScheduleIndex scheduleIndex) {
+        this.version = version;
+        this.moviesById = moviesById;
+        this.showTimesById = showTimesById;
+        this.screensById = screensById;
+        this.movieIndex = movieIndex;
+        this.titleSearch = titleSearch;
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    /**
+     * Builds a snapshot of a freshly loaded catalog.
+     */
+    static CatalogSnapshot of(long version, List<Movie> movies, List<Screen> screens) {
+        Builder builder = EMPTY.toBuilder();
+        builder.setVersion(version);
+        for (Screen screen : screens) {
+            builder.putScreen(screen);
+        }
+        for (Movie movie : movies) {
+            builder.addMovie(movie);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Starts the next snapshot from this one.
+     */
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the movies in ID order, as an unmodifiable list.
+     */
+    List<Movie> getMovies() {
+        return moviesById.values();
+    }
+
+    Movie getMovie(int movieId) {
+        return moviesById.get(movieId);
+    }
+
+    ShowTime getShowTime(int showTimeId) {
+        return showTimesById.get(showTimeId);
+    }
+
+    Screen getScreen(int screenId) {
+        return screensById.get(screenId);
+    }
+
+    Collection<Screen> getScreens() {
+        return screensById.values();
+    }
+
+    MovieIndex getMovieIndex() {
+        return movieIndex;
+    }
+
+    TitleSearch getTitleSearch() {
+        return titleSearch;
+    }
+
+    ScheduleIndex getScheduleIndex() {
+        return scheduleIndex;
+    }
+
+    /**
+     * Collects the changes for the next snapshot. Each map or index is copied
+     * the first time it changes, and lookups see the changes made so far. A
+     * builder builds one snapshot; it is not thread-safe.
+     */
+    static final class Builder {
+        private final CatalogSnapshot base;
+        private long version;
+        // Null while still shared with the base
+        private SortedTree<Integer, Movie> moviesById;
+        private HashTrie<Integer, ShowTime> showTimesById;
+        private Map<Integer, Screen> screensById;
+        private MovieIndex movieIndex;
+        private TitleSearch titleSearch;
+        private ScheduleIndex scheduleIndex;
+
+        private Builder(CatalogSnapshot base) {
+            this.base = base;
+            this.version = base.version;
+        }
+
+        void setVersion(long version) {
+            this.version = version;
+        }
+
+        Movie getMovie(int movieId) {
+            return (moviesById != null ? moviesById : base.moviesById).get(movieId);
+        }
+
+        ShowTime getShowTime(int showTimeId) {
+            return (showTimesById != null ? showTimesById : base.showTimesById).get(showTimeId);
+        }
+
+        Screen getScreen(int screenId) {
+            return (screensById != null ? screensById : base.screensById).get(screenId);
+        }
+
+        /**
+         * Adds a movie and the showtimes it already has.
+         */
+        void addMovie(Movie movie) {
+            moviesById().put(movie.getId(), movie);
+            movieIndex().add(movie);
+            titleSearch().add(movie);
+            for (ShowTime showTime : movie.getShowTimes()) {
+                addShowTime(showTime);
+            }
+        }
+
+        /**
+         * Removes a movie and its showtimes.
+         */
+        void removeMovie(Movie movie) {
+            if (getMovie(movie.getId()) == movie) {
+                moviesById().remove(movie.getId());
+            }
+            movieIndex().remove(movie);
+            titleSearch().remove(movie);
+            for (ShowTime showTime : movie.getShowTimes()) {
+                removeShowTime(showTime);
+            }
+        }
+
+        /**
+         * Puts a new version of a movie, with the same ID, in the old one's place
+         * in the indexes. Showtimes that were added, removed or replaced in its
+         * list are recorded separately.
+         */
+        void replaceMovie(Movie movie, Movie updated) {
+            moviesById().put(updated.getId(), updated);
+            movieIndex().replace(movie, updated);
+            titleSearch().replace(movie, updated);
+        }
+
+        /**
+         * Adds a showtime that is in its movie's list.
+         */
+        void addShowTime(ShowTime showTime) {
+            showTimesById().put(showTime.getId(), showTime);
+            scheduleIndex().add(showTime);
+        }
+
+        /**
+         * Removes a showtime that is no longer in its movie's list.
+         */
+        void removeShowTime(ShowTime showTime) {
+            if (getShowTime(showTime.getId()) == showTime) {
+                showTimesById().remove(showTime.getId());
+            }
+            scheduleIndex().remove(showTime);
+        }
+
+        /**
+         * Puts a new version of a showtime, e.g. one that was moved, in the old
+         * one's place.
+         */
+        void replaceShowTime(ShowTime showTime, ShowTime updated) {
+            showTimesById().put(updated.getId(), updated);
+            scheduleIndex().replace(showTime, updated);
+        }
+
+        void putScreen(Screen screen) {
+            screensById().put(screen.getId(), screen);
+        }
+
+        CatalogSnapshot build() {
+            return new CatalogSnapshot(version,
+                    moviesById == null ? base.moviesById : moviesById,
+                    showTimesById == null ? base.showTimesById : showTimesById,
+                    screensById == null ? base.screensById : Collections.unmodifiableMap(screensById),
+                    movieIndex == null ? base.movieIndex : movieIndex,
+                    titleSearch == null ? base.titleSearch : titleSearch,
+                    scheduleIndex == null ? base.scheduleIndex : scheduleIndex);
+        }
+
+        private SortedTree<Integer, Movie> moviesById() {
+            if (moviesById == null) {
+                moviesById = base.moviesById.copy();
+            }
+            return moviesById;
+        }
+
+        private HashTrie<Integer, ShowTime> showTimesById() {
+            if (showTimesById == null) {
+                showTimesById = base.showTimesById.copy();
+            }
+            return showTimesById;
+        }
+
+        private Map<Integer, Screen> screensById() {
+            if (screensById == null) {
+                screensById = new LinkedHashMap<>(base.screensById);
+            }
+            return screensById;
+        }
+
+        private MovieIndex movieIndex() {
+            if (movieIndex == null) {
+                movieIndex = base.movieIndex.copy();
+            }
+            return movieIndex;
+        }
+
+        private TitleSearch titleSearch() {
+            if (titleSearch == null) {
+                titleSearch = base.titleSearch.copy();
+            }
+            return titleSearch;
+        }
+
+        private ScheduleIndex scheduleIndex() {
+            if (scheduleIndex == null) {
+                scheduleIndex = base.scheduleIndex.copy();
+            }
+            return scheduleIndex;
+        }
+    }
+}
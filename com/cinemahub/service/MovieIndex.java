@@ -0,0 +1,350 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.util.ChunkedArray;
+import com.cinemahub.util.HashTrie;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory secondary indexes over the movie catalog: a case-folded title hash
+ * index, inverted indexes on genre, language and format, and a rating-sorted
+ * index.
+ * <p>
+ * Each indexed movie gets a dense slot number. Posting lists are bitsets over
+ * those slots, so a combined filter is answered by intersecting the postings
+ * of the given attributes, starting from the most selective one. Queries may
+ * run concurrently with each other but not with updates; {@link MovieManager}
+ * never updates an index it has published, but applies each change to a
+ * {@link #copy()} that shares the unchanged postings, title lists and slot
+ * table chunks.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class MovieIndex {
+    private HashTrie<String, List<Movie>> byTitle = new HashTrie<>(); // Lists are replaced, never changed
+    private final Map<String, Posting> byGenre = new HashMap<>();
+    private final Map<String, Posting> byLanguage = new HashMap<>();
+    private final Map<String, Posting> byFormat = new HashMap<>();
+    private final NavigableMap<Double, Posting> byRating = new TreeMap<>();
+
+    private HashTrie<Movie, Integer> slots = new HashTrie<>(); // By identity, as Movie keeps Object.equals
+    private ChunkedArray<Movie> moviesBySlot = new ChunkedArray<>();
+    private ChunkedArray<IndexedKeys> keysBySlot = new ChunkedArray<>(); // Keys the slot was indexed under
+    private final BitSet freeSlots = new BitSet();
+    private final BitSet liveSlots = new BitSet();
+
+    // Attribute values a movie was indexed under, so it can be unindexed after they change
+    private record IndexedKeys(String title, String genre, String language, String format, double rating) {
+    }
+
+    // A posting list with its size kept alongside, so picking the smallest is O(1)
+    private static final class Posting {
+        private final MovieIndex owner; // The only index that may change it; the others copy it first
+        private final BitSet slots;
+        private int size;
+
+        Posting(MovieIndex owner, BitSet slots, int size) {
+            this.owner = owner;
+            this.slots = slots;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Returns a copy of this index to apply changes to. The copy shares every
+     * posting list, the title and slot maps and the slot table chunks with this
+     * index and copies one only when a change touches it, so copying costs the
+     * small attribute maps, the chunk tables and the two slot bitsets instead
+     * of indexing every movie again. This index must not change after it is
+     * copied.
+     */
+    public MovieIndex copy() {
+        MovieIndex copy = new MovieIndex();
+        copy.byTitle = byTitle.copy();
+        copy.byGenre.putAll(byGenre);
+        copy.byLanguage.putAll(byLanguage);
+        copy.byFormat.putAll(byFormat);
+        copy.byRating.putAll(byRating);
+        copy.slots = slots.copy();
+        copy.moviesBySlot = moviesBySlot.copy();
+        copy.keysBySlot = keysBySlot.copy();
+        copy.freeSlots.or(freeSlots);
+        copy.liveSlots.or(liveSlots);
+        return copy;
+    }
+
+    /**
+     * Replaces the index contents with the given movies.
+     */
+    public void rebuild(List<Movie> movies) {
+        byTitle.clear();
+        byGenre.clear();
+        byLanguage.clear();
+        byFormat.clear();
+        byRating.clear();
+        slots.clear();
+        moviesBySlot.clear();
+        keysBySlot.clear();
+        freeSlots.clear();
+        liveSlots.clear();
+        for (Movie movie : movies) {
+            add(movie);
+        }
+    }
+
+    /**
+     * Indexes a movie. Adding a movie that is already indexed re-indexes it.
+     */
+    public void add(Movie movie) {
+        if (slots.containsKey(movie)) {
+            replace(movie, movie);
+            return;
+        }
+        int slot = freeSlots.nextSetBit(0);
+        if (slot < 0) {
+            slot = moviesBySlot.size();
+            moviesBySlot.add(null);
+            keysBySlot.add(null);
+        } else {
+            freeSlots.clear(slot);
+        }
+        liveSlots.set(slot);
+        index(slot, movie, keysOf(movie));
+    }
+
+    /**
+     * Removes a movie from every index.
+     */
+    public void remove(Movie movie) {
+        Integer slot = slots.get(movie);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        moviesBySlot.set(slot, null);
+        keysBySlot.set(slot, null);
+        liveSlots.clear(slot);
+        freeSlots.set(slot);
+    }
+
+    /**
+     * Puts a new version of a movie in the old one's place, keeping its
+     * position in results. Postings are left alone unless an indexed attribute
+     * changed. Adds the new version if the old one is not indexed.
+     */
+    public void replace(Movie movie, Movie updated) {
+        Integer slot = slots.get(movie);
+        if (slot == null) {
+            add(updated);
+            return;
+        }
+        IndexedKeys keys = keysOf(updated);
+        if (keys.equals(keysBySlot.get(slot))) {
+            // Same keys: swap the movie in, leaving every posting as it is
+            slots.remove(movie);
+            slots.put(updated, slot);
+            moviesBySlot.set(slot, updated);
+            List<Movie> sameTitle = new ArrayList<>(byTitle.get(keys.title()));
+            sameTitle.set(sameTitle.indexOf(movie), updated);
+            byTitle.put(keys.title(), sameTitle);
+            return;
+        }
+        unindex(slot);
+        index(slot, updated, keys);
+    }
+
+    /**
+     * Finds a movie by title, ignoring case.
+     *
+     * @return The first movie indexed with that title, or null.
+     */
+    public Movie findByTitle(String title) {
+        List<Movie> matches = byTitle.get(fold(title));
+        return matches == null || matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Finds movies matching every given filter. Null filters match anything.
+     *
+     * @param genre     Genre, ignoring case.
+     * @param language  Language, ignoring case.
+     * @param format    Format (e.g. 3D), ignoring case.
+     * @param minRating Lowest IMDb rating, inclusive; use 0 for any.
+     * @param maxRating Highest IMDb rating, inclusive; use 10 for any.
+     * @return Matching movies in index order.
+     */
+    public List<Movie> find(String genre, String language, String format, double minRating, double maxRating) {
+        List<Movie> result = new ArrayList<>();
+        Posting[] postings = new Posting[3];
+        int n = 0;
+        if (genre != null) {
+            postings[n++] = byGenre.get(fold(genre));
+        }
+        if (language != null) {
+            postings[n++] = byLanguage.get(fold(language));
+        }
+        if (format != null) {
+            postings[n++] = byFormat.get(fold(format));
+        }
+        for (int i = 0; i < n; i++) {
+            if (postings[i] == null) {
+                return result; // Unknown value: nothing can match
+            }
+        }
+
+        BitSet candidates;
+        if (n == 0) {
+            candidates = ratingRange(minRating, maxRating);
+        } else {
+            // Start from the most selective posting and intersect the rest into it
+            int smallest = 0;
+            for (int i = 1; i < n; i++) {
+                if (postings[i].size < postings[smallest].size) {
+                    smallest = i;
+                }
+            }
+            candidates = (BitSet) postings[smallest].slots.clone();
+            for (int i = 0; i < n; i++) {
+                if (i != smallest) {
+                    candidates.and(postings[i].slots);
+                }
+            }
+        }
+
+        for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+            double rating = keysBySlot.get(slot).rating();
+            if (rating >= minRating && rating <= maxRating) {
+                result.add(moviesBySlot.get(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} movies with the highest IMDb rating, best first.
+     */
+    public List<Movie> topRated(int limit) {
+        List<Movie> result = new ArrayList<>(Math.min(limit, slots.size()));
+        for (Posting rated : byRating.descendingMap().values()) {
+            for (int slot = rated.slots.nextSetBit(0); slot >= 0 && result.size() < limit;
+                    slot = rated.slots.nextSetBit(slot + 1)) {
+                result.add(moviesBySlot.get(slot));
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of indexed movies.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    private BitSet ratingRange(double minRating, double maxRating) {
+        if (minRating <= 0 && maxRating >= 10) {
+            return liveSlots;
+        }
+        BitSet union = new BitSet();
+        if (minRating > maxRating) {
+            return union;
+        }
+        for (Posting rated : byRating.subMap(minRating, true, maxRating, true).values()) {
+            union.or(rated.slots);
+        }
+        return union;
+    }
+
+    private void index(int slot, Movie movie, IndexedKeys keys) {
+        slots.put(movie, slot);
+        moviesBySlot.set(slot, movie);
+        keysBySlot.set(slot, keys);
+        byTitle.put(keys.title(), with(byTitle.get(keys.title()), movie));
+        post(byGenre, keys.genre(), slot);
+        post(byLanguage, keys.language(), slot);
+        post(byFormat, keys.format(), slot);
+        post(byRating, keys.rating(), slot);
+    }
+
+    private void unindex(int slot) {
+        Movie movie = moviesBySlot.get(slot);
+        IndexedKeys keys = keysBySlot.get(slot);
+        slots.remove(movie);
+        List<Movie> sameTitle = without(byTitle.get(keys.title()), movie);
+        if (sameTitle.isEmpty()) {
+            byTitle.remove(keys.title());
+        } else {
+            byTitle.put(keys.title(), sameTitle);
+        }
+        unpost(byGenre, keys.genre(), slot);
+        unpost(byLanguage, keys.language(), slot);
+        unpost(byFormat, keys.format(), slot);
+        unpost(byRating, keys.rating(), slot);
+    }
+
+    private <K> void post(Map<K, Posting> index, K key, int slot) {
+        Posting posting = writable(index, key);
+        if (posting == null) {
+            posting = new Posting(this, new BitSet(), 0);
+            index.put(key, posting);
+        }
+        posting.slots.set(slot);
+        posting.size++;
+    }
+
+    private <K> void unpost(Map<K, Posting> index, K key, int slot) {
+        Posting posting = writable(index, key);
+        if (posting != null) {
+            posting.slots.clear(slot);
+            if (--posting.size == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // The posting for a key, copied first if it is shared with the index this one was copied from
+    private <K> Posting writable(Map<K, Posting> index, K key) {
+        Posting posting = index.get(key);
+        if (posting != null && posting.owner != this) {
+            posting = new Posting(this, (BitSet) posting.slots.clone(), posting.size);
+            index.put(key, posting);
+        }
+        return posting;
+    }
+
+    // Title lists are shared between copies, so changes make new ones
+    private static List<Movie> with(List<Movie> movies, Movie movie) {
+        List<Movie> result = new ArrayList<>(movies == null ? 1 : movies.size() + 1);
+        if (movies != null) {
+            result.addAll(movies);
+        }
+        result.add(movie);
+        return result;
+    }
+
+    private static List<Movie> without(List<Movie> movies, Movie movie) {
+        List<Movie> result = new ArrayList<>(movies);
+        result.remove(movie);
+        return result;
+    }
+
+    private static IndexedKeys keysOf(Movie movie) {
+        return new IndexedKeys(fold(movie.getTitle()), fold(movie.getGenre()), fold(movie.getLanguage()),
+                fold(movie.getFormat()), movie.getImdbRating());
+    }
+
+    private static String fold(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
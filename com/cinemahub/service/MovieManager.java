@@ -1,27 +1,62 @@
 package com.cinemahub.service;
 
+import com.cinemahub.dao.CatalogDelta;
+import com.cinemahub.dao.JournalingBookingDAO;
 import com.cinemahub.dao.MovieDAO;
 import com.cinemahub.dao.MovieDAOImpl;
+import com.cinemahub.dao.ScreenDAO;
+import com.cinemahub.dao.ScreenDAOImpl;
+import com.cinemahub.metrics.Metrics;
 import com.cinemahub.model.Movie;
+import com.cinemahub.model.Screen;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatLayout;
 import com.cinemahub.model.ShowTime;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A singleton class that handles storing, loading, searching, and saving movie
  * data.
- * 
+ * <p>
+ * The catalog is held as immutable {@link CatalogSnapshot}s. Lookups, searches
+ * and listings read the current snapshot without locking, so they scale with
+ * the number of cores and never wait for a refresh. Changes are serialized on
+ * this object; each builds the next snapshot and publishes it in one step. A
+ * Movie or ShowTime in a published snapshot is never changed; changes replace
+ * it, so callers should look movies up again rather than keep them.
+ *
  * @author Wasana Karunanayaka
  */
 public class MovieManager {
-    private static List<Movie> movies = new ArrayList<>(); // List to store movies
     private static MovieManager movieManager; // Singleton instance
     private final MovieDAO movieDAO = new MovieDAOImpl(); // DAO instance
+    private final ScreenDAO screenDAO = new ScreenDAOImpl();
+
+    private final AtomicReference<CatalogSnapshot> catalog = new AtomicReference<>(CatalogSnapshot.EMPTY);
+    private final SeatFeed seatFeed = SeatFeed.getSeatFeed(); // Seat changes from other instances
+    // Writer-side state, guarded by this
+    private final ScreenSchedule screenSchedule = new ScreenSchedule(); // When each screen is occupied
+    private final Set<Long> appliedSeatVersions = new HashSet<>(); // Seat changes applied past the catalog version
+    private ScheduledExecutorService autoRefresh;
 
     // private constructor
     private MovieManager() {
         refreshMovies(); // Load movies from DB
+        if (JournalingBookingDAO.isConfigured()) {
+            // Only now that journaled seats are back in the seat maps
+            JournalingBookingDAO.getJournalingBookingDAO().startReplicator();
+        }
+        for (Seat.SeatType type : Seat.SeatType.values()) {
+            Metrics.getMetrics().gauge("seats.available." + type, () -> countAvailableSeats(type));
+        }
     }
 
     // Get the Singleton instance
@@ -36,6 +71,7 @@ public class MovieManager {
      */
     public void displayMovies() {
         // refreshMovies(); // Optional: Fetch latest from DB to ensure up-to-date view
+        List<Movie> movies = catalog.get().getMovies();
         if (movies.isEmpty()) {
             System.out.println("No movies available.");
             return;
@@ -47,23 +83,101 @@ public class MovieManager {
 
     /**
      * Search for a movie by title and return the movie object if found.
-     * 
+     *
      * @param title The title to search for.
      * @return The Movie object if found, otherwise null.
      */
     public Movie searchMovie(String title) {
-        for (Movie movie : movies) {
-            if (movie.getTitle().equalsIgnoreCase(title)) {
-                return movie;
-            }
-        }
-        return null;
+        return catalog.get().getMovieIndex().findByTitle(title);
+    }
+
+    /**
+     * Searches titles by words, word prefixes and near-misspellings.
+     *
+     * @param query The text to search for.
+     * @param limit The maximum number of movies to return.
+     * @return The best-matching movies, best first.
+     */
+    public List<Movie> searchMovies(String query, int limit) {
+        return catalog.get().getTitleSearch().search(query, limit);
+    }
+
+    /**
+     * Finds movies matching every given filter. Null filters match anything.
+     *
+     * @param genre     Genre to match, ignoring case.
+     * @param language  Language to match, ignoring case.
+     * @param format    Format to match (e.g. 3D), ignoring case.
+     * @param minRating Lowest IMDb rating to include.
+     * @return The matching movies.
+     */
+    public List<Movie> findMovies(String genre, String language, String format, double minRating) {
+        return catalog.get().getMovieIndex().find(genre, language, format, minRating, Double.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to {@code limit} movies with the highest IMDb rating, best first.
+     */
+    public List<Movie> getTopRatedMovies(int limit) {
+        return catalog.get().getMovieIndex().topRated(limit);
+    }
+
+    /**
+     * Returns the showtimes starting in a window of the weekly schedule, in start
+     * order. The window wraps past Sunday night if {@code toMinute} is not after
+     * {@code fromMinute}.
+     *
+     * @param fromMinute First minute of the week in the window (inclusive).
+     * @param toMinute   Minute of the week the window ends (exclusive).
+     * @return The showtimes starting in the window.
+     */
+    public List<ShowTime> findShowTimes(int fromMinute, int toMinute) {
+        return catalog.get().getScheduleIndex().between(fromMinute, toMinute);
+    }
+
+    /**
+     * Returns the next {@code count} showtimes starting at or after a minute of
+     * the week, wrapping into next week.
+     */
+    public List<ShowTime> getNextShowTimes(int fromMinute, int count) {
+        return catalog.get().getScheduleIndex().next(fromMinute, count);
+    }
+
+    /**
+     * Returns the movie with a database ID, or null if there is none.
+     */
+    public Movie getMovie(int movieId) {
+        return catalog.get().getMovie(movieId);
+    }
+
+    /**
+     * Returns the catalog as an unmodifiable list that stays the same while the
+     * catalog changes.
+     */
+    public List<Movie> getMovies() {
+        return catalog.get().getMovies();
+    }
+
+    /**
+     * Returns a movie's showtimes. Movies are immutable, so the list is safe to
+     * iterate while the catalog changes.
+     */
+    public List<ShowTime> getShowTimes(Movie movie) {
+        return movie.getShowTimes();
+    }
+
+    /**
+     * Returns the showtime with a database ID, or null if there is none.
+     */
+    public ShowTime getShowTime(int showTimeId) {
+        return catalog.get().getShowTime(showTimeId);
     }
 
     /**
      * Display timetable for all movies.
      */
     public void displayTimeTable() {
+        List<Movie> movies = catalog.get().getMovies();
         if (movies.isEmpty()) {
             System.out.println("No movies available for timetable display.");
             return;
@@ -79,46 +193,405 @@ public class MovieManager {
 
     /**
      * Adds a new movie to the local list and saves it to the database.
-     * 
+     *
      * @param movie The movie to add.
+     * @return The movie as stored, with its database ID, or null if it could not
+     *         be saved.
      */
-    public void addMovie(Movie movie) {
-        movies.add(movie);
-        movieDAO.saveMovie(movie);
+    public synchronized Movie addMovie(Movie movie) {
+        int id = movieDAO.saveMovie(movie);
+        if (id == 0) {
+            return null;
+        }
+        movie = movie.withId(id);
+        CatalogSnapshot.Builder next = catalog.get().toBuilder();
+        next.addMovie(movie);
+        for (ShowTime showTime : movie.getShowTimes()) {
+            screenSchedule.add(showTime, occupiedMinutes(next, movie, showTime));
+        }
+        catalog.set(next.build());
         System.out.println("Movie saved to database.");
+        return movie;
     }
 
     /**
      * Removes a movie from the local list and deletes it from the database.
-     * 
+     *
      * @param movie The movie to remove.
      */
-    public void removeMovie(Movie movie) {
-        movies.remove(movie);
+    public synchronized void removeMovie(Movie movie) {
+        CatalogSnapshot.Builder next = catalog.get().toBuilder();
+        Movie current = next.getMovie(movie.getId()); // The caller's copy may predate a change
+        if (current != null) {
+            forget(next, current);
+            catalog.set(next.build());
+        }
         movieDAO.deleteMovie(movie);
         System.out.println("Movie deleted from database.");
     }
 
     /**
-     * Adds a showtime to a movie and persists it to the database.
-     * 
+     * Adds a showtime to a movie and persists it to the database, unless its
+     * screen is busy at that time.
+     *
      * @param showTime The showtime to add.
      * @param movie    The movie to which the showtime belongs.
+     * @return True if the showtime was saved; false if it conflicts with another
+     *         show or could not be saved.
      */
-    public void addShowTime(ShowTime showTime, Movie movie) {
+    public synchronized boolean addShowTime(ShowTime showTime, Movie movie) {
+        if (!findScheduleConflicts(movie, List.of(showTime)).isEmpty()) {
+            return false;
+        }
         movieDAO.addShowTime(showTime, movie.getId());
+        if (showTime.getId() == 0) {
+            return false; // Not saved
+        }
+        CatalogSnapshot.Builder next = catalog.get().toBuilder();
+        register(next, movie, List.of(showTime));
+        catalog.set(next.build());
+        return true;
+    }
+
+    /**
+     * Adds a whole schedule of showtimes to a movie in one transaction. Nothing
+     * is added if any of them conflicts with an existing show or with another
+     * entry of the schedule.
+     *
+     * @param movie     The movie being scheduled.
+     * @param showTimes The showtimes to add.
+     * @return True if every showtime was saved.
+     */
+    public synchronized boolean addShowTimes(Movie movie, List<ShowTime> showTimes) {
+        if (!findScheduleConflicts(movie, showTimes).isEmpty() || !movieDAO.addShowTimes(showTimes, movie.getId())) {
+            return false;
+        }
+        CatalogSnapshot.Builder next = catalog.get().toBuilder();
+        register(next, movie, showTimes);
+        catalog.set(next.build()); // One snapshot for the whole schedule
+        return true;
+    }
+
+    /**
+     * Checks new showtimes for a movie against the screens' schedules and
+     * against each other. Each check takes O(log n) in the number of showtimes.
+     *
+     * @param movie     The movie being scheduled; its duration decides how long
+     *                  each show occupies its screen.
+     * @param showTimes The showtimes to check, in upload order.
+     * @return One conflict per showtime that cannot be scheduled; empty if all
+     *         fit.
+     * @throws IllegalArgumentException If a showtime names an unknown screen.
+     */
+    public synchronized List<ScheduleConflict> findScheduleConflicts(Movie movie, List<ShowTime> showTimes) {
+        CatalogSnapshot current = catalog.get();
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        List<ShowTime> placed = new ArrayList<>(showTimes.size());
+        try {
+            for (ShowTime showTime : showTimes) {
+                Screen screen = current.getScreen(showTime.getScreenId());
+                if (screen == null) {
+                    throw new IllegalArgumentException("Unknown screen: " + showTime.getScreenId());
+                }
+                int minutes = occupiedMinutes(screen, movie);
+                ShowTime existing = screenSchedule.findConflict(showTime.getScreenId(), showTime.getStartMinute(),
+                        minutes, showTime);
+                if (existing != null) {
+                    conflicts.add(new ScheduleConflict(showTime, existing));
+                } else {
+                    screenSchedule.add(showTime, minutes); // So later entries are checked against it
+                    placed.add(showTime);
+                }
+            }
+        } finally {
+            for (ShowTime showTime : placed) {
+                screenSchedule.remove(showTime);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Saves a new screen.
+     */
+    public synchronized void addScreen(Screen screen) {
+        screenDAO.saveScreen(screen);
+        if (screen.getId() != 0) {
+            CatalogSnapshot.Builder next = catalog.get().toBuilder();
+            next.putScreen(screen);
+            catalog.set(next.build());
+        }
+    }
+
+    /**
+     * Returns all screens in ID order.
+     */
+    public List<Screen> getScreens() {
+        return new ArrayList<>(catalog.get().getScreens());
+    }
+
+    /**
+     * Returns the seat layout templates a screen can be fitted with, in ID order.
+     */
+    public List<SeatLayout> getSeatLayouts() {
+        return screenDAO.getSeatLayouts();
+    }
+
+    /**
+     * Returns the screen with a database ID, or null if there is none.
+     */
+    public Screen getScreen(int screenId) {
+        return catalog.get().getScreen(screenId);
     }
 
     /**
      * Refresh local cache from DB.
-     * Fetches all movies from the database including their showtimes.
+     * Fetches all movies from the database including their showtimes. With the
+     * booking journal, seats of bookings not yet replicated to the database are
+     * reserved before the catalog is published.
+     */
+    public synchronized void refreshMovies() {
+        // Read before the database: a booking replicated in between is then in one or the other
+        List<JournalingBookingDAO.PendingSeats> pending = JournalingBookingDAO.isConfigured()
+                ? JournalingBookingDAO.getJournalingBookingDAO().getPendingSeats()
+                : List.of();
+        long version = movieDAO.getCatalogVersion(); // Read first: later changes are re-applied by the next delta
+        CatalogSnapshot loaded = CatalogSnapshot.of(version, movieDAO.getAllMovies(), screenDAO.getAllScreens());
+        for (JournalingBookingDAO.PendingSeats seats : pending) {
+            ShowTime showTime = loaded.getShowTime(seats.showTimeId());
+            if (showTime != null) {
+                // Not published yet, so straight to the seat map; false if the database already had them
+                showTime.getSeatMap().reserveAll(seats.seatIndices());
+            }
+        }
+
+        screenSchedule.clear();
+        for (Movie movie : loaded.getMovies()) {
+            for (ShowTime showTime : movie.getShowTimes()) {
+                screenSchedule.add(showTime, occupiedMinutes(loaded.getScreen(showTime.getScreenId()), movie));
+            }
+        }
+        appliedSeatVersions.clear();
+        catalog.set(loaded);
+    }
+
+    /**
+     * Brings the catalog up to date with the changes made since the last refresh.
+     *
+     * @return The catalog version after the refresh.
+     */
+    public long refreshChanges() {
+        return refreshSince(getCatalogVersion());
+    }
+
+    /**
+     * Fetches only the movies, showtimes and sold seats changed after a version
+     * and replaces the changed Movie and ShowTime objects in the next snapshot.
+     * Seat maps carry over to the replacements, so seat holds and other
+     * in-memory seat state are kept.
+     *
+     * @param version The change-log version to refresh from.
+     * @return The version to pass to the next refresh.
+     */
+    public synchronized long refreshSince(long version) {
+        CatalogDelta delta = movieDAO.getChangesSince(version);
+        if (delta == null) {
+            return version; // Could not read changes; try again next time
+        }
+
+        CatalogSnapshot.Builder next = catalog.get().toBuilder();
+        for (Movie changed : delta.getUpsertedMovies()) {
+            Movie existing = next.getMovie(changed.getId());
+            if (existing != null) {
+                Movie updated = existing.withDetails(changed);
+                next.replaceMovie(existing, updated);
+                for (ShowTime showTime : updated.getShowTimes()) {
+                    // Duration may have changed
+                    screenSchedule.add(showTime, occupiedMinutes(next, updated, showTime));
+                }
+            } else {
+                next.addMovie(changed);
+            }
+        }
+        for (Integer movieId : delta.getDeletedMovieIds()) {
+            Movie removed = next.getMovie(movieId);
+            if (removed != null) {
+                forget(next, removed);
+            }
+        }
+
+        for (ShowTime changed : delta.getUpsertedShowTimes()) {
+            applyShowTime(next, changed);
+        }
+        for (Integer showTimeId : delta.getDeletedShowTimeIds()) {
+            ShowTime removed = next.getShowTime(showTimeId);
+            if (removed == null) {
+                continue;
+            }
+            Movie owner = next.getMovie(removed.getMovieId());
+            if (owner != null) {
+                next.replaceMovie(owner, withShowTime(owner, removed, null));
+            }
+            next.removeShowTime(removed);
+            screenSchedule.remove(removed);
+        }
+
+        for (CatalogDelta.SeatChange change : delta.getSeatChanges()) {
+            // Seat changes are not idempotent with respect to local holds, so
+            // apply each one once even when the grace window re-reads it
+            if (!appliedSeatVersions.add(change.getVersion())) {
+                continue;
+            }
+            ShowTime showTime = next.getShowTime(change.getShowTimeId());
+            if (showTime == null) {
+                continue;
+            }
+            if (change.isBooked()) {
+                seatFeed.reserve(showTime, change.getSeatIndex()); // No-op if we sold it ourselves
+            } else {
+                seatFeed.release(showTime, change.getSeatIndex());
+            }
+        }
+
+        long newVersion = delta.getVersion();
+        appliedSeatVersions.removeIf(applied -> applied <= newVersion);
+        next.setVersion(newVersion);
+        catalog.set(next.build());
+        return newVersion;
+    }
+
+    /**
+     * Refreshes the catalog incrementally in the background every
+     * {@code periodMillis} milliseconds.
+     *
+     * @param periodMillis Delay between refreshes.
+     */
+    public synchronized void startAutoRefresh(long periodMillis) {
+        if (autoRefresh != null) {
+            return;
+        }
+        autoRefresh = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cinemahub-catalog-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        autoRefresh.scheduleWithFixedDelay(() -> {
+            try {
+                refreshChanges();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Unsold seats of a type across every showtime, for the seats.available gauges
+    private long countAvailableSeats(Seat.SeatType type) {
+        long available = 0;
+        for (Movie movie : catalog.get().getMovies()) {
+            for (ShowTime showTime : movie.getShowTimes()) {
+                available += showTime.getSeatMap().getAvailableCount(type);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Returns the change-log version the in-memory catalog reflects.
      */
-    public void refreshMovies() {
-        movies = movieDAO.getAllMovies();
+    public long getCatalogVersion() {
+        return catalog.get().getVersion();
     }
 
-    // Getter
-    protected List<Movie> getMovies() {
-        return movies;
+    // Adds or updates a showtime from the database, moving it if its movie changed
+    private void applyShowTime(CatalogSnapshot.Builder next, ShowTime changed) {
+        ShowTime existing = next.getShowTime(changed.getId());
+        Movie owner = next.getMovie(changed.getMovieId());
+        if (existing == null) {
+            if (owner != null) {
+                next.replaceMovie(owner, withShowTime(owner, null, changed));
+                next.addShowTime(changed);
+                screenSchedule.add(changed, occupiedMinutes(next, owner, changed));
+            }
+            return;
+        }
+        if (existing.getStartMinute() == changed.getStartMinute() && existing.getScreenId() == changed.getScreenId()
+                && existing.getMovieId() == changed.getMovieId()) {
+            return; // Re-read within the grace window
+        }
+
+        // A new instance on the existing seat map, so holds and sales carry over
+        ShowTime moved = existing.moveTo(changed.getMovieId(), changed.getScreenId(), changed.getStartMinute());
+        Movie previous = next.getMovie(existing.getMovieId());
+        if (previous != null && previous == owner) {
+            owner = withShowTime(owner, existing, moved);
+            next.replaceMovie(previous, owner);
+        } else {
+            if (previous != null) {
+                next.replaceMovie(previous, withShowTime(previous, existing, null));
+            }
+            if (owner != null) {
+                Movie updated = withShowTime(owner, null, moved);
+                next.replaceMovie(owner, updated);
+                owner = updated;
+            }
+        }
+        next.replaceShowTime(existing, moved);
+        screenSchedule.remove(existing);
+        if (owner != null) {
+            screenSchedule.add(moved, occupiedMinutes(next, owner, moved));
+        }
+    }
+
+    // Records newly saved showtimes in the next snapshot and the screen schedule
+    private void register(CatalogSnapshot.Builder next, Movie movie, List<ShowTime> showTimes) {
+        Movie current = next.getMovie(movie.getId()); // The caller's copy may predate a change
+        for (ShowTime showTime : showTimes) {
+            showTime.setMovieId(movie.getId());
+        }
+        if (current == null) {
+            return; // Deleted meanwhile; the showtimes went with it
+        }
+        List<ShowTime> scheduled = new ArrayList<>(current.getShowTimes());
+        scheduled.addAll(showTimes);
+        Movie updated = current.withShowTimes(scheduled);
+        next.replaceMovie(current, updated);
+        for (ShowTime showTime : showTimes) {
+            next.addShowTime(showTime);
+            screenSchedule.add(showTime, occupiedMinutes(next, updated, showTime));
+        }
+    }
+
+    // A copy of a movie with one showtime replaced, added (removed is null) or dropped (added is null)
+    private static Movie withShowTime(Movie movie, ShowTime removed, ShowTime added) {
+        List<ShowTime> showTimes = new ArrayList<>(movie.getShowTimes());
+        int i = removed == null ? -1 : showTimes.indexOf(removed);
+        if (i >= 0 && added != null) {
+            showTimes.set(i, added);
+        } else {
+            if (i >= 0) {
+                showTimes.remove(i);
+            }
+            if (added != null) {
+                showTimes.add(added);
+            }
+        }
+        return movie.withShowTimes(showTimes);
+    }
+
+    private int occupiedMinutes(CatalogSnapshot.Builder next, Movie movie, ShowTime showTime) {
+        return occupiedMinutes(next.getScreen(showTime.getScreenId()), movie);
+    }
+
+    // How long a show keeps its screen busy: the film plus the screen's cleanup gap
+    private static int occupiedMinutes(Screen screen, Movie movie) {
+        int cleanup = screen == null ? Screen.DEFAULT_CLEANUP_MINUTES : screen.getCleanupMinutes();
+        return Math.max(0, movie.getDuration()) + cleanup;
+    }
+
+    private void forget(CatalogSnapshot.Builder next, Movie movie) {
+        next.removeMovie(movie);
+        for (ShowTime showTime : movie.getShowTimes()) {
+            screenSchedule.remove(showTime);
+        }
     }
 }
@@ -0,0 +1,197 @@
+package com.cinemahub.service;
+
+import com.cinemahub.dao.PriceRuleDAO;
+import com.cinemahub.dao.PriceRuleDAOImpl;
+import com.cinemahub.model.PriceRule;
+import com.cinemahub.model.PriceTable;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.ShowTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A singleton class that prices seats in minor units using the pricing rules
+ * in the database.
+ * <p>
+ * The rules are compiled into a {@link PriceTable} per showtime the first time
+ * it is priced, and again only when the rules are reloaded or the show moves.
+ * Quoting a booking is then a few array lookups: no rule is re-evaluated and
+ * nothing is allocated.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class PricingEngine {
+    /** Promo ID meaning no promo code. */
+    public static final int NO_PROMO = 0;
+    /** Returned by {@link #promoId} for a code no rule uses. */
+    public static final int UNKNOWN_PROMO = -1;
+
+    private static PricingEngine pricingEngine; // Singleton instance
+
+    private final PriceRuleDAO priceRuleDAO = new PriceRuleDAOImpl();
+    private volatile RuleSet ruleSet = new RuleSet(List.of(), 0);
+
+    // private constructor
+    private PricingEngine() {
+        reload();
+    }
+
+    // Get the Singleton instance
+    public static synchronized PricingEngine getPricingEngine() {
+        if (pricingEngine == null)
+            pricingEngine = new PricingEngine();
+        return pricingEngine;
+    }
+
+    /**
+     * Reloads the rules from the database. Showtime tables are recompiled
+     * lazily on their next quote.
+     */
+    public void reload() {
+        setRules(priceRuleDAO.getActivePriceRules());
+    }
+
+    /**
+     * Replaces the rules, e.g. with rules built in code for a benchmark.
+     */
+    public synchronized void setRules(List<PriceRule> rules) {
+        ruleSet = new RuleSet(rules, ruleSet.version + 1);
+    }
+
+    /**
+     * Resolves a promo code as entered by a customer.
+     *
+     * @return {@link #NO_PROMO} for a blank code, {@link #UNKNOWN_PROMO} if no
+     *         active rule uses it, otherwise the ID to pass when quoting.
+     */
+    public int promoId(String code) {
+        String normalized = PriceRule.normalizePromoCode(code);
+        if (normalized == null) {
+            return NO_PROMO;
+        }
+        Integer id = ruleSet.promoIds.get(normalized);
+        return id == null ? UNKNOWN_PROMO : id;
+    }
+
+    /**
+     * Resolves a promo code against the prices a hold was quoted at, which may
+     * predate the current rules.
+     *
+     * @return As for {@link #promoId(String)}.
+     */
+    public int promoId(SeatHold hold, String code) {
+        int id = hold.getPriceTable().promoId(PriceRule.normalizePromoCode(code));
+        return id < 0 ? UNKNOWN_PROMO : id;
+    }
+
+    /**
+     * Fixes a new hold's prices at the showtime's current table and surge
+     * level, so the total quoted is the total charged even if the rules are
+     * reloaded or the show fills up before the customer confirms.
+     */
+    public void priceHold(SeatHold hold) {
+        ShowTime showTime = hold.getShowTime();
+        PriceTable table = tableFor(showTime);
+        hold.setPricing(table, table.surgeLevel(showTime.getSeatMap()));
+    }
+
+    /**
+     * Returns the showtime's compiled prices, compiling them if the rules or
+     * the show changed since they were last built.
+     */
+    public PriceTable tableFor(ShowTime showTime) {
+        RuleSet rules = ruleSet;
+        PriceTable table = showTime.getPriceTable();
+        if (table == null || !table.isCompiledFor(rules.version, showTime)) {
+            // Two threads may both compile; either result is correct
+            table = new PriceTable(rules.rules, rules.surgeThresholds, rules.promoCodes, rules.version, showTime);
+            showTime.setPriceTable(table);
+        }
+        return table;
+    }
+
+    /**
+     * Returns the surge level for the showtime as full as it is now. Pass it to
+     * {@link #quote} to keep a price fixed while the customer checks out.
+     */
+    public int surgeLevel(ShowTime showTime) {
+        return tableFor(showTime).surgeLevel(showTime.getSeatMap());
+    }
+
+    /**
+     * Returns the total price of seats in minor units.
+     *
+     * @param level   From {@link #surgeLevel}.
+     * @param promoId From {@link #promoId}; unknown codes are treated as none.
+     */
+    public long quote(ShowTime showTime, int[] seatIndices, int level, int promoId) {
+        return tableFor(showTime).total(seatIndices, level, promoId);
+    }
+
+    /**
+     * Returns the total price of a hold's seats in minor units, at the prices
+     * fixed by {@link #priceHold}.
+     *
+     * @param promoId From {@link #promoId(SeatHold, String)}.
+     */
+    public long quote(SeatHold hold, int promoId) {
+        PriceTable table = hold.getPriceTable();
+        int level = hold.getPriceLevel();
+        long total = 0;
+        for (int i = 0; i < hold.getSeatCount(); i++) { // Not getSeatIndices: quoting allocates nothing
+            total += table.seatPrice(hold.getSeatIndex(i), level, promoId);
+        }
+        return total;
+    }
+
+    /**
+     * Returns seat descriptors carrying the price each held seat is sold at,
+     * the prices fixed by {@link #priceHold}.
+     */
+    public List<Seat> priceSeats(SeatHold hold, int promoId) {
+        PriceTable table = hold.getPriceTable();
+        SeatLayout layout = hold.getShowTime().getSeatMap().getLayout();
+        List<Seat> seats = new ArrayList<>(hold.getSeatCount());
+        for (int i = 0; i < hold.getSeatCount(); i++) {
+            int seatIndex = hold.getSeatIndex(i);
+            seats.add(new Seat(seatIndex, layout.getSeatType(seatIndex),
+                    table.seatPrice(seatIndex, hold.getPriceLevel(), promoId)));
+        }
+        return seats;
+    }
+
+    // An immutable rule set with the parts every showtime table needs
+    private static final class RuleSet {
+        private final List<PriceRule> rules;
+        private final int version;
+        private final int[] surgeThresholds;
+        private final List<String> promoCodes;
+        private final Map<String, Integer> promoIds = new HashMap<>();
+
+        RuleSet(List<PriceRule> rules, int version) {
+            this.rules = List.copyOf(rules);
+            this.version = version;
+            TreeSet<Integer> thresholds = new TreeSet<>();
+            TreeSet<String> codes = new TreeSet<>();
+            for (PriceRule rule : this.rules) {
+                if (rule.isSurge()) {
+                    thresholds.add(rule.minOccupancyPercent());
+                }
+                if (rule.isPromo()) {
+                    codes.add(rule.promoCode());
+                }
+            }
+            this.surgeThresholds = thresholds.stream().mapToInt(Integer::intValue).toArray();
+            this.promoCodes = List.copyOf(codes);
+            for (int i = 0; i < promoCodes.size(); i++) {
+                promoIds.put(promoCodes.get(i), i + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.ShowTime;
+
+/**
+ * A requested showtime that would overlap another show on the same screen.
+ *
+ * @param requested The showtime that could not be scheduled.
+ * @param existing  The showtime already occupying the screen (it may be another
+ *                  entry of the same upload).
+ * @author Wasana Karunanayaka
+ */
+public record ScheduleConflict(ShowTime requested, ShowTime existing) {
+}
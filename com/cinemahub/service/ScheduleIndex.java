@@ -0,0 +1,143 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.WeekTime;
+import com.cinemahub.util.HashTrie;
+import com.cinemahub.util.SortedTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All showtimes ordered by start minute of the week, for time-window and
+ * "what's on next" queries in O(log n + results).
+ * <p>
+ * The schedule repeats weekly, so windows and next-N queries wrap from Sunday
+ * night to Monday morning. Queries may run concurrently with each other but
+ * not with updates; {@link MovieManager} never updates an index it has
+ * published, but applies each change to a {@link #copy()}, which shares the
+ * tree and key map with it and copies only the nodes a change touches.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class ScheduleIndex {
+    // Keyed by start minute (high 32 bits) and an insertion sequence, so equal starts stay distinct
+    private SortedTree<Long, ShowTime> byStart = new SortedTree<>();
+    private HashTrie<ShowTime, Long> keys = new HashTrie<>(); // Current key of each indexed showtime, by identity
+    private int sequence;
+
+    /**
+     * Returns a copy of this index to apply changes to, in O(1). Each change to
+     * the copy then costs O(log n). This index must not change after it is
+     * copied.
+     */
+    public ScheduleIndex copy() {
+        ScheduleIndex copy = new ScheduleIndex();
+        copy.byStart = byStart.copy();
+        copy.keys = keys.copy();
+        copy.sequence = sequence;
+        return copy;
+    }
+
+    /**
+     * Replaces the index contents with the showtimes of the given movies.
+     */
+    public void rebuild(List<Movie> movies) {
+        byStart.clear();
+        keys.clear();
+        sequence = 0;
+        for (Movie movie : movies) {
+            for (ShowTime showTime : movie.getShowTimes()) {
+                add(showTime);
+            }
+        }
+    }
+
+    /**
+     * Indexes a showtime at its current start. Adding it again re-indexes it,
+     * e.g. after it was rescheduled.
+     */
+    public void add(ShowTime showTime) {
+        remove(showTime);
+        long key = ((long) showTime.getStartMinute() << 32) | (sequence++ & 0xffffffffL);
+        byStart.put(key, showTime);
+        keys.put(showTime, key);
+    }
+
+    /**
+     * Puts a new version of a showtime in the old one's place, keeping its
+     * position among showtimes with the same start if the start did not
+     * change.
+     */
+    public void replace(ShowTime showTime, ShowTime updated) {
+        Long key = keys.get(showTime);
+        if (key == null || showTime.getStartMinute() != updated.getStartMinute()) {
+            remove(showTime);
+            add(updated);
+            return;
+        }
+        keys.remove(showTime);
+        byStart.put(key, updated);
+        keys.put(updated, key);
+    }
+
+    public void remove(ShowTime showTime) {
+        Long key = keys.remove(showTime);
+        if (key != null) {
+            byStart.remove(key);
+        }
+    }
+
+    /**
+     * Returns the showtimes starting in {@code [fromMinute, toMinute)}, in start
+     * order. If {@code toMinute} is not after {@code fromMinute} the window wraps
+     * past the end of the week.
+     */
+    public List<ShowTime> between(int fromMinute, int toMinute) {
+        checkMinute(fromMinute);
+        if (toMinute < 0 || toMinute > WeekTime.MINUTES_PER_WEEK) {
+            throw new IllegalArgumentException("Minute out of range: " + toMinute);
+        }
+        List<ShowTime> all = byStart.values();
+        int from = byStart.rank(keyFloor(fromMinute));
+        int to = byStart.rank(keyFloor(toMinute));
+        List<ShowTime> result = new ArrayList<>();
+        if (fromMinute < toMinute) {
+            result.addAll(all.subList(from, to));
+        } else {
+            result.addAll(all.subList(from, all.size()));
+            result.addAll(all.subList(0, to));
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code count} showtimes starting at or after
+     * {@code fromMinute}, wrapping into next week.
+     */
+    public List<ShowTime> next(int fromMinute, int count) {
+        checkMinute(fromMinute);
+        List<ShowTime> all = byStart.values();
+        int from = byStart.rank(keyFloor(fromMinute));
+        int later = Math.min(count, all.size() - from);
+        List<ShowTime> result = new ArrayList<>(all.subList(from, from + later));
+        result.addAll(all.subList(0, Math.min(count - later, from)));
+        return result;
+    }
+
+    public int size() {
+        return byStart.size();
+    }
+
+    // Smallest key for a start minute
+    private static long keyFloor(int minute) {
+        return (long) minute << 32;
+    }
+
+    private static void checkMinute(int minute) {
+        if (!WeekTime.isValid(minute)) {
+            throw new IllegalArgumentException("Minute out of range: " + minute);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.WeekTime;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Tracks when each screen is occupied, to find scheduling conflicts in
+ * O(log n).
+ * <p>
+ * A showtime occupies its screen from its start for the film's duration plus
+ * the screen's cleanup gap. Each screen keeps its occupied intervals in a tree
+ * ordered by start. An interval overlapping a new one either starts inside it
+ * (the ceiling of its start) or starts before it and is still running; the
+ * latter can only start within the longest interval length before it, so only
+ * that short range of the tree is examined. The lengths are counted per screen,
+ * so the longest one shrinks again when its showtime is removed or moved. This holds even if overlapping
+ * showtimes were loaded from an older database.
+ * <p>
+ * The schedule is weekly: an interval running past Sunday night is stored as
+ * two pieces, one up to the end of the week and one from Monday 00:00. Not
+ * thread-safe; {@link MovieManager} guards it.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class ScreenSchedule {
+
+    // An occupied interval [start, end) within one week; a wrapping showtime has two
+    private record Piece(int start, int end, ShowTime showTime) {
+    }
+
+    // A screen's pieces keyed by start (high 32 bits) and a sequence number, so equal starts stay distinct
+    private static final class Timeline {
+        private final NavigableMap<Long, Piece> pieces = new TreeMap<>();
+        // Piece length -> number of pieces that long
+        private final NavigableMap<Integer, Integer> lengths = new TreeMap<>();
+
+        int longestPiece() {
+            return lengths.isEmpty() ? 0 : lengths.lastKey();
+        }
+    }
+
+    // Where a showtime was placed, so it can be removed after it changes
+    private record Placement(int screenId, long[] keys) {
+    }
+
+    private final Map<Integer, Timeline> timelines = new HashMap<>();
+    private final Map<ShowTime, Placement> placements = new IdentityHashMap<>();
+    private int sequence;
+
+    /**
+     * Returns a showtime already occupying the screen at any point in
+     * {@code [startMinute, startMinute + minutes)}, or null if it is free.
+     *
+     * @param screenId    The screen to check.
+     * @param startMinute Minute of the week the new show would start.
+     * @param minutes     How long it would occupy the screen, cleanup included.
+     * @param ignore      A showtime to leave out (e.g. the one being moved), or null.
+     */
+    public ShowTime findConflict(int screenId, int startMinute, int minutes, ShowTime ignore) {
+        Timeline timeline = timelines.get(screenId);
+        if (timeline == null) {
+            return null;
+        }
+        int end = startMinute + clampLength(minutes);
+        ShowTime conflict = findConflict(timeline, startMinute, Math.min(end, WeekTime.MINUTES_PER_WEEK), ignore);
+        if (conflict == null && end > WeekTime.MINUTES_PER_WEEK) {
+            conflict = findConflict(timeline, 0, end - WeekTime.MINUTES_PER_WEEK, ignore);
+        }
+        return conflict;
+    }
+
+    /**
+     * Marks a showtime's screen as occupied for {@code minutes} from its start.
+     * Adding it again moves it, e.g. after it was rescheduled. No conflict check
+     * is made; call {@link #findConflict} first.
+     */
+    public void add(ShowTime showTime, int minutes) {
+        remove(showTime);
+        Timeline timeline = timelines.computeIfAbsent(showTime.getScreenId(), id -> new Timeline());
+        int start = showTime.getStartMinute();
+        int end = start + clampLength(minutes);
+        long[] keys;
+        if (end <= WeekTime.MINUTES_PER_WEEK) {
+            keys = new long[] { put(timeline, new Piece(start, end, showTime)) };
+        } else {
+            keys = new long[] {
+                    put(timeline, new Piece(start, WeekTime.MINUTES_PER_WEEK, showTime)),
+                    put(timeline, new Piece(0, end - WeekTime.MINUTES_PER_WEEK, showTime)) };
+        }
+        placements.put(showTime, new Placement(showTime.getScreenId(), keys));
+    }
+
+    public void remove(ShowTime showTime) {
+        Placement placement = placements.remove(showTime);
+        if (placement == null) {
+            return;
+        }
+        Timeline timeline = timelines.get(placement.screenId());
+        for (long key : placement.keys()) {
+            Piece piece = timeline.pieces.remove(key);
+            timeline.lengths.computeIfPresent(piece.end() - piece.start(),
+                    (length, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    public void clear() {
+        timelines.clear();
+        placements.clear();
+        sequence = 0;
+    }
+
+    private ShowTime findConflict(Timeline timeline, int start, int end, ShowTime ignore) {
+        // Pieces starting inside [start, end)
+        for (Piece piece : timeline.pieces.subMap(key(start), true, key(end), false).values()) {
+            if (piece.showTime() != ignore) {
+                return piece.showTime();
+            }
+        }
+        // Pieces that started earlier and are still running at `start`
+        long from = key(Math.max(0, start - timeline.longestPiece()));
+        for (Piece piece : timeline.pieces.subMap(from, true, key(start), false).descendingMap().values()) {
+            if (piece.end() > start && piece.showTime() != ignore) {
+                return piece.showTime();
+            }
+        }
+        return null;
+    }
+
+    private long put(Timeline timeline, Piece piece) {
+        long key = key(piece.start()) | (sequence++ & 0xffffffffL);
+        timeline.pieces.put(key, piece);
+        timeline.lengths.merge(piece.end() - piece.start(), 1, Integer::sum);
+        return key;
+    }
+
+    private static long key(int minute) {
+        return (long) minute << 32;
+    }
+
+    // A show occupies at least a minute and at most the whole week
+    private static int clampLength(int minutes) {
+        return Math.max(1, Math.min(minutes, WeekTime.MINUTES_PER_WEEK));
+    }
+}
@@ -0,0 +1,26 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.Seat;
+
+/**
+ * A change to the seats of one showtime, as published by the {@link SeatFeed}.
+ * Seat indices are those of the showtime's
+ * {@link com.cinemahub.model.SeatLayout}. The arrays are shared between
+ * subscribers and must not be modified.
+ *
+ * @param showTimeId The showtime whose seats changed.
+ * @param sequence   Increases with every delta published by the feed; a
+ *                   coalesced delta carries the sequence of its latest one.
+ * @param taken      Changed seats that are now taken (held or sold).
+ * @param released   Changed seats that are now free.
+ * @param available  Free seats when the delta was made, by seat type ordinal.
+ * @author Wasana Karunanayaka
+ */
+public record SeatDelta(int showTimeId, long sequence, int[] taken, int[] released, int[] available) {
+    /**
+     * Returns the number of free seats of a type after the change.
+     */
+    public int getAvailable(Seat.SeatType seatType) {
+        return available[seatType.ordinal()];
+    }
+}
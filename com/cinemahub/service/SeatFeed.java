@@ -0,0 +1,501 @@
+package com.cinemahub.service;
+
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.SeatMap;
+import com.cinemahub.model.ShowTime;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A singleton feed of seat availability changes. A {@link SeatDelta} is
+ * published whenever seats of a showtime are taken or freed: when a customer
+ * holds them, when a hold is released or expires, when a save fails, and when
+ * a catalog refresh applies another instance's bookings. Seats stop being
+ * available when they are held, so a committed booking has already been
+ * reported by then.
+ * <p>
+ * Seat changes that subscribers should see are made through the feed. The
+ * change itself is the lock-free {@link SeatMap} update; the feed then only
+ * marks the changed seats in a per-showtime bitset and, if the showtime is not
+ * already waiting, queues it for the publisher thread. Buyers never take a
+ * lock or touch a subscriber. The single publisher clears a showtime's marks,
+ * reads those seats' current state from the seat map, numbers the delta and
+ * hands it to the subscribers. Because a delta reports the state a seat is in
+ * when it is read rather than the change that marked it, two changes racing
+ * on one seat cannot be published in the wrong order: whichever change comes
+ * last marks the seat again after it was read, and the next delta carries its
+ * state.
+ * <p>
+ * Each subscriber is called on its own virtual thread, one delta at a time.
+ * Deltas that arrive while a subscriber is still busy are merged per showtime
+ * (the latest state of each seat and the latest counts win), so a slow
+ * subscriber gets fewer, larger updates instead of an ever-growing queue.
+ * While nobody is subscribed, a change costs a map lookup on top of the seat
+ * map update.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class SeatFeed {
+    private static final int ALL_SHOWTIMES = -1;
+    private static final int[] NONE = new int[0];
+
+    private static final Counter DELTAS = Metrics.getMetrics().counter("seatFeed.deltas");
+    private static final Counter COALESCED = Metrics.getMetrics().counter("seatFeed.coalesced");
+    private static final LatencyHistogram DELIVER = Metrics.getMetrics().latency("seatFeed.deliver");
+
+    private static SeatFeed seatFeed; // Singleton instance
+
+    private final Map<Integer, Set<Subscription>> byShowTime = new ConcurrentHashMap<>();
+    private final Set<Subscription> allShowTimes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong(); // Written by the publisher only
+    private final Map<Integer, ChangedSeats> changedSeats = new ConcurrentHashMap<>(); // By showtime ID
+    private final BlockingQueue<ChangedSeats> ready = new LinkedBlockingQueue<>();
+    private final ExecutorService delivery = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("cinemahub-seat-feed-", 0).factory());
+
+    /**
+     * Receives seat changes. Calls for one subscription never overlap.
+     */
+    public interface Listener {
+        void onSeatDelta(SeatDelta delta);
+    }
+
+    // private constructor
+    private SeatFeed() {
+        Metrics.getMetrics().gauge("seatFeed.subscribers", subscriberCount::get);
+        Metrics.getMetrics().gauge("seatFeed.queued", ready::size);
+        Thread publisher = new Thread(this::publishLoop, "cinemahub-seat-feed-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    // Get the Singleton instance
+    public static synchronized SeatFeed getSeatFeed() {
+        if (seatFeed == null)
+            seatFeed = new SeatFeed();
+        return seatFeed;
+    }
+
+    /**
+     * Subscribes to the changes of one showtime.
+     */
+    public Subscription subscribe(int showTimeId, Listener listener) {
+        Subscription subscription = new Subscription(showTimeId, listener);
+        // compute() is atomic per showtime, so this cannot race cancel() dropping an empty set
+        byShowTime.compute(showTimeId, (id, watchers) -> {
+            Set<Subscription> updated = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+            updated.add(subscription);
+            return updated;
+        });
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Subscribes to the changes of every showtime.
+     */
+    public Subscription subscribeAll(Listener listener) {
+        Subscription subscription = new Subscription(ALL_SHOWTIMES, listener);
+        allShowTimes.add(subscription);
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Returns the showtime's current state as a delta listing every taken seat.
+     * Subscribe first and then take the snapshot; the subscriber then only
+     * needs the deltas with a higher sequence, which were all read after the
+     * snapshot's sequence was, and may apply the others again harmlessly.
+     */
+    public SeatDelta snapshot(ShowTime showTime) {
+        // Before the scan: a delta numbered up to here read its seats before this scan did
+        long snapshotSequence = sequence.get();
+        SeatMap seatMap = showTime.getSeatMap();
+        SeatLayout layout = seatMap.getLayout();
+        int[] taken = new int[layout.size()];
+        int count = 0;
+        for (int seatIndex = 0; seatIndex < layout.size(); seatIndex++) {
+            if (layout.isSeat(seatIndex) && !seatMap.isAvailable(seatIndex)) {
+                taken[count++] = seatIndex;
+            }
+        }
+        return new SeatDelta(showTime.getId(), snapshotSequence, Arrays.copyOf(taken, count), NONE,
+                availableCounts(seatMap));
+    }
+
+    /**
+     * Takes the best free seats of a type (see {@link SeatMap#reserveBest})
+     * and publishes them.
+     *
+     * @return The seats taken, or null if not enough were free.
+     */
+    public int[] reserveBest(ShowTime showTime, Seat.SeatType seatType, int count) {
+        int[] seatIndices = showTime.getSeatMap().reserveBest(seatType, count);
+        if (seatIndices != null) {
+            changed(showTime, seatIndices);
+        }
+        return seatIndices;
+    }
+
+    /**
+     * Takes all of the given seats or none, and publishes them.
+     *
+     * @return False if any of the seats was already taken.
+     */
+    public boolean reserveAll(ShowTime showTime, int[] seatIndices) {
+        if (!showTime.getSeatMap().reserveAll(seatIndices)) {
+            return false;
+        }
+        changed(showTime, seatIndices);
+        return true;
+    }
+
+    /**
+     * Takes a seat and publishes it if it was free.
+     *
+     * @return False if the seat was already taken.
+     */
+    public boolean reserve(ShowTime showTime, int seatIndex) {
+        if (!showTime.getSeatMap().reserve(seatIndex)) {
+            return false;
+        }
+        changed(showTime, seatIndex);
+        return true;
+    }
+
+    /**
+     * Frees a seat and publishes it if it was taken.
+     *
+     * @return False if the seat was already free.
+     */
+    public boolean release(ShowTime showTime, int seatIndex) {
+        if (!showTime.getSeatMap().release(seatIndex)) {
+            return false;
+        }
+        changed(showTime, seatIndex);
+        return true;
+    }
+
+    /**
+     * Frees seats and publishes them.
+     */
+    public void releaseAll(ShowTime showTime, int[] seatIndices) {
+        SeatMap seatMap = showTime.getSeatMap();
+        for (int seatIndex : seatIndices) {
+            seatMap.release(seatIndex);
+        }
+        changed(showTime, seatIndices);
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Called right after the seat map changed: marks the seats and queues the showtime for the publisher
+    private void changed(ShowTime showTime, int[] seatIndices) {
+        ChangedSeats changed = changedSeats(showTime);
+        if (changed != null) {
+            for (int seatIndex : seatIndices) {
+                changed.mark(seatIndex);
+            }
+            schedule(changed);
+        }
+    }
+
+    private void changed(ShowTime showTime, int seatIndex) {
+        ChangedSeats changed = changedSeats(showTime);
+        if (changed != null) {
+            changed.mark(seatIndex);
+            schedule(changed);
+        }
+    }
+
+    // The showtime's marks, or null if nobody is watching it
+    private ChangedSeats changedSeats(ShowTime showTime) {
+        int showTimeId = showTime.getId();
+        if (allShowTimes.isEmpty()) {
+            Set<Subscription> watchers = byShowTime.get(showTimeId);
+            if (watchers == null || watchers.isEmpty()) {
+                return null;
+            }
+        }
+        SeatMap seatMap = showTime.getSeatMap();
+        ChangedSeats changed = changedSeats.get(showTimeId);
+        if (changed == null || changed.seatMap != seatMap) {
+            // First watched change, or a catalog reload gave the showtime a new seat map
+            changed = changedSeats.compute(showTimeId, (id, current) -> current != null && current.seatMap == seatMap
+                    ? current
+                    : new ChangedSeats(id, seatMap));
+        }
+        return changed;
+    }
+
+    private void schedule(ChangedSeats changed) {
+        // Marks first, flag second: the publisher clears the flag before it takes the marks
+        if (!changed.scheduled.get() && changed.scheduled.compareAndSet(false, true)) {
+            ready.add(changed);
+        }
+    }
+
+    private void publishLoop() {
+        while (true) {
+            try {
+                publish(ready.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // Never let one bad delta stop the feed
+            }
+        }
+    }
+
+    // Runs on the publisher thread only, so deltas are numbered in the order their seats were read
+    private void publish(ChangedSeats changed) {
+        changed.scheduled.set(false); // Seats marked from here on queue the showtime again
+        long[] marked = changed.takeMarks();
+        SeatMap seatMap = changed.seatMap;
+        int[] taken = new int[Long.SIZE * marked.length];
+        int[] released = new int[taken.length];
+        int takenCount = 0;
+        int releasedCount = 0;
+        for (int word = 0; word < marked.length; word++) {
+            for (long bits = marked[word]; bits != 0; bits &= bits - 1) {
+                int seatIndex = (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (seatMap.isAvailable(seatIndex)) {
+                    released[releasedCount++] = seatIndex;
+                } else {
+                    taken[takenCount++] = seatIndex;
+                }
+            }
+        }
+        int showTimeId = changed.showTimeId;
+        Set<Subscription> watchers = byShowTime.get(showTimeId);
+        boolean watched = watchers != null && !watchers.isEmpty();
+        if (!watched && allShowTimes.isEmpty()) {
+            changedSeats.remove(showTimeId, changed); // A later change queues it again if needed
+            return;
+        }
+        if (takenCount + releasedCount == 0) {
+            return;
+        }
+        int[] available = availableCounts(seatMap);
+        SeatDelta delta = new SeatDelta(showTimeId, sequence.incrementAndGet(), Arrays.copyOf(taken, takenCount),
+                Arrays.copyOf(released, releasedCount), available);
+        DELTAS.increment();
+        if (watched) {
+            for (Subscription subscription : watchers) {
+                subscription.offer(delta);
+            }
+        }
+        for (Subscription subscription : allShowTimes) {
+            subscription.offer(delta);
+        }
+    }
+
+    private static int[] availableCounts(SeatMap seatMap) {
+        Seat.SeatType[] types = Seat.SeatType.values();
+        int[] available = new int[types.length];
+        for (Seat.SeatType type : types) {
+            available[type.ordinal()] = seatMap.getAvailableCount(type);
+        }
+        return available;
+    }
+
+    // Seats of one showtime changed since the publisher last read them
+    private static final class ChangedSeats {
+        private final int showTimeId;
+        private final SeatMap seatMap;
+        private final AtomicLongArray marks; // One bit per seat index
+        private final AtomicBoolean scheduled = new AtomicBoolean(); // Queued for the publisher
+
+        ChangedSeats(int showTimeId, SeatMap seatMap) {
+            this.showTimeId = showTimeId;
+            this.seatMap = seatMap;
+            this.marks = new AtomicLongArray((seatMap.getLayout().size() + 63) >>> 6);
+        }
+
+        void mark(int seatIndex) {
+            int word = seatIndex >>> 6;
+            long bit = 1L << seatIndex;
+            long current = marks.get(word);
+            while ((current & bit) == 0) {
+                long witness = marks.compareAndExchange(word, current, current | bit);
+                if (witness == current) {
+                    return;
+                }
+                current = witness;
+            }
+        }
+
+        long[] takeMarks() {
+            long[] taken = new long[marks.length()];
+            for (int word = 0; word < taken.length; word++) {
+                taken[word] = marks.get(word) == 0 ? 0 : marks.getAndSet(word, 0);
+            }
+            return taken;
+        }
+    }
+
+    /**
+     * A subscriber's place in the feed. Cancel it to stop receiving changes.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final int showTimeId; // Or ALL_SHOWTIMES
+        private final Listener listener;
+        private Map<Integer, PendingDelta> pending = new LinkedHashMap<>(); // By showtime; guarded by this
+        private boolean draining; // A delivery thread is running; guarded by this
+        private volatile boolean cancelled;
+
+        private Subscription(int showTimeId, Listener listener) {
+            this.showTimeId = showTimeId;
+            this.listener = listener;
+        }
+
+        /**
+         * Stops deliveries. A delta already being delivered still completes.
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                pending.clear();
+            }
+            if (showTimeId == ALL_SHOWTIMES) {
+                allShowTimes.remove(this);
+            } else {
+                byShowTime.computeIfPresent(showTimeId, (id, watchers) -> {
+                    watchers.remove(this);
+                    return watchers.isEmpty() ? null : watchers;
+                });
+            }
+            subscriberCount.decrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+
+        // Queues a delta, merging it into one not yet delivered, and starts delivery if idle
+        private void offer(SeatDelta delta) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                PendingDelta queued = pending.get(delta.showTimeId());
+                if (queued == null) {
+                    pending.put(delta.showTimeId(), new PendingDelta(delta));
+                } else {
+                    queued.merge(delta);
+                    COALESCED.increment();
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            delivery.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Map<Integer, PendingDelta> batch;
+                synchronized (this) {
+                    if (pending.isEmpty() || cancelled) {
+                        draining = false;
+                        return;
+                    }
+                    batch = pending;
+                    pending = new LinkedHashMap<>();
+                }
+                for (PendingDelta queued : batch.values()) {
+                    if (cancelled) {
+                        break;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        listener.onSeatDelta(queued.toDelta());
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(); // One bad listener must not stop its later deltas
+                    } finally {
+                        DELIVER.recordSince(start);
+                    }
+                }
+            }
+        }
+    }
+
+    // Deltas of one showtime waiting for a busy subscriber
+    private static final class PendingDelta {
+        private final SeatDelta first; // Delivered as is unless more arrive
+        private TreeMap<Integer, Boolean> seats; // Seat index to taken, latest change wins
+        private SeatDelta latest;
+
+        PendingDelta(SeatDelta first) {
+            this.first = first;
+        }
+
+        void merge(SeatDelta delta) {
+            if (seats == null) {
+                seats = new TreeMap<>();
+                apply(first);
+            }
+            apply(delta);
+            latest = delta;
+        }
+
+        SeatDelta toDelta() {
+            if (seats == null) {
+                return first;
+            }
+            int takenCount = 0;
+            for (boolean taken : seats.values()) {
+                if (taken) {
+                    takenCount++;
+                }
+            }
+            int[] taken = new int[takenCount];
+            int[] released = new int[seats.size() - takenCount];
+            int t = 0;
+            int r = 0;
+            for (Map.Entry<Integer, Boolean> seat : seats.entrySet()) {
+                if (seat.getValue()) {
+                    taken[t++] = seat.getKey();
+                } else {
+                    released[r++] = seat.getKey();
+                }
+            }
+            return new SeatDelta(latest.showTimeId(), latest.sequence(), taken, released, latest.available());
+        }
+
+        private void apply(SeatDelta delta) {
+            for (int seatIndex : delta.taken()) {
+                seats.put(seatIndex, Boolean.TRUE);
+            }
+            for (int seatIndex : delta.released()) {
+                seats.put(seatIndex, Boolean.FALSE);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.cinemahub.service;
+
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.util.TimingWheel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A singleton class that places time-limited holds on seats and expires them.
+ * <p>
+ * Held seats are taken in the showtime's seat map straight away, so no one else
+ * can buy them during checkout. Expiry runs on a shared hashed timing wheel,
+ * and an expired or released hold hands its seats straight back to the seat
+ * map without a catalog reload.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class SeatHoldManager {
+    private static final long DEFAULT_TTL_SECONDS = Long.getLong("cinemahub.hold.ttlSeconds", 300);
+    private static final long TICK_MILLIS = 100;
+    private static final int WHEEL_SIZE = 1024; // ~100 s per turn at 100 ms ticks
+
+    private static SeatHoldManager seatHoldManager; // Singleton instance
+
+    private final Map<Long, ActiveHold> activeHolds = new ConcurrentHashMap<>();
+    private final AtomicLong nextHoldId = new AtomicLong(1);
+    private final SeatFeed seatFeed = SeatFeed.getSeatFeed();
+    private final TimingWheel expiryWheel = new TimingWheel("cinemahub-hold-expiry", TICK_MILLIS,
+            TimeUnit.MILLISECONDS, WHEEL_SIZE);
+
+    // private constructor
+    private SeatHoldManager() {
+        Metrics.getMetrics().gauge("holds.active", this::getActiveHoldCount);
+    }
+
+    // Get the Singleton instance
+    public static synchronized SeatHoldManager getSeatHoldManager() {
+        if (seatHoldManager == null)
+            seatHoldManager = new SeatHoldManager();
+        return seatHoldManager;
+    }
+
+    /**
+     * Holds seats of a type using the default time-to-live.
+     *
+     * @return The hold, or null if not enough seats are free.
+     */
+    public SeatHold hold(ShowTime showTime, Seat.SeatType seatType, int seatCount) {
+        return hold(showTime, seatType, seatCount, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Holds the best available seats of a type for a limited time, together in
+     * one row where possible.
+     *
+     * @return The hold, or null if not enough seats are free.
+     */
+    public SeatHold hold(ShowTime showTime, Seat.SeatType seatType, int seatCount, long ttl, TimeUnit unit) {
+        int[] seatIndices = seatFeed.reserveBest(showTime, seatType, seatCount);
+        if (seatIndices == null) {
+            return null;
+        }
+        return register(showTime, seatIndices, ttl, unit);
+    }
+
+    /**
+     * Holds specific seats for a limited time, all or nothing.
+     *
+     * @return The hold, or null if any of the seats is taken.
+     */
+    public SeatHold hold(ShowTime showTime, int[] seatIndices, long ttl, TimeUnit unit) {
+        if (!seatFeed.reserveAll(showTime, seatIndices)) {
+            return null;
+        }
+        return register(showTime, seatIndices.clone(), ttl, unit);
+    }
+
+    /**
+     * Confirms a hold. The seats stay taken and now belong to the caller's
+     * booking.
+     *
+     * @return False if the hold had already expired or been released.
+     */
+    public boolean confirm(SeatHold hold) {
+        if (!hold.finish(SeatHold.Status.CONFIRMED)) {
+            return false;
+        }
+        ActiveHold active = activeHolds.remove(hold.getId());
+        if (active != null) {
+            active.timeout.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Releases a hold and returns its seats to the showtime.
+     *
+     * @return False if the hold had already ended.
+     */
+    public boolean release(SeatHold hold) {
+        if (!hold.finish(SeatHold.Status.RELEASED)) {
+            return false;
+        }
+        ActiveHold active = activeHolds.remove(hold.getId());
+        if (active != null) {
+            active.timeout.cancel();
+        }
+        freeSeats(hold);
+        return true;
+    }
+
+    /**
+     * Looks up an active hold by ID.
+     *
+     * @return The hold, or null if it has ended or never existed.
+     */
+    public SeatHold getHold(long holdId) {
+        ActiveHold active = activeHolds.get(holdId);
+        return active == null ? null : active.hold;
+    }
+
+    /**
+     * Returns the number of holds that are still active.
+     */
+    public int getActiveHoldCount() {
+        return activeHolds.size();
+    }
+
+    private SeatHold register(ShowTime showTime, int[] seatIndices, long ttl, TimeUnit unit) {
+        long ttlMillis = unit.toMillis(ttl);
+        SeatHold hold = new SeatHold(nextHoldId.getAndIncrement(), showTime, seatIndices,
+                System.currentTimeMillis() + ttlMillis);
+        TimingWheel.Timeout timeout = expiryWheel.schedule(() -> expire(hold), ttlMillis, TimeUnit.MILLISECONDS);
+        activeHolds.put(hold.getId(), new ActiveHold(hold, timeout));
+        if (hold.getStatus() != SeatHold.Status.HELD) {
+            activeHolds.remove(hold.getId()); // Expired before it was registered
+        }
+        return hold;
+    }
+
+    // Runs on the timing wheel thread
+    private void expire(SeatHold hold) {
+        if (hold.finish(SeatHold.Status.EXPIRED)) {
+            activeHolds.remove(hold.getId());
+            freeSeats(hold);
+        }
+    }
+
+    private void freeSeats(SeatHold hold) {
+        seatFeed.releaseAll(hold.getShowTime(), hold.getSeatIndices());
+    }
+
+    // A hold together with its expiry timer
+    private static final class ActiveHold {
+        private final SeatHold hold;
+        private final TimingWheel.Timeout timeout;
+
+        ActiveHold(SeatHold hold, TimingWheel.Timeout timeout) {
+            this.hold = hold;
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,723 @@
+package com.cinemahub.service;
+
+import com.cinemahub.model.Movie;
+import com.cinemahub.util.ChunkedArray;
+import com.cinemahub.util.HashTrie;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Ranked, typo-tolerant search over movie titles.
+ * <p>
+ * Titles are split into lower-case words. Each distinct word is stored once in
+ * a prefix trie, with a posting list of the movies that contain it, and its
+ * trigrams are indexed so that misspelt words can be matched without comparing
+ * against the whole vocabulary. A query word scores a movie as:
+ * <ul>
+ * <li>an exact word match,</li>
+ * <li>a prefix of a word (the last query word only, so results follow the user
+ * as they type), or</li>
+ * <li>a word within a small edit distance (1 edit for 4-7 letters, 2 from 8),
+ * found through the trigram index and confirmed with a bounded
+ * Damerau-Levenshtein check.</li>
+ * </ul>
+ * Movie scores add up over the query words and the best {@code limit} movies
+ * are returned. The index is updated incrementally as movies come and go.
+ * <p>
+ * Searches may run concurrently with each other, each on scratch space of its
+ * own, but not with updates. {@link MovieManager} never updates an index it
+ * has published; it applies each change to a {@link #copy()}, which shares
+ * trie nodes, gram lists, posting lists and slot table chunks with the
+ * published index and copies only those a change touches.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class TitleSearch {
+    // Word scores; a fuzzy match loses FUZZY_PENALTY per edit
+    private static final int EXACT_SCORE = 100;
+    private static final int PREFIX_SCORE = 60; // Plus up to PREFIX_RANGE for completions close to the prefix
+    private static final int PREFIX_RANGE = 30;
+    private static final int FUZZY_SCORE = 70;
+    private static final int FUZZY_PENALTY = 20;
+    // Whole-title bonuses
+    private static final int EXACT_TITLE_BONUS = 1000;
+    private static final int TITLE_PREFIX_BONUS = 50;
+
+    private static final int MIN_PREFIX_LENGTH = 2; // A single letter matches too much to be useful
+    private static final int MAX_EXPANSION_POSTINGS = 4096; // Movies a query word may reach through prefix/fuzzy matches
+
+    private TrieNode root = new TrieNode(this);
+    private HashTrie<String, GramTerms> termsByGram = new HashTrie<>();
+    private ChunkedArray<Posting> postings = new ChunkedArray<>(); // Indexed by term ID; null once a term is gone
+
+    private HashTrie<Movie, Integer> slots = new HashTrie<>(); // By identity, as Movie keeps Object.equals
+    private ChunkedArray<Movie> moviesBySlot = new ChunkedArray<>();
+    private ChunkedArray<String> titlesBySlot = new ChunkedArray<>(); // Normalized title, words joined by spaces
+    private final BitSet freeSlots = new BitSet();
+    private int termCount; // Terms ever created, so every term has its own ID
+
+    // Idle scratch spaces, taken by a search while it runs
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    // Per-query scratch space; the slot-indexed arrays are all zero between queries
+    private static final class Scratch {
+        private int[] movieScores = new int[0];
+        private int[] wordScores = new int[0];
+        private int[] matched = new int[0]; // Slots with a non-zero movie score
+        private int matchedCount;
+        private int[] matchedWord = new int[0]; // Slots with a non-zero word score
+        private int matchedWordCount;
+        private int[] distanceRows = new int[0];
+        private int epoch; // Numbers each query word, to mark the terms it has already visited
+        // Indexed by term ID
+        private int[] credited = new int[0]; // Epoch of the last query word that scored the term
+        private int[] counted = new int[0]; // Epoch of the last fuzzy lookup that counted sharedGrams
+        private int[] sharedGrams = new int[0];
+
+        void ensureCapacity(int slotCount, int termCount) {
+            if (movieScores.length < slotCount) {
+                int capacity = slotCount * 2;
+                movieScores = new int[capacity];
+                wordScores = new int[capacity];
+                matched = new int[capacity];
+                matchedWord = new int[capacity];
+            }
+            if (credited.length < termCount) {
+                // Epochs carry on, so stamps copied over stay meaningful
+                int capacity = termCount * 2;
+                credited = Arrays.copyOf(credited, capacity);
+                counted = Arrays.copyOf(counted, capacity);
+                sharedGrams = Arrays.copyOf(sharedGrams, capacity);
+            }
+        }
+    }
+
+    // A distinct title word; never changes, so copies of the index share it
+    private record Term(String text, int id) {
+    }
+
+    // The slots of the movies whose titles contain a term
+    private static final class Posting {
+        private final TitleSearch owner; // The only index that may change it; the others copy it first
+        private int[] slots;
+        private int size;
+
+        Posting(TitleSearch owner, int[] slots, int size) {
+            this.owner = owner;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    // The terms containing a trigram
+    private static final class GramTerms {
+        private final TitleSearch owner;
+        private final List<Term> terms;
+
+        GramTerms(TitleSearch owner, List<Term> terms) {
+            this.owner = owner;
+            this.terms = terms;
+        }
+    }
+
+    // Children are kept in sorted arrays: title words use few distinct characters
+    private static final class TrieNode {
+        private final TitleSearch owner;
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private Term term; // Set if a word ends here
+
+        TrieNode(TitleSearch owner) {
+            this.owner = owner;
+        }
+
+        TrieNode copy(TitleSearch owner) {
+            TrieNode copy = new TrieNode(owner);
+            copy.keys = keys;
+            copy.children = children; // Changes replace the arrays rather than write them, so they can be shared
+            copy.term = term;
+            return copy;
+        }
+
+        TrieNode child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        // Sets the child for a character, adding it if there is none yet
+        void putChild(char c, TrieNode child) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                TrieNode[] newChildren = children.clone();
+                newChildren[i] = child;
+                children = newChildren;
+                return;
+            }
+            i = -i - 1;
+            char[] newKeys = new char[keys.length + 1];
+            TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = c;
+            newChildren[i] = child;
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            TrieNode[] newChildren = new TrieNode[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+
+    /**
+     * Returns a copy of this index to apply changes to. The copy shares the
+     * trie, gram lists and posting lists with this index: a change copies the
+     * posting lists it touches, and the trie nodes on a word's path and the
+     * gram lists of the word only when a word appears or disappears. The gram
+     * and slot maps are shared the same way, and the posting and slot tables
+     * copy only their chunk tables, so copying costs the free-slot bitset and
+     * a few references per thousand slots instead of indexing every title
+     * again. This index must not change after it is copied.
+     */
+    public TitleSearch copy() {
+        TitleSearch copy = new TitleSearch();
+        copy.root = root;
+        copy.termsByGram = termsByGram.copy();
+        copy.postings = postings.copy();
+        copy.slots = slots.copy();
+        copy.moviesBySlot = moviesBySlot.copy();
+        copy.titlesBySlot = titlesBySlot.copy();
+        copy.freeSlots.or(freeSlots);
+        copy.termCount = termCount;
+        return copy;
+    }
+
+    /**
+     * Replaces the index contents with the given movies.
+     */
+    public void rebuild(List<Movie> movies) {
+        root = new TrieNode(this);
+        termsByGram.clear();
+        postings.clear();
+        slots.clear();
+        moviesBySlot.clear();
+        titlesBySlot.clear();
+        freeSlots.clear();
+        termCount = 0;
+        scratchPool.clear();
+        for (Movie movie : movies) {
+            add(movie);
+        }
+    }
+
+    /**
+     * Indexes a movie's title. Adding a movie that is already indexed re-indexes
+     * it.
+     */
+    public void add(Movie movie) {
+        if (slots.containsKey(movie)) {
+            replace(movie, movie);
+            return;
+        }
+        int slot = freeSlots.nextSetBit(0);
+        if (slot < 0) {
+            slot = moviesBySlot.size();
+            moviesBySlot.add(null);
+            titlesBySlot.add(null);
+        } else {
+            freeSlots.clear(slot);
+        }
+        index(slot, movie, tokenize(movie.getTitle()));
+    }
+
+    /**
+     * Removes a movie from the index.
+     */
+    public void remove(Movie movie) {
+        Integer slot = slots.get(movie);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        moviesBySlot.set(slot, null);
+        titlesBySlot.set(slot, null);
+        freeSlots.set(slot);
+    }
+
+    /**
+     * Puts a new version of a movie in the old one's place. Its words are only
+     * re-indexed if the title changed. Adds the new version if the old one is
+     * not indexed.
+     */
+    public void replace(Movie movie, Movie updated) {
+        Integer slot = slots.get(movie);
+        if (slot == null) {
+            add(updated);
+            return;
+        }
+        String[] words = tokenize(updated.getTitle());
+        if (String.join(" ", words).equals(titlesBySlot.get(slot))) {
+            slots.remove(movie);
+            slots.put(updated, slot);
+            moviesBySlot.set(slot, updated);
+            return;
+        }
+        unindex(slot);
+        index(slot, updated, words);
+    }
+
+    /**
+     * Finds the movies whose titles best match a query, best first.
+     *
+     * @param query The text the user typed.
+     * @param limit The maximum number of movies to return.
+     * @return Up to {@code limit} matching movies; empty if nothing matches.
+     */
+    public List<Movie> search(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        List<Movie> results = search(words, limit, scratch);
+        scratchPool.offer(scratch); // Only once it is clean again, so not after a failure
+        return results;
+    }
+
+    /**
+     * Returns the number of indexed movies.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    private List<Movie> search(String[] words, int limit, Scratch scratch) {
+        scratch.ensureCapacity(moviesBySlot.size(), termCount);
+        int[] movieScores = scratch.movieScores;
+        int[] wordScores = scratch.wordScores;
+        int[] matched = scratch.matched;
+        int matchedCount = 0;
+        for (int w = 0; w < words.length; w++) {
+            scratch.matchedWordCount = 0;
+            scoreWord(words[w], w == words.length - 1, scratch);
+            // A movie counts its best match for each query word once
+            for (int i = 0; i < scratch.matchedWordCount; i++) {
+                int slot = scratch.matchedWord[i];
+                if (movieScores[slot] == 0) {
+                    matched[matchedCount++] = slot;
+                }
+                movieScores[slot] += wordScores[slot];
+                wordScores[slot] = 0;
+            }
+        }
+
+        String normalizedQuery = String.join(" ", words);
+        for (int i = 0; i < matchedCount; i++) {
+            int slot = matched[i];
+            String title = titlesBySlot.get(slot);
+            if (title.equals(normalizedQuery)) {
+                movieScores[slot] += EXACT_TITLE_BONUS;
+            } else if (title.startsWith(normalizedQuery)) {
+                movieScores[slot] += TITLE_PREFIX_BONUS;
+            }
+        }
+
+        // Keep the best `limit` slots in a min-heap with the weakest on top
+        int[] heap = new int[Math.min(limit, matchedCount)];
+        int heapSize = 0;
+        for (int i = 0; i < matchedCount; i++) {
+            int slot = matched[i];
+            if (heapSize < heap.length) {
+                heap[heapSize] = slot;
+                siftUp(movieScores, heap, heapSize++);
+            } else if (heapSize > 0 && ranksAbove(movieScores, slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(movieScores, heap, heapSize);
+            }
+        }
+
+        Movie[] results = new Movie[heapSize];
+        while (heapSize > 0) {
+            results[heapSize - 1] = moviesBySlot.get(heap[0]);
+            heap[0] = heap[--heapSize];
+            siftDown(movieScores, heap, heapSize);
+        }
+        for (int i = 0; i < matchedCount; i++) {
+            movieScores[matched[i]] = 0;
+        }
+        return Arrays.asList(results);
+    }
+
+    // Higher score first, then shorter titles (the query covers more of them), then higher rating
+    private boolean ranksAbove(int[] movieScores, int a, int b) {
+        if (movieScores[a] != movieScores[b]) {
+            return movieScores[a] > movieScores[b];
+        }
+        int lengthA = titlesBySlot.get(a).length();
+        int lengthB = titlesBySlot.get(b).length();
+        if (lengthA != lengthB) {
+            return lengthA < lengthB;
+        }
+        return moviesBySlot.get(a).getImdbRating() > moviesBySlot.get(b).getImdbRating();
+    }
+
+    private void siftUp(int[] movieScores, int[] heap, int i) {
+        int slot = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksAbove(movieScores, heap[parent], slot)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = slot;
+    }
+
+    private void siftDown(int[] movieScores, int[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int slot = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksAbove(movieScores, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksAbove(movieScores, slot, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = slot;
+    }
+
+    // Scores every movie containing a match for one query word into wordScores
+    private void scoreWord(String word, boolean last, Scratch scratch) {
+        int epoch = ++scratch.epoch;
+        int[] credited = scratch.credited;
+        int[] counted = scratch.counted;
+        int[] sharedGrams = scratch.sharedGrams;
+        TrieNode node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        Term exact = node == null ? null : node.term;
+        if (exact != null) {
+            credit(exact, EXACT_SCORE, scratch);
+        }
+
+        // Prefix and fuzzy matches share one budget, spent on the closest words first
+        int budget = MAX_EXPANSION_POSTINGS;
+        if (last && node != null && word.length() >= MIN_PREFIX_LENGTH) {
+            // Breadth-first, so the shortest (closest) completions are taken first
+            ArrayDeque<TrieNode> queue = new ArrayDeque<>();
+            queue.add(node);
+            while (!queue.isEmpty() && budget > 0) {
+                TrieNode next = queue.poll();
+                if (next.term != null && credited[next.term.id()] != epoch) {
+                    credit(next.term, PREFIX_SCORE + PREFIX_RANGE * word.length() / next.term.text().length(), scratch);
+                    budget -= postings.get(next.term.id()).size;
+                }
+                Collections.addAll(queue, next.children);
+            }
+        }
+
+        int maxEdits = word.length() < 4 ? 0 : word.length() < 8 ? 1 : 2;
+        if (maxEdits == 0 || budget <= 0) {
+            return;
+        }
+        // q-gram filter: each edit destroys at most three trigrams
+        List<String> grams = grams(word);
+        int minShared = Math.max(1, grams.size() - 3 * maxEdits);
+        List<Term> candidates = new ArrayList<>();
+        for (String gram : grams) {
+            GramTerms terms = termsByGram.get(gram);
+            if (terms == null) {
+                continue;
+            }
+            for (Term term : terms.terms) {
+                if (counted[term.id()] != epoch) {
+                    counted[term.id()] = epoch;
+                    sharedGrams[term.id()] = 0;
+                    candidates.add(term);
+                }
+                sharedGrams[term.id()]++;
+            }
+        }
+        List<List<Term>> byEdits = new ArrayList<>();
+        for (int edits = 0; edits <= maxEdits; edits++) {
+            byEdits.add(new ArrayList<>());
+        }
+        for (Term term : candidates) {
+            if (credited[term.id()] == epoch || sharedGrams[term.id()] < minShared
+                    || Math.abs(term.text().length() - word.length()) > maxEdits) {
+                continue;
+            }
+            int edits = distance(word, term.text(), maxEdits, scratch);
+            if (edits <= maxEdits) {
+                byEdits.get(edits).add(term);
+            }
+        }
+        for (int edits = 1; edits <= maxEdits; edits++) {
+            for (Term term : byEdits.get(edits)) {
+                if (budget <= 0) {
+                    return;
+                }
+                credit(term, FUZZY_SCORE - FUZZY_PENALTY * edits, scratch);
+                budget -= postings.get(term.id()).size;
+            }
+        }
+    }
+
+    private void credit(Term term, int score, Scratch scratch) {
+        scratch.credited[term.id()] = scratch.epoch;
+        Posting posting = postings.get(term.id());
+        int[] wordScores = scratch.wordScores;
+        for (int i = 0; i < posting.size; i++) {
+            int slot = posting.slots[i];
+            if (wordScores[slot] == 0) {
+                scratch.matchedWord[scratch.matchedWordCount++] = slot;
+            }
+            wordScores[slot] = Math.max(wordScores[slot], score);
+        }
+    }
+
+    /**
+     * Optimal-string-alignment distance (Levenshtein plus adjacent
+     * transpositions), giving up as soon as it must exceed {@code max}.
+     */
+    private static int distance(String a, String b, int max, Scratch scratch) {
+        int n = a.length();
+        int m = b.length();
+        int width = m + 1;
+        if (scratch.distanceRows.length < 3 * width) {
+            scratch.distanceRows = new int[3 * width * 2];
+        }
+        int[] rows = scratch.distanceRows;
+        int twoBack = 0;
+        int prev = width;
+        int cur = 2 * width;
+        for (int j = 0; j <= m; j++) {
+            rows[prev + j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            rows[cur] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int value = Math.min(Math.min(rows[prev + j] + 1, rows[cur + j - 1] + 1),
+                        rows[prev + j - 1] + (ca == cb ? 0 : 1));
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, rows[twoBack + j - 2] + 1);
+                }
+                rows[cur + j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int recycled = twoBack;
+            twoBack = prev;
+            prev = cur;
+            cur = recycled;
+        }
+        return rows[prev + m];
+    }
+
+    private void index(int slot, Movie movie, String[] words) {
+        slots.put(movie, slot);
+        moviesBySlot.set(slot, movie);
+        titlesBySlot.set(slot, String.join(" ", words));
+        for (String word : distinct(words)) {
+            addWord(word, slot);
+        }
+    }
+
+    private void unindex(int slot) {
+        slots.remove(moviesBySlot.get(slot));
+        String title = titlesBySlot.get(slot);
+        for (String word : distinct(title.isEmpty() ? new String[0] : title.split(" "))) {
+            removeWord(word, slot);
+        }
+    }
+
+    private void addWord(String word, int slot) {
+        TrieNode node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        Term term = node == null ? null : node.term;
+        if (term == null) {
+            // A new word: copy its path into this index and hang the term on it
+            TrieNode[] path = writablePath(word);
+            term = new Term(word, termCount++);
+            path[word.length()].term = term;
+            postings.add(new Posting(this, new int[2], 0)); // At index term.id()
+            for (String gram : grams(word)) {
+                GramTerms terms = writableGram(gram);
+                terms.terms.add(term);
+            }
+        }
+        writablePosting(term).add(slot);
+    }
+
+    private void removeWord(String word, int slot) {
+        TrieNode node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        Term term = node == null ? null : node.term;
+        if (term == null) {
+            return;
+        }
+        Posting posting = writablePosting(term);
+        posting.remove(slot);
+        if (posting.size > 0) {
+            return;
+        }
+
+        // Last movie with this word: drop it from the gram index and prune the trie
+        postings.set(term.id(), null);
+        for (String gram : grams(word)) {
+            GramTerms terms = writableGram(gram);
+            terms.terms.remove(term);
+            if (terms.terms.isEmpty()) {
+                termsByGram.remove(gram);
+            }
+        }
+        TrieNode[] path = writablePath(word);
+        path[word.length()].term = null;
+        for (int i = word.length(); i > 0; i--) {
+            TrieNode pathNode = path[i];
+            if (pathNode.term != null || pathNode.keys.length > 0) {
+                break;
+            }
+            path[i - 1].removeChild(word.charAt(i - 1));
+        }
+    }
+
+    // The nodes from the root to a word, creating missing ones and copying those shared with another index
+    private TrieNode[] writablePath(String word) {
+        TrieNode[] path = new TrieNode[word.length() + 1];
+        root = writable(root);
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            TrieNode child = path[i].child(word.charAt(i));
+            TrieNode writableChild = child == null ? new TrieNode(this) : writable(child);
+            if (writableChild != child) {
+                path[i].putChild(word.charAt(i), writableChild);
+            }
+            path[i + 1] = writableChild;
+        }
+        return path;
+    }
+
+    private TrieNode writable(TrieNode node) {
+        return node.owner == this ? node : node.copy(this);
+    }
+
+    private Posting writablePosting(Term term) {
+        Posting posting = postings.get(term.id());
+        if (posting.owner != this) {
+            posting = new Posting(this, Arrays.copyOf(posting.slots, posting.slots.length), posting.size);
+            postings.set(term.id(), posting);
+        }
+        return posting;
+    }
+
+    private GramTerms writableGram(String gram) {
+        GramTerms terms = termsByGram.get(gram);
+        if (terms == null || terms.owner != this) {
+            terms = new GramTerms(this, terms == null ? new ArrayList<>() : new ArrayList<>(terms.terms));
+            termsByGram.put(gram, terms);
+        }
+        return terms;
+    }
+
+    // Distinct trigrams of a word padded with '$' at both ends
+    private static List<String> grams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    private static Set<String> distinct(String[] words) {
+        return new LinkedHashSet<>(Arrays.asList(words));
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     */
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        String folded = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+}
@@ -1,9 +1,15 @@
 package com.cinemahub.ui;
 
 import com.cinemahub.model.Movie;
+import com.cinemahub.model.Screen;
+import com.cinemahub.model.SeatLayout;
 import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.WeekTime;
 import com.cinemahub.service.MovieManager;
+import com.cinemahub.service.ScheduleConflict;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -37,7 +43,9 @@ public class Admin {
             System.out.println("1. Add Movie");
             System.out.println("2. Remove Movie");
             System.out.println("3. Add Showtime");
-            System.out.println("4. Logout");
+            System.out.println("4. Upload Schedule");
+            System.out.println("5. Add Screen");
+            System.out.println("6. Logout");
             System.out.print("Select an option: ");
 
             int choice = CinemaHub.getValidatedChoice(scanner);
@@ -46,7 +54,9 @@ public class Admin {
                 case 1 -> addMovie();
                 case 2 -> removeMovie();
                 case 3 -> addShowTime();
-                case 4 -> adminRunning = false;
+                case 4 -> uploadSchedule();
+                case 5 -> addScreen();
+                case 6 -> adminRunning = false;
                 default -> System.out.println("Invalid option. Please try again.");
             }
         }
@@ -72,8 +82,11 @@ public class Admin {
         // Create and add the movie
         Movie movie = new Movie(title, language, genre, format, rating, releaseDate, duration);
         // Correctly delegate to manager which handles DAO
-        movieManager.addMovie(movie);
-        System.out.println("Movie added: " + movie.getTitle());
+        if (movieManager.addMovie(movie) != null) {
+            System.out.println("Movie added: " + movie.getTitle());
+        } else {
+            System.out.println("The movie could not be saved. Please try again.");
+        }
     }
 
     // Removes a movie
@@ -97,21 +110,181 @@ public class Admin {
 
         Movie movie = movieManager.searchMovie(title);
         if (movie != null) {
-            System.out.print("Enter showtime day: ");
-            String day = scanner.nextLine();
-            System.out.print("Enter showtime time: ");
-            String time = scanner.nextLine();
+            Screen screen = selectScreen();
+            if (screen == null) {
+                return;
+            }
+            int startMinute = readStartMinute();
 
-            ShowTime newShowTime = new ShowTime(day, time);
-            movie.getShowTimes().add(newShowTime);
-            movieManager.addShowTime(newShowTime, movie);
-            System.out.println("Showtime added for movie: " + movie.getTitle());
-            System.out.println("Showtime successfully persisted to Database.");
+            ShowTime newShowTime = new ShowTime(screen.getId(), startMinute, screen.getLayout());
+            List<ScheduleConflict> conflicts = movieManager.findScheduleConflicts(movie, List.of(newShowTime));
+            if (!conflicts.isEmpty()) {
+                printConflicts(conflicts);
+                return;
+            }
+            if (movieManager.addShowTime(newShowTime, movie)) {
+                System.out.println("Showtime added for movie: " + movie.getTitle());
+                System.out.println("Showtime successfully persisted to Database.");
+            } else {
+                System.out.println("The showtime could not be saved. Please try again.");
+            }
         } else {
             System.out.println("Movie not found.");
         }
     }
 
+    // Adds many showtimes for a movie at once; the upload is rejected if any line is malformed or conflicts
+    private void uploadSchedule() {
+        System.out.print("Enter the title of the movie to schedule: ");
+        String title = scanner.nextLine();
+        Movie movie = movieManager.searchMovie(title);
+        if (movie == null) {
+            System.out.println("Movie not found.");
+            return;
+        }
+
+        System.out.println("Enter one showtime per line as <day> <time> <screen id>, e.g. Fri 18:30 1.");
+        System.out.println("Finish with an empty line.");
+        List<ShowTime> showTimes = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        int lineNumber = 0;
+        while (true) {
+            String line = scanner.nextLine().trim();
+            if (line.isEmpty()) {
+                break;
+            }
+            lineNumber++;
+            String[] parts = line.split("\\s+");
+            try {
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Expected <day> <time> <screen id>");
+                }
+                int screenId = Integer.parseInt(parts[2]);
+                Screen screen = movieManager.getScreen(screenId);
+                if (screen == null) {
+                    throw new IllegalArgumentException("Unknown screen " + screenId);
+                }
+                showTimes.add(new ShowTime(screenId, WeekTime.parse(parts[0], parts[1]), screen.getLayout()));
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException included
+                errors.add("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            errors.forEach(System.out::println);
+            System.out.println("Schedule not uploaded. Fix the lines above and try again.");
+            return;
+        }
+        if (showTimes.isEmpty()) {
+            System.out.println("No showtimes entered.");
+            return;
+        }
+
+        List<ScheduleConflict> conflicts = movieManager.findScheduleConflicts(movie, showTimes);
+        if (!conflicts.isEmpty()) {
+            printConflicts(conflicts);
+            System.out.println("Schedule not uploaded. Fix the conflicts and try again.");
+            return;
+        }
+        if (movieManager.addShowTimes(movie, showTimes)) {
+            System.out.println(showTimes.size() + " showtime(s) added for movie: " + movie.getTitle());
+        } else {
+            System.out.println("The schedule could not be saved. Please try again.");
+        }
+    }
+
+    // Adds a new screen
+    private void addScreen() {
+        System.out.print("Enter screen name: ");
+        String name = scanner.nextLine();
+        System.out.print("Enter cleanup time between shows (in minutes): ");
+        int cleanupMinutes = CinemaHub.getValidatedChoice(scanner);
+        if (cleanupMinutes < 0) {
+            System.out.println("Cleanup time cannot be negative.");
+            return;
+        }
+
+        SeatLayout layout = selectSeatLayout();
+        Screen screen = new Screen(name, cleanupMinutes, layout);
+        movieManager.addScreen(screen);
+        if (screen.getId() != 0) {
+            System.out.println("Screen added: " + screen.getName() + " (ID " + screen.getId() + ")");
+        } else {
+            System.out.println("The screen could not be saved.");
+        }
+    }
+
+    // Lets the admin pick a seat layout template; the default if only it is defined
+    private SeatLayout selectSeatLayout() {
+        List<SeatLayout> layouts = movieManager.getSeatLayouts();
+        if (layouts.size() <= 1) {
+            return layouts.isEmpty() ? SeatLayout.DEFAULT : layouts.get(0);
+        }
+        for (int i = 0; i < layouts.size(); i++) {
+            SeatLayout layout = layouts.get(i);
+            System.out.println((i + 1) + ". " + layout.getName() + " (" + layout.size() + " seats)");
+        }
+        int choice = -1;
+        while (choice < 1 || choice > layouts.size()) {
+            System.out.print("Select a seat layout: ");
+            choice = CinemaHub.getValidatedChoice(scanner);
+            if (choice < 1 || choice > layouts.size()) {
+                System.out.println("Invalid choice. Please select a listed layout.");
+            }
+        }
+        return layouts.get(choice - 1);
+    }
+
+    // Lets the admin pick a screen; returns null if there are none
+    private Screen selectScreen() {
+        List<Screen> screens = movieManager.getScreens();
+        if (screens.isEmpty()) {
+            System.out.println("No screens available. Add a screen first.");
+            return null;
+        }
+        for (int i = 0; i < screens.size(); i++) {
+            System.out.println((i + 1) + ". " + screens.get(i).getName());
+        }
+        int choice = -1;
+        while (choice < 1 || choice > screens.size()) {
+            System.out.print("Select a screen: ");
+            choice = CinemaHub.getValidatedChoice(scanner);
+            if (choice < 1 || choice > screens.size()) {
+                System.out.println("Invalid choice. Please select a listed screen.");
+            }
+        }
+        return screens.get(choice - 1);
+    }
+
+    private void printConflicts(List<ScheduleConflict> conflicts) {
+        for (ScheduleConflict conflict : conflicts) {
+            ShowTime requested = conflict.requested();
+            ShowTime existing = conflict.existing();
+            Screen screen = movieManager.getScreen(requested.getScreenId());
+            Movie other = movieManager.getMovie(existing.getMovieId());
+            String otherTitle = existing.getMovieId() == 0 ? "another entry of this upload"
+                    : other == null ? "another show" : other.getTitle();
+            System.out.println("Conflict: " + requested.getDay() + " " + requested.getTime() + " on "
+                    + (screen == null ? "screen " + requested.getScreenId() : screen.getName())
+                    + " overlaps " + otherTitle + " (" + existing.getDay() + " " + existing.getTime() + ")");
+        }
+    }
+
+    // Reads a showtime day and time until both are valid; returns the minute of the week
+    private int readStartMinute() {
+        while (true) {
+            System.out.print("Enter showtime day (e.g., Mon): ");
+            String day = scanner.nextLine();
+            System.out.print("Enter showtime time (24-hour, e.g., 18:30): ");
+            String time = scanner.nextLine();
+            try {
+                return WeekTime.parse(day, time);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage() + ". Please try again.");
+            }
+        }
+    }
+
     // Validates and returns a double input
     private double validateDoubleInput(String errorMessage) {
         while (true) {
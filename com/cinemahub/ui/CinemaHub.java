@@ -1,5 +1,14 @@
 package com.cinemahub.ui;
 
+import com.cinemahub.dao.JournalingBookingDAO;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.service.MovieManager;
+import com.cinemahub.web.WebServer;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.Scanner;
 
 /**
@@ -13,6 +22,27 @@ public class CinemaHub {
         try (Scanner scanner = new Scanner(System.in)) { // Use try-with-resources to ensure scanner closes
                                                          // automatically
             System.out.println("****** Welcome to CinemaHub! ******");
+
+            // With the booking journal, load the catalog now: that reserves the seats of journaled bookings not yet
+            // in the database, then starts copying them there
+            if (JournalingBookingDAO.isConfigured()) {
+                MovieManager.getMovieManager();
+            }
+
+            // Optional: keep the catalog in sync with other CinemaHub instances
+            long refreshMillis = Long.getLong("cinemahub.catalog.refreshMs", 0);
+            if (refreshMillis > 0) {
+                MovieManager.getMovieManager().startAutoRefresh(refreshMillis);
+            }
+
+            // Optional: write all metrics every few seconds (they are always available over JMX)
+            long dumpMillis = Long.getLong("cinemahub.metrics.dumpMs", 0);
+            if (dumpMillis > 0) {
+                Metrics.getMetrics().startDump(dumpMillis, metricsOutput());
+            }
+
+            // Optional: serve the HTTP/JSON API next to the console
+            WebServer webServer = startWebServer(Integer.getInteger("cinemahub.http.port", 0));
             boolean running = true;
 
             while (running) {
@@ -30,6 +60,9 @@ public class CinemaHub {
                     case 2 -> userLogin(scanner);
                     case 3 -> {
                         running = false;
+                        if (webServer != null) {
+                            webServer.stop(1);
+                        }
                         System.out.println("Thank you for using CinemaHub!");
                     }
                     default -> System.out.println("Invalid choice. Please try again.");
@@ -38,6 +71,36 @@ public class CinemaHub {
         }
     }
 
+    // Starts the HTTP API on -Dcinemahub.http.port; returns null if no port is set or it cannot start
+    private static WebServer startWebServer(int port) {
+        if (port <= 0) {
+            return null;
+        }
+        try {
+            WebServer webServer = new WebServer(port);
+            webServer.start();
+            System.out.println("HTTP API listening on port " + webServer.getPort());
+            return webServer;
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Could not start the HTTP API on port " + port);
+            return null;
+        }
+    }
+
+    // Metrics go to -Dcinemahub.metrics.dumpFile if set, so they don't interleave with the menus
+    private static PrintStream metricsOutput() {
+        String file = System.getProperty("cinemahub.metrics.dumpFile");
+        if (file != null) {
+            try {
+                return new PrintStream(new FileOutputStream(file, true), true);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+        return System.err;
+    }
+
     // Handles Admin login
     private static void adminLogin(Scanner scanner) {
         System.out.print("\nEnter admin username: ");
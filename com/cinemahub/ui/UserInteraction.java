@@ -1,14 +1,23 @@
 package com.cinemahub.ui;
 
+import com.cinemahub.model.Money;
 import com.cinemahub.model.Movie;
+import com.cinemahub.model.PriceTable;
 import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatHold;
 import com.cinemahub.model.ShowTime;
 import com.cinemahub.model.User;
-import com.cinemahub.service.BookingManager;
+import com.cinemahub.model.WeekTime;
+import com.cinemahub.service.BookingResult;
+import com.cinemahub.service.BookingService;
 import com.cinemahub.service.MovieManager;
+import com.cinemahub.service.PricingEngine;
 
+import java.time.DayOfWeek;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Manages user operations such as viewing movies, searching, and booking
@@ -17,7 +26,11 @@ import java.util.Scanner;
  * @author Wasana Karunanayaka
  */
 public class UserInteraction {
+    private static final int MAX_SUGGESTIONS = 5; // Closest titles offered when there is no exact match
+
     private final Scanner scanner;
+    private final PricingEngine pricingEngine = PricingEngine.getPricingEngine();
+    private final BookingService bookingService = BookingService.getBookingService();
 
     // Constructor to initialize Scanner
     public UserInteraction(Scanner scanner) {
@@ -33,8 +46,9 @@ public class UserInteraction {
             System.out.println("1. View Movies");
             System.out.println("2. Search Movies");
             System.out.println("3. View Timetable");
-            System.out.println("4. Book Tickets");
-            System.out.println("5. Logout");
+            System.out.println("4. Find Showtimes by Day and Time");
+            System.out.println("5. Book Tickets");
+            System.out.println("6. Logout");
             System.out.print("Select an option: ");
 
             int choice = CinemaHub.getValidatedChoice(scanner);
@@ -43,8 +57,9 @@ public class UserInteraction {
                 case 1 -> MovieManager.getMovieManager().displayMovies();
                 case 2 -> searchAndDisplayMovies();
                 case 3 -> MovieManager.getMovieManager().displayTimeTable();
-                case 4 -> getBookingDetails();
-                case 5 -> {
+                case 4 -> findShowTimes();
+                case 5 -> getBookingDetails();
+                case 6 -> {
                     userRunning = false;
                     System.out.println("Logging out. Thank you for using CinemaHub!");
                 }
@@ -55,8 +70,6 @@ public class UserInteraction {
 
     // Get booking details from the user
     private void getBookingDetails() {
-        BookingManager bookingManager = new BookingManager();
-
         // Collect user details
         System.out.print("Enter your name: ");
         String userName = scanner.nextLine();
@@ -75,12 +88,14 @@ public class UserInteraction {
         // Find the movie
         Movie selectedMovie = MovieManager.getMovieManager().searchMovie(title);
         if (selectedMovie == null) {
-            System.out.println("No movies found with title: " + title);
-            return;
+            selectedMovie = chooseSuggestedMovie(title);
+            if (selectedMovie == null) {
+                return;
+            }
         }
 
         // Show available showtimes
-        System.out.println("Available showtimes for " + title + ":");
+        System.out.println("Available showtimes for " + selectedMovie.getTitle() + ":");
         List<ShowTime> showTimes = selectedMovie.getShowTimes();
         for (int i = 0; i < showTimes.size(); i++) {
             System.out.println((i + 1) + ". " + showTimes.get(i).getShowTimeInfo());
@@ -106,13 +121,53 @@ public class UserInteraction {
         }
 
         // Seat selection with input validation
-        String seatType = selectSeatType();
+        String seatType = selectSeatType(selectedShowTime);
 
         System.out.print("Enter the number of seats: ");
         int seatCount = CinemaHub.getValidatedChoice(scanner);
 
+        // Hold the seats while the user confirms
+        SeatHold hold = bookingService.hold(selectedShowTime, Seat.SeatType.valueOf(seatType), seatCount);
+        if (hold == null) {
+            System.out.println("Not enough seats available.");
+            return;
+        }
+        long minutesLeft = Math.max(1, (hold.getExpiresAt() - System.currentTimeMillis()) / 60_000);
+        System.out.println(seatCount + " " + seatType + " seat(s) held for you for " + minutesLeft + " minute(s).");
+        int promoId = readPromoCode(hold);
+        System.out.println("Total: Rs." + Money.format(bookingService.quote(hold, promoId)));
+        System.out.print("Confirm booking? (y/n): ");
+        String answer = scanner.nextLine();
+
         // Process the booking
-        bookingManager.processBooking(selectedMovie, selectedShowTime, user, seatType, seatCount);
+        if (answer.trim().equalsIgnoreCase("y")) {
+            completeBooking(selectedMovie, hold, user, promoId);
+        } else {
+            bookingService.release(hold);
+            System.out.println("Booking cancelled. Your seats have been released.");
+        }
+    }
+
+    // Book the held seats and report the outcome
+    private void completeBooking(Movie movie, SeatHold hold, User user, int promoId) {
+        BookingResult result;
+        try {
+            result = bookingService.complete(movie, hold, user, promoId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                System.out.println("The system is busy and your seats have been released. Please try again.");
+            } else {
+                e.printStackTrace();
+                System.out.println("Sorry, the booking could not be completed. Please try again.");
+            }
+            return;
+        }
+        switch (result) {
+            case BookingResult.Success success -> System.out.println(
+                    "\nBooking successful! Here are your details:\n" + success.booking().generateBookingSummary());
+            case BookingResult.SoldOut soldOut -> System.out.println("Not enough seats available.");
+            case BookingResult.Conflict conflict -> System.out.println(conflict.reason());
+        }
     }
 
     // Search for a movie by title and display details
@@ -122,26 +177,107 @@ public class UserInteraction {
 
         Movie movie = MovieManager.getMovieManager().searchMovie(title);
         if (movie != null) {
-            System.out.println(movie.getMovieDetails());
-            System.out.println("Show Times:");
-            for (ShowTime showTime : movie.getShowTimes()) {
-                System.out.println(" - " + showTime.getShowTimeInfo());
-            }
-        } else {
+            displayMovieWithShowTimes(movie);
+            return;
+        }
+
+        // No exact title: show the closest matches instead
+        List<Movie> matches = MovieManager.getMovieManager().searchMovies(title, MAX_SUGGESTIONS);
+        if (matches.isEmpty()) {
             System.out.println("No movies found with the title: " + title);
+            return;
+        }
+        System.out.println("No exact match for \"" + title + "\". Closest matches:");
+        for (Movie match : matches) {
+            displayMovieWithShowTimes(match);
+        }
+    }
+
+    // List the showtimes starting between two times on one day
+    private void findShowTimes() {
+        try {
+            System.out.print("Enter day (e.g., Fri): ");
+            DayOfWeek day = WeekTime.parseDay(scanner.nextLine());
+            System.out.print("Starting from (24-hour, e.g., 18:00): ");
+            int from = WeekTime.parseTime(scanner.nextLine());
+            System.out.print("Starting before (24-hour, e.g., 21:00): ");
+            int to = WeekTime.parseTime(scanner.nextLine());
+            if (to <= from) {
+                System.out.println("The end time must be after the start time.");
+                return;
+            }
+
+            MovieManager movieManager = MovieManager.getMovieManager();
+            List<ShowTime> showTimes = movieManager.findShowTimes(WeekTime.of(day, from), WeekTime.of(day, to));
+            if (showTimes.isEmpty()) {
+                System.out.println("No showtimes in that window.");
+                return;
+            }
+            for (ShowTime showTime : showTimes) {
+                Movie movie = movieManager.getMovie(showTime.getMovieId());
+                String title = movie == null ? "Unknown movie" : movie.getTitle();
+                System.out.println(title + " - " + showTime.getShowTimeInfo());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
         }
     }
 
-    // Seat selection with input validation
-    private String selectSeatType() {
+    private void displayMovieWithShowTimes(Movie movie) {
+        System.out.println(movie.getMovieDetails());
+        System.out.println("Show Times:");
+        for (ShowTime showTime : movie.getShowTimes()) {
+            System.out.println(" - " + showTime.getShowTimeInfo());
+        }
+    }
+
+    // Offer the closest titles to a mistyped one and let the user pick
+    private Movie chooseSuggestedMovie(String title) {
+        List<Movie> matches = MovieManager.getMovieManager().searchMovies(title, MAX_SUGGESTIONS);
+        if (matches.isEmpty()) {
+            System.out.println("No movies found with title: " + title);
+            return null;
+        }
+
+        System.out.println("No exact match for \"" + title + "\". Did you mean:");
+        for (int i = 0; i < matches.size(); i++) {
+            System.out.println((i + 1) + ". " + matches.get(i).getTitle());
+        }
+        int choice = -1;
+        while (choice < 0 || choice > matches.size()) {
+            System.out.print("Select a movie (0 to cancel): ");
+            choice = CinemaHub.getValidatedChoice(scanner);
+            if (choice < 0 || choice > matches.size()) {
+                System.out.println("Invalid choice. Please select a listed movie.");
+            }
+        }
+        return choice == 0 ? null : matches.get(choice - 1);
+    }
+
+    // Asks for an optional promo code until it is blank or valid
+    private int readPromoCode(SeatHold hold) {
+        while (true) {
+            System.out.print("Promo code (press Enter for none): ");
+            int promoId = pricingEngine.promoId(hold, scanner.nextLine());
+            if (promoId != PricingEngine.UNKNOWN_PROMO) {
+                return promoId;
+            }
+            System.out.println("Unknown promo code. Please try again.");
+        }
+    }
+
+    // Seat selection with input validation; prices are the showtime's current prices
+    private String selectSeatType(ShowTime showTime) {
+        PriceTable prices = pricingEngine.tableFor(showTime);
+        int level = prices.surgeLevel(showTime.getSeatMap());
         int seatChoice = -1;
         String seatType = "";
 
         while (seatChoice < 1 || seatChoice > 3) {
             System.out.println("\nSelect seat type:");
-            System.out.println("1. STANDARD (Rs.500)");
-            System.out.println("2. PREMIUM (Rs.750)");
-            System.out.println("3. VIP (Rs.1000)");
+            System.out.println("1. STANDARD" + priceLabel(prices, level, Seat.SeatType.STANDARD));
+            System.out.println("2. PREMIUM" + priceLabel(prices, level, Seat.SeatType.PREMIUM));
+            System.out.println("3. VIP" + priceLabel(prices, level, Seat.SeatType.VIP));
             System.out.print("Enter your choice (1, 2, 3): ");
             seatChoice = CinemaHub.getValidatedChoice(scanner);
 
@@ -156,14 +292,18 @@ public class UserInteraction {
         return seatType;
     }
 
+    // e.g. " (Rs.500.00)", or " (from Rs.500.00)" when rows of a type are priced differently
+    private String priceLabel(PriceTable prices, int level, Seat.SeatType seatType) {
+        long lowest = prices.lowestPrice(seatType, level, PricingEngine.NO_PROMO);
+        if (lowest < 0) {
+            return " (not available)";
+        }
+        boolean varies = prices.highestPrice(seatType, level, PricingEngine.NO_PROMO) != lowest;
+        return (varies ? " (from Rs." : " (Rs.") + Money.format(lowest) + ")";
+    }
+
     // Count available seats for a specific seat type and showtime
     private int countAvailableSeats(ShowTime showTime, Seat.SeatType seatType) {
-        int availableSeats = 0;
-        for (Seat seat : showTime.getSeats()) {
-            if (seat.getSeatType().toString() == seatType.toString() && seat.isAvailable()) {
-                availableSeats++;
-            }
-        }
-        return availableSeats;
+        return showTime.getSeatMap().getAvailableCount(seatType);
     }
 }
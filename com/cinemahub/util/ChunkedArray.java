@@ -0,0 +1,92 @@
+package com.cinemahub.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A growable array stored in fixed-size chunks, so that {@link #copy()} only
+ * copies the table of chunk references (one per 1024 elements) and shares the
+ * chunks themselves. Setting an element copies its chunk first if the chunk is
+ * shared, so a copy that changes k elements costs O(n / 1024 + k * 1024) at
+ * most, instead of O(n).
+ * <p>
+ * Chunks record the array that created them and only that array changes them
+ * in place. An array must therefore not change after it was copied, and it is
+ * not thread-safe while it changes; reads of an array that no longer changes
+ * may run concurrently.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class ChunkedArray<E> {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Chunk[] chunks = new Chunk[0]; // Always this array's own; copies clone it
+    private int size;
+
+    private static final class Chunk {
+        private final Object owner; // The only array that may change it
+        private final Object[] elements;
+
+        Chunk(Object owner, Object[] elements) {
+            this.owner = owner;
+            this.elements = elements;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an array with the same elements that shares this array's chunks.
+     * This array must not change afterwards.
+     */
+    public ChunkedArray<E> copy() {
+        ChunkedArray<E> copy = new ChunkedArray<>();
+        copy.chunks = chunks.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    public void clear() {
+        chunks = new Chunk[0];
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) chunks[index >>> CHUNK_BITS].elements[index & CHUNK_MASK];
+    }
+
+    public void set(int index, E element) {
+        Objects.checkIndex(index, size);
+        writableChunk(index >>> CHUNK_BITS).elements[index & CHUNK_MASK] = element;
+    }
+
+    /**
+     * Appends an element at index {@link #size()}.
+     */
+    public void add(E element) {
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length * 2));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Chunk(this, new Object[CHUNK_SIZE]);
+        }
+        size++;
+        set(size - 1, element);
+    }
+
+    private Chunk writableChunk(int chunk) {
+        Chunk current = chunks[chunk];
+        if (current.owner != this) {
+            current = new Chunk(this, current.elements.clone());
+            chunks[chunk] = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,451 @@
+package com.cinemahub.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded, thread-safe JDBC connection pool with validation, idle eviction
+ * and a per-connection prepared-statement cache.
+ * <p>
+ * Callers borrow a connection with {@link #borrow()} and hand it back by
+ * calling {@link Connection#close()} on it, so existing try-with-resources
+ * blocks work unchanged. Statements prepared through a pooled connection are
+ * cached per physical connection and reused by later borrowers.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validateAfterMillis; // Connections idle longer than this are validated on borrow
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    // Constructor
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+            long borrowTimeoutMillis, long idleTimeoutMillis, long validateAfterMillis,
+            int validationTimeoutSeconds, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validateAfterMillis = validateAfterMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cinemahub-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured timeout when every
+     * connection is in use.
+     *
+     * @return A logical connection; closing it returns it to the pool.
+     * @throws SQLException If the pool is closed, exhausted, or the database is
+     *                      unreachable.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a pooled connection (max " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (pooled.isUsable()) {
+                    return pooled.lease();
+                }
+                discard(pooled);
+            }
+            return createPhysical().lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of physical connections currently open.
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Returns the number of physical connections sitting idle in the pool.
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Closes every idle connection and stops the evictor. Connections still on
+     * loan are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private PooledConnection createPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    /**
+     * Called by a logical connection when its borrower closes it.
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || !pooled.resetForReuse()) {
+                discard(pooled);
+            } else {
+                idle.offerFirst(pooled); // LIFO keeps the hottest connections in use
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle for too long while keeping at least
+     * the minimum pool size open, then tops the pool back up to the minimum.
+     */
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator(); // Oldest first
+        while (it.hasNext() && totalConnections.get() > minSize) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                idle.offerLast(createPhysical());
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return; // Try again on the next run
+            }
+        }
+    }
+
+    /**
+     * A physical connection together with its prepared-statement cache.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final Map<StatementKey, CachedStatement> statementCache;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        eldest.getValue().evict();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        boolean isUsable() {
+            if (System.currentTimeMillis() - lastUsed < validateAfterMillis) {
+                return true;
+            }
+            try {
+                return physical.isValid(validationTimeoutSeconds);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        Connection lease() {
+            broken = false;
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new LogicalConnection(this));
+        }
+
+        /**
+         * Rolls back anything the borrower left open and restores the defaults.
+         *
+         * @return False if the connection should not be reused.
+         */
+        boolean resetForReuse() {
+            lastUsed = System.currentTimeMillis();
+            if (broken) {
+                return false;
+            }
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+                return !physical.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        PreparedStatement prepare(Connection logical, String sql, int autoGeneratedKeys) throws SQLException {
+            if (statementCacheSize <= 0) {
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+            CachedStatement cached = statementCache.get(key);
+            if (cached == null) {
+                cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+                statementCache.put(key, cached);
+            } else if (cached.inUse) {
+                // Same SQL prepared twice on one connection at once; hand out a private copy
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            return cached.checkout(this, logical);
+        }
+
+        void closePhysical() {
+            for (CachedStatement cached : statementCache.values()) {
+                cached.closePhysical();
+            }
+            statementCache.clear();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Connection is being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind each borrowed connection. Closing it returns the
+     * physical connection to the pool; any later use fails.
+     */
+    private final class LogicalConnection implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LogicalConnection(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!returned) {
+                    returned = true;
+                    release(pooled);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned || pooled.physical.isClosed();
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString")) {
+                return "Pooled[" + pooled.physical + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            if (name.equals("prepareStatement") && args.length == 1) {
+                return pooled.prepare((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+            }
+            if (name.equals("prepareStatement") && args.length == 2 && args[1] instanceof Integer keys) {
+                return pooled.prepare((Connection) proxy, (String) args[0], keys);
+            }
+            return delegate(pooled, pooled.physical, method, args);
+        }
+    }
+
+    /**
+     * A cached physical statement, handed out to one borrower at a time.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+        private boolean evicted; // Dropped from the cache while in use; closed when its borrower is done
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        // Closes the statement now, or when it is returned if a borrower still has it open
+        void evict() {
+            if (inUse) {
+                evicted = true;
+            } else {
+                closePhysical();
+            }
+        }
+
+        PreparedStatement checkout(PooledConnection pooled, Connection logical) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new StatementLease(this, pooled, logical));
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Statement is being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind a checked-out cached statement. Closing it only
+     * clears the parameters so the next borrower can reuse the statement.
+     */
+    private static final class StatementLease implements InvocationHandler {
+        private final CachedStatement cached;
+        private final PooledConnection pooled;
+        private final Connection logical;
+        private boolean closed;
+
+        StatementLease(CachedStatement cached, PooledConnection pooled, Connection logical) {
+            this.cached = cached;
+            this.pooled = pooled;
+            this.logical = logical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!closed) {
+                    closed = true;
+                    cached.inUse = false;
+                    if (cached.evicted) {
+                        cached.closePhysical();
+                    } else {
+                        cached.physical.clearParameters();
+                        cached.physical.clearBatch();
+                    }
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return closed;
+            }
+            if (name.equals("getConnection")) {
+                return logical;
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            return delegate(pooled, cached.physical, method, args);
+        }
+    }
+
+    /**
+     * Invokes the method on the physical object, unwrapping reflection failures
+     * and flagging the connection as broken on connection-level errors.
+     */
+    private static Object delegate(PooledConnection pooled, Object target, Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException && isFatal(sqlException)) {
+                pooled.broken = true;
+            }
+            throw cause;
+        }
+    }
+
+    private record StatementKey(String sql, int autoGeneratedKeys) {
+    }
+
+    /**
+     * SQLState class 08 signals a connection failure; such connections must not
+     * go back into the pool.
+     */
+    private static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
@@ -1,36 +1,113 @@
 package com.cinemahub.util;
 
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * Manages the database connection logic.
- * 
+ * <p>
+ * Connections are handed out from a shared {@link ConnectionPool}. Callers must
+ * close every connection they obtain (ideally with try-with-resources), which
+ * returns it to the pool rather than closing the underlying session.
+ * Pool settings can be overridden with {@code cinemahub.pool.*} system
+ * properties, and the database with {@code cinemahub.db.url}, {@code .user}
+ * and {@code .password}.
+ *
  * @author Wasana Karunanayaka
  */
 public class DatabaseHelper {
-    private static final String URL = "jdbc:mysql://localhost:3306/cinemahub";
-    private static final String USER = "root";
-    private static final String PASSWORD = "password"; // Leave empty or change as per environment
+    // rewriteBatchedStatements lets the driver send JDBC batches as multi-row inserts
+    private static final String URL = System.getProperty("cinemahub.db.url",
+            "jdbc:mysql://localhost:3306/cinemahub?rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("cinemahub.db.user", "root");
+    // Leave empty or change as per environment
+    private static final String PASSWORD = System.getProperty("cinemahub.db.password", "password");
+
+    // Pool configuration
+    private static final int MIN_POOL_SIZE = Integer.getInteger("cinemahub.pool.min", 2);
+    private static final int MAX_POOL_SIZE = Integer.getInteger("cinemahub.pool.max", 16);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("cinemahub.pool.borrowTimeoutMs", 5_000);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("cinemahub.pool.idleTimeoutMs", 300_000);
+    private static final long VALIDATE_AFTER_MS = Long.getLong("cinemahub.pool.validateAfterMs", 30_000);
+    private static final int VALIDATION_TIMEOUT_S = Integer.getInteger("cinemahub.pool.validationTimeoutSec", 2);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("cinemahub.pool.statementCacheSize", 64);
+
+    private static volatile ConnectionPool pool;
 
-    private static Connection connection;
+    // Time spent waiting for a connection, including opening a new one
+    private static final LatencyHistogram BORROW = Metrics.getMetrics().latency("pool.borrow");
+    private static final Counter BORROW_FAILURES = Metrics.getMetrics().counter("pool.borrowFailures");
+    private static final SqlTracer TRACER = SqlTracer.getSqlTracer();
+
+    static {
+        Metrics.getMetrics().gauge("pool.connections.open", () -> {
+            ConnectionPool current = pool;
+            return current == null ? 0 : current.getTotalConnections();
+        });
+        Metrics.getMetrics().gauge("pool.connections.idle", () -> {
+            ConnectionPool current = pool;
+            return current == null ? 0 : current.getIdleConnections();
+        });
+    }
 
     private DatabaseHelper() {
         // Private constructor to prevent instantiation
     }
 
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     * While SQL tracing is on, its statements are timed by the {@link SqlTracer}.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                // Load MySQL JDBC Driver (Optional for newer generic JDBC, but good practice
-                // for legacy apps)
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("MySQL JDBC Driver not found", e);
+        long start = System.nanoTime();
+        try {
+            Connection conn = getPool().borrow();
+            return TRACER.isEnabled() ? TRACER.wrap(conn) : conn;
+        } catch (SQLException e) {
+            BORROW_FAILURES.increment();
+            throw e;
+        } finally {
+            BORROW.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns the shared pool, creating it on first use.
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseHelper.class) {
+                current = pool;
+                if (current == null) {
+                    try {
+                        // Load MySQL JDBC Driver (Optional for newer generic JDBC, but good practice
+                        // for legacy apps)
+                        Class.forName("com.mysql.cj.jdbc.Driver");
+                    } catch (ClassNotFoundException e) {
+                        throw new SQLException("MySQL JDBC Driver not found", e);
+                    }
+                    current = new ConnectionPool(URL, USER, PASSWORD, MIN_POOL_SIZE, MAX_POOL_SIZE,
+                            BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, VALIDATE_AFTER_MS, VALIDATION_TIMEOUT_S,
+                            STATEMENT_CACHE_SIZE);
+                    pool = current;
+                }
             }
         }
-        return connection;
+        return current;
+    }
+
+    /**
+     * Closes the pool and all idle connections.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 }
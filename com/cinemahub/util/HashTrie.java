@@ -0,0 +1,287 @@
+package com.cinemahub.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map stored as a hash array mapped trie, so that {@link #copy()} is
+ * O(1): the copy shares every node, and a change to either side copies only
+ * the nodes on the changed key's path, at most seven arrays of up to 32
+ * entries.
+ * <p>
+ * Each trie level consumes five bits of the key's hash. A node keeps a bitmap
+ * of the positions in use and a packed array of (key, value) pairs, where a
+ * null key marks a pair whose value is the child node for that position. Keys
+ * whose whole hash collides share a collision node. Keys are compared with
+ * {@code equals}, so classes that do not override it are keyed by identity,
+ * as in an IdentityHashMap.
+ * <p>
+ * Nodes record the map that created them and only that map changes them in
+ * place; other maps copy a node before changing it. A map must therefore not
+ * change after it was copied, and it is not thread-safe while it changes.
+ * Null keys are not supported.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class HashTrie<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private Node root; // Null when empty
+    private int size;
+    private boolean sizeChanged; // Set by put if it added a key
+
+    // A bitmap node, or a collision node holding keys that share one hash
+    private static final class Node {
+        private final Object owner; // The only map that may change it
+        private final boolean collision; // All keys have the same hash; array holds plain pairs
+        private final int hash; // For collision nodes
+        private int bitmap;
+        private Object[] array;
+
+        Node(Object owner, boolean collision, int hash, int bitmap, Object[] array) {
+            this.owner = owner;
+            this.collision = collision;
+            this.hash = hash;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a map with the same entries that shares this map's nodes. This
+     * map must not change afterwards.
+     */
+    public HashTrie<K, V> copy() {
+        HashTrie<K, V> copy = new HashTrie<>();
+        copy.root = root;
+        copy.size = size;
+        return copy;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int hash = hash(key);
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            Object[] array = node.array;
+            if (node.collision) {
+                if (node.hash != hash) {
+                    return null;
+                }
+                for (int i = 0; i < array.length; i += 2) {
+                    if (key.equals(array[i])) {
+                        return (V) array[i + 1];
+                    }
+                }
+                return null;
+            }
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * Integer.bitCount(node.bitmap & (bit - 1));
+            Object k = array[i];
+            if (k != null) {
+                return k == key || key.equals(k) ? (V) array[i + 1] : null;
+            }
+            node = (Node) array[i + 1];
+            shift += BITS;
+        }
+        return null;
+    }
+
+    /**
+     * Maps a key to a value, replacing any value it had.
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        sizeChanged = false;
+        root = root == null ? pair(hash(key), key, value) : put(root, 0, hash(key), key, value);
+        if (sizeChanged) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @return The value it had, or null if it was not in the map.
+     */
+    public V remove(K key) {
+        V old = get(key);
+        if (old != null) {
+            root = remove(root, 0, hash(key), key);
+            size--;
+        }
+        return old;
+    }
+
+    private Node put(Node node, int shift, int hash, K key, V value) {
+        if (node.collision) {
+            if (node.hash != hash) {
+                // Split: hang the collision node and the new pair under a new bitmap node
+                Node parent = new Node(this, false, 0, 1 << ((node.hash >>> shift) & MASK),
+                        new Object[] { null, node });
+                return put(parent, shift, hash, key, value);
+            }
+            Object[] array = node.array;
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    if (array[i + 1] == value) {
+                        return node;
+                    }
+                    Node writable = writable(node);
+                    writable.array[i + 1] = value;
+                    return writable;
+                }
+            }
+            sizeChanged = true;
+            Object[] grown = Arrays.copyOf(array, array.length + 2);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            return replaceArray(node, node.bitmap, grown);
+        }
+
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int i = 2 * Integer.bitCount(node.bitmap & (bit - 1));
+        Object[] array = node.array;
+        if ((node.bitmap & bit) == 0) {
+            sizeChanged = true;
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, i);
+            grown[i] = key;
+            grown[i + 1] = value;
+            System.arraycopy(array, i, grown, i + 2, array.length - i);
+            return replaceArray(node, node.bitmap | bit, grown);
+        }
+        Object k = array[i];
+        Object v = array[i + 1];
+        if (k == null) {
+            Node child = put((Node) v, shift + BITS, hash, key, value);
+            if (child == v) {
+                return node;
+            }
+            Node writable = writable(node);
+            writable.array[i + 1] = child;
+            return writable;
+        }
+        if (k == key || key.equals(k)) {
+            if (v == value) {
+                return node;
+            }
+            Node writable = writable(node);
+            writable.array[i + 1] = value;
+            return writable;
+        }
+        // Another key in this position: push both one level down
+        sizeChanged = true;
+        Node child = twoPairs(shift + BITS, k, v, hash, key, value);
+        Node writable = writable(node);
+        writable.array[i] = null;
+        writable.array[i + 1] = child;
+        return writable;
+    }
+
+    // Returns the node without the key, or null if it is left empty; the key must be present
+    private Node remove(Node node, int shift, int hash, K key) {
+        Object[] array = node.array;
+        if (node.collision) {
+            if (array.length == 2) {
+                return null;
+            }
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return replaceArray(node, node.bitmap, without(array, i));
+                }
+            }
+            return node;
+        }
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int i = 2 * Integer.bitCount(node.bitmap & (bit - 1));
+        if (array[i] != null) {
+            return array.length == 2 ? null : replaceArray(node, node.bitmap & ~bit, without(array, i));
+        }
+        Node child = remove((Node) array[i + 1], shift + BITS, hash, key);
+        if (child == null) {
+            return array.length == 2 ? null : replaceArray(node, node.bitmap & ~bit, without(array, i));
+        }
+        Node writable = writable(node);
+        if (child.array.length == 2 && (child.collision || child.array[0] != null)) {
+            // A single pair left below: pull it up into this position
+            writable.array[i] = child.array[0];
+            writable.array[i + 1] = child.array[1];
+        } else {
+            writable.array[i + 1] = child;
+        }
+        return writable;
+    }
+
+    private Node twoPairs(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new Node(this, true, hash1, 0, new Object[] { key1, value1, key2, value2 });
+        }
+        int position1 = (hash1 >>> shift) & MASK;
+        int position2 = (hash2 >>> shift) & MASK;
+        if (position1 == position2) {
+            return new Node(this, false, 0, 1 << position1,
+                    new Object[] { null, twoPairs(shift + BITS, key1, value1, hash2, key2, value2) });
+        }
+        Object[] array = position1 < position2
+                ? new Object[] { key1, value1, key2, value2 }
+                : new Object[] { key2, value2, key1, value1 };
+        return new Node(this, false, 0, (1 << position1) | (1 << position2), array);
+    }
+
+    private Node pair(int hash, Object key, Object value) {
+        sizeChanged = true;
+        return new Node(this, false, 0, 1 << (hash & MASK), new Object[] { key, value });
+    }
+
+    private Node writable(Node node) {
+        return node.owner == this ? node : new Node(this, node.collision, node.hash, node.bitmap, node.array.clone());
+    }
+
+    // The node with a new bitmap and array, changed in place if this map owns it
+    private Node replaceArray(Node node, int bitmap, Object[] array) {
+        if (node.owner != this) {
+            return new Node(this, node.collision, node.hash, bitmap, array);
+        }
+        node.bitmap = bitmap;
+        node.array = array;
+        return node;
+    }
+
+    private static Object[] without(Object[] array, int i) {
+        Object[] shrunk = new Object[array.length - 2];
+        System.arraycopy(array, 0, shrunk, 0, i);
+        System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+        return shrunk;
+    }
+
+    // Spreads the hash so keys with small, sequential hashes (e.g. IDs) still fill the top level evenly
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,328 @@
+package com.cinemahub.util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A sorted map stored as an AVL tree whose nodes also count their subtree, so
+ * that {@link #copy()} is O(1) and the values can be read by position. The
+ * copy shares every node; a change to either side copies only the nodes on the
+ * changed key's path and those its rebalancing rotates, O(log n) in all.
+ * <p>
+ * Nodes record the tree that created them and only that tree changes them in
+ * place; other trees copy a node before changing it. A tree must therefore not
+ * change after it was copied, and it is not thread-safe while it changes.
+ * Reads of a tree that no longer changes, including its {@link #values()}
+ * views, may run concurrently. Null keys and values are not supported.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class SortedTree<K extends Comparable<? super K>, V> {
+    private Node<K, V> root;
+
+    private static final class Node<K, V> {
+        private final Object owner; // The only tree that may change it
+        private final K key;
+        private V value;
+        private Node<K, V> left;
+        private Node<K, V> right;
+        private int height;
+        private int size; // Nodes in this subtree
+
+        Node(Object owner, K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.owner = owner;
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            update();
+        }
+
+        void update() {
+            height = Math.max(height(left), height(right)) + 1;
+            size = size(left) + size(right) + 1;
+        }
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns a tree with the same entries that shares this tree's nodes. This
+     * tree must not change afterwards.
+     */
+    public SortedTree<K, V> copy() {
+        SortedTree<K, V> copy = new SortedTree<>();
+        copy.root = root;
+        return copy;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int c = key.compareTo(node.key);
+            if (c == 0) {
+                return node.value;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Maps a key to a value, replacing any value it had.
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        root = put(root, key, value);
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @return The value it had, or null if it was not in the tree.
+     */
+    public V remove(K key) {
+        V old = get(key);
+        if (old != null) {
+            root = remove(root, key);
+        }
+        return old;
+    }
+
+    /**
+     * Returns the number of keys less than {@code key}, i.e. the position the
+     * key has or would have in {@link #values()}.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (key.compareTo(node.key) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the values in key order as an unmodifiable list. Reading by
+     * position costs O(log n); iterating costs O(1) per value.
+     */
+    public java.util.List<V> values() {
+        return new Values<>(root, 0, size(root));
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(this, key, value, null, null);
+        }
+        int c = key.compareTo(node.key);
+        if (c == 0) {
+            if (node.value == value) {
+                return node;
+            }
+            Node<K, V> writable = writable(node);
+            writable.value = value;
+            return writable;
+        }
+        Node<K, V> writable = writable(node);
+        if (c < 0) {
+            writable.left = put(node.left, key, value);
+        } else {
+            writable.right = put(node.right, key, value);
+        }
+        return balance(writable);
+    }
+
+    // The key must be present
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        int c = key.compareTo(node.key);
+        if (c < 0) {
+            Node<K, V> writable = writable(node);
+            writable.left = remove(node.left, key);
+            return balance(writable);
+        }
+        if (c > 0) {
+            Node<K, V> writable = writable(node);
+            writable.right = remove(node.right, key);
+            return balance(writable);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Two children: the successor takes this node's place
+        Node<K, V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        Node<K, V> replacement = new Node<>(this, successor.key, successor.value, node.left,
+                removeFirst(node.right));
+        return balance(replacement);
+    }
+
+    private Node<K, V> removeFirst(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        Node<K, V> writable = writable(node);
+        writable.left = removeFirst(node.left);
+        return balance(writable);
+    }
+
+    // Restores the AVL invariant at a writable node whose subtrees are balanced
+    private Node<K, V> balance(Node<K, V> node) {
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(writable(node.left));
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(writable(node.right));
+            }
+            return rotateLeft(node);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> pivot = writable(node.left);
+        node.left = pivot.right;
+        node.update();
+        pivot.right = node;
+        pivot.update();
+        return pivot;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> pivot = writable(node.right);
+        node.right = pivot.left;
+        node.update();
+        pivot.left = node;
+        pivot.update();
+        return pivot;
+    }
+
+    private Node<K, V> writable(Node<K, V> node) {
+        return node.owner == this ? node : new Node<>(this, node.key, node.value, node.left, node.right);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // The values at positions [from, to) of a subtree
+    private static final class Values<V> extends AbstractList<V> {
+        private final Node<?, V> root;
+        private final int from;
+        private final int to;
+
+        Values(Node<?, V> root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public V get(int index) {
+            java.util.Objects.checkIndex(index, to - from);
+            int position = from + index;
+            Node<?, V> node = root;
+            while (true) {
+                int leftSize = SortedTree.size(node.left);
+                if (position < leftSize) {
+                    node = node.left;
+                } else if (position == leftSize) {
+                    return node.value;
+                } else {
+                    position -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public java.util.List<V> subList(int fromIndex, int toIndex) {
+            java.util.Objects.checkFromToIndex(fromIndex, toIndex, to - from);
+            return new Values<>(root, from + fromIndex, from + toIndex);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<>() {
+                // The path to the next node, leaving out the ancestors already passed on the right
+                private final ArrayDeque<Node<?, V>> path = pathTo(from);
+                private int remaining = to - from;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public V next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    remaining--;
+                    Node<?, V> node = path.pop();
+                    for (Node<?, V> next = node.right; next != null; next = next.left) {
+                        path.push(next);
+                    }
+                    return node.value;
+                }
+            };
+        }
+
+        private ArrayDeque<Node<?, V>> pathTo(int position) {
+            ArrayDeque<Node<?, V>> path = new ArrayDeque<>();
+            Node<?, V> node = root;
+            while (node != null) {
+                int leftSize = SortedTree.size(node.left);
+                if (position < leftSize) {
+                    path.push(node);
+                    node = node.left;
+                } else if (position == leftSize) {
+                    path.push(node);
+                    break;
+                } else {
+                    position -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            return path;
+        }
+    }
+}
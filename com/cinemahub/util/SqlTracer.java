@@ -0,0 +1,450 @@
+package com.cinemahub.util;
+
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A singleton that times every SQL statement run through the connections
+ * {@link DatabaseHelper} hands out.
+ * <p>
+ * Statements are grouped by fingerprint: their SQL with literals replaced by
+ * {@code ?}, whitespace collapsed and repeated value lists folded, so
+ * {@code IN (1, 2, 3)} and a four-row multi-row insert count as the same
+ * statement as their shorter forms. Each fingerprint keeps a call count, an
+ * error count and a latency histogram. Statements slower than the threshold
+ * are written to the slow-query log together with their bind parameters.
+ * <p>
+ * Tracing is off unless {@code -Dcinemahub.sql.trace=true} is set or it is
+ * switched on over JMX ({@code com.cinemahub:type=SqlTracer}). While it is
+ * off connections are not wrapped at all, so the only cost is one volatile
+ * read per borrowed connection. Only statement execution is timed, not
+ * fetching the rows of a result set.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class SqlTracer implements SqlTracerMBean {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int MAX_CACHED_SQL = 10_000; // Distinct SQL strings whose fingerprint is remembered
+    private static final int MAX_BIND_LENGTH = 100; // Longer bound strings are cut short in the log
+
+    // "IN (?, ?, ?)" -> "IN (?...)", and "(?, ?), (?, ?), (?, ?)" -> "(?, ?), ..."
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?:, \\?)*\\)");
+    private static final Pattern REPEATED_TUPLES = Pattern.compile("(\\((?:\\?, )*\\?\\))(?:, \\1)+");
+
+    private static SqlTracer sqlTracer; // Singleton instance
+
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>(); // Raw SQL to fingerprint
+    private final Map<String, StatementStats> statsByFingerprint = new ConcurrentHashMap<>();
+    private final LatencyHistogram allStatements = Metrics.getMetrics().latency("sql.statements");
+    private final Counter slowStatements = Metrics.getMetrics().counter("sql.slow");
+    private final Counter failedStatements = Metrics.getMetrics().counter("sql.errors");
+    private final AtomicLong slowThresholdNanos;
+    private final PrintStream slowLog;
+    private volatile boolean enabled;
+
+    // private constructor
+    private SqlTracer() {
+        enabled = Boolean.getBoolean("cinemahub.sql.trace");
+        slowThresholdNanos = new AtomicLong(Long.getLong("cinemahub.sql.slowMs", 100) * 1_000_000);
+        slowLog = openSlowLog(System.getProperty("cinemahub.sql.slowLog"));
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("com.cinemahub:type=SqlTracer"));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Get the Singleton instance
+    public static synchronized SqlTracer getSqlTracer() {
+        if (sqlTracer == null)
+            sqlTracer = new SqlTracer();
+        return sqlTracer;
+    }
+
+    /**
+     * Returns a connection whose statements are traced. Closing it closes the
+     * underlying connection.
+     */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new TracedConnection(connection));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getSlowThresholdMillis() {
+        return slowThresholdNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public void setSlowThresholdMillis(long millis) {
+        slowThresholdNanos.set(millis * 1_000_000);
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowStatements.getValue();
+    }
+
+    @Override
+    public int getFingerprintCount() {
+        return statsByFingerprint.size();
+    }
+
+    @Override
+    public String report() {
+        List<Map.Entry<String, StatementStats>> entries = new ArrayList<>(statsByFingerprint.entrySet());
+        entries.sort(Comparator.comparingDouble(
+                (Map.Entry<String, StatementStats> entry) -> entry.getValue().totalMillis()).reversed());
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%10s %8s %12s %10s %10s %10s %10s  %s%n", "calls", "errors", "total ms",
+                "mean ms", "p50 ms", "p99 ms", "max ms", "statement"));
+        for (Map.Entry<String, StatementStats> entry : entries) {
+            StatementStats stats = entry.getValue();
+            LatencyHistogram latency = stats.latency;
+            text.append(String.format("%10d %8d %12.1f %10.3f %10.3f %10.3f %10.3f  %s%n", latency.getCount(),
+                    stats.errors.sum(), stats.totalMillis(), latency.getMeanMillis(), latency.getP50Millis(),
+                    latency.getP99Millis(), latency.getMaxMillis(), entry.getKey()));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        statsByFingerprint.clear();
+    }
+
+    /**
+     * Normalizes SQL so that statements differing only in literal values or in
+     * the length of value lists share one fingerprint.
+     */
+    public static String fingerprint(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // String literal, with '' or \' as escaped quotes
+                i++;
+                while (i < length) {
+                    char d = sql.charAt(i);
+                    if (d == '\\') {
+                        i += 2;
+                    } else if (d == '\'' && i + 1 < length && sql.charAt(i + 1) == '\'') {
+                        i += 2;
+                    } else if (d == '\'') {
+                        i++;
+                        break;
+                    } else {
+                        i++;
+                    }
+                }
+                normalized.append('?');
+            } else if (Character.isDigit(c) && !endsWithIdentifier(normalized)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                normalized.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+            } else if (c == ',') {
+                // Always ", " so the list patterns below see one spelling
+                trimTrailingSpace(normalized);
+                normalized.append(", ");
+                i++;
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+            } else if (c == ')') {
+                trimTrailingSpace(normalized);
+                normalized.append(c);
+                i++;
+            } else if (c == '(') {
+                normalized.append(c);
+                i++;
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+            } else {
+                normalized.append(c);
+                i++;
+            }
+        }
+        trimTrailingSpace(normalized);
+        String text = IN_LIST.matcher(normalized).replaceAll("IN (?...)");
+        return REPEATED_TUPLES.matcher(text).replaceAll("$1, ...");
+    }
+
+    private static boolean endsWithIdentifier(StringBuilder text) {
+        if (text.length() == 0) {
+            return false;
+        }
+        char last = text.charAt(text.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '`';
+    }
+
+    private static void trimTrailingSpace(StringBuilder text) {
+        int end = text.length();
+        if (end > 0 && text.charAt(end - 1) == ' ') {
+            text.setLength(end - 1);
+        }
+    }
+
+    private String fingerprintOf(String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = fingerprint(sql);
+            if (fingerprints.size() < MAX_CACHED_SQL) {
+                fingerprints.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    // Records one execution and logs it if it was slow
+    private void record(String sql, String operation, long nanos, boolean failed, Object[] binds, int bindCount,
+            int batchSize) {
+        String fingerprint = fingerprintOf(sql);
+        StatementStats stats = statsByFingerprint.computeIfAbsent(fingerprint, key -> new StatementStats());
+        stats.latency.record(nanos);
+        allStatements.record(nanos);
+        if (failed) {
+            stats.errors.increment();
+            failedStatements.increment();
+        }
+        if (nanos >= slowThresholdNanos.get()) {
+            slowStatements.increment();
+            logSlow(sql, operation, nanos, failed, binds, bindCount, batchSize);
+        }
+    }
+
+    private void logSlow(String sql, String operation, long nanos, boolean failed, Object[] binds, int bindCount,
+            int batchSize) {
+        StringBuilder line = new StringBuilder();
+        line.append(LocalDateTime.now().format(TIMESTAMP)).append(" SLOW ")
+                .append(String.format("%.1f ms", nanos / 1e6)).append(" [").append(operation);
+        if (batchSize > 0) {
+            line.append(", batch of ").append(batchSize);
+        }
+        if (failed) {
+            line.append(", failed");
+        }
+        line.append("] ").append(sql.replaceAll("\\s+", " ").trim());
+        if (bindCount > 0) {
+            line.append(batchSize > 0 ? " | last binds: " : " | binds: ");
+            for (int i = 1; i <= bindCount; i++) {
+                line.append(i == 1 ? "" : ", ").append(formatBind(binds[i]));
+            }
+        }
+        slowLog.println(line);
+    }
+
+    private static String formatBind(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        if (value instanceof CharSequence || value instanceof Date || value instanceof Temporal) {
+            String text = value.toString();
+            if (text.length() > MAX_BIND_LENGTH) {
+                text = text.substring(0, MAX_BIND_LENGTH) + "...";
+            }
+            return "'" + text + "'";
+        }
+        return value.toString();
+    }
+
+    private static PrintStream openSlowLog(String file) {
+        if (file != null) {
+            try {
+                return new PrintStream(new FileOutputStream(file, true), true);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+        return System.err;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class StatementStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        double totalMillis() {
+            return latency.getMeanMillis() * latency.getCount();
+        }
+    }
+
+    /**
+     * Invocation handler behind a traced connection: statements it creates are
+     * traced, everything else goes straight to the real connection.
+     */
+    private final class TracedConnection implements InvocationHandler {
+        private final Connection connection;
+
+        TracedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = SqlTracer.invoke(connection, method, args);
+            if (result instanceof Statement statement
+                    && (name.equals("createStatement") || name.equals("prepareStatement")
+                            || name.equals("prepareCall"))) {
+                String sql = name.equals("createStatement") ? null : (String) args[0];
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                        new Class<?>[] { method.getReturnType() },
+                        new TracedStatement(statement, (Connection) proxy, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Invocation handler behind a traced statement. Bind parameters are kept
+     * so a slow execution can be logged with the values it ran with.
+     */
+    private final class TracedStatement implements InvocationHandler {
+        private final Statement statement;
+        private final Connection connection;
+        private final String preparedSql; // Null for plain statements, which pass SQL to execute
+        private final List<String> batchSql = new ArrayList<>(); // Plain statements' addBatch(sql)
+        private Object[] binds = new Object[8]; // By parameter index, from 1
+        private int bindCount; // Highest parameter index set
+        private int batchSize;
+
+        TracedStatement(Statement statement, Connection connection, String preparedSql) {
+            this.statement = statement;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && method.getParameterTypes()[0] == int.class) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(binds, null);
+                bindCount = 0;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+                if (args != null && args.length == 1) {
+                    batchSql.add((String) args[0]);
+                }
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+                batchSql.clear();
+            } else if (name.equals("getConnection")) {
+                return connection;
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return SqlTracer.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            boolean batch = method.getName().startsWith("executeBatch")
+                    || method.getName().equals("executeLargeBatch");
+            String sql;
+            if (preparedSql != null) {
+                sql = preparedSql;
+            } else if (batch) {
+                sql = batchSql.isEmpty() ? "(empty batch)" : batchSql.get(0);
+            } else {
+                sql = (String) args[0];
+            }
+            int size = batch ? batchSize : 0;
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                Object result = SqlTracer.invoke(statement, method, args);
+                failed = false;
+                return result;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                record(sql, method.getName(), nanos, failed, binds, bindCount, size);
+                if (batch) {
+                    batchSize = 0; // The driver clears the batch once it has run
+                    batchSql.clear();
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (index >= binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index + 1, binds.length * 2));
+            }
+            binds[index] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+    }
+}
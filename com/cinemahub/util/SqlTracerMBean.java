@@ -0,0 +1,31 @@
+package com.cinemahub.util;
+
+/**
+ * JMX view of the {@link SqlTracer}. Tracing can be switched on and the slow
+ * threshold changed while the application runs.
+ *
+ * @author Wasana Karunanayaka
+ */
+public interface SqlTracerMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getSlowThresholdMillis();
+
+    void setSlowThresholdMillis(long millis);
+
+    long getSlowQueryCount();
+
+    int getFingerprintCount();
+
+    /**
+     * Returns per-fingerprint statistics as text, most total time first.
+     */
+    String report();
+
+    /**
+     * Forgets all statistics gathered so far.
+     */
+    void reset();
+}
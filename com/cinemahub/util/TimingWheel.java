@@ -0,0 +1,187 @@
+package com.cinemahub.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel for large numbers of short, mostly-cancelled timeouts.
+ * <p>
+ * Scheduling and cancelling are O(1) and lock-free. A single daemon thread
+ * advances the wheel one slot per tick and only visits the timeouts hashed
+ * into that slot, so millions of pending timeouts do not each need their own
+ * scheduled task. Timeouts fire on the wheel thread, at most one tick late;
+ * tasks should be short and must not block.
+ *
+ * @author Wasana Karunanayaka
+ */
+public final class TimingWheel implements AutoCloseable {
+
+    /**
+     * Handle to a scheduled task.
+     */
+    public interface Timeout {
+        /**
+         * Cancels the task.
+         *
+         * @return True if the task had not yet run or been cancelled.
+         */
+        boolean cancel();
+    }
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Entry[] wheel; // Head of each slot's list; touched only by the wheel thread
+    private final int mask;
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick; // Wheel thread only
+
+    /**
+     * @param name      Name of the wheel thread.
+     * @param tick      Duration of one slot.
+     * @param unit      Unit of {@code tick}.
+     * @param wheelSize Number of slots; rounded up to a power of two.
+     */
+    public TimingWheel(String name, long tick, TimeUnit unit, int wheelSize) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit((wheelSize - 1) | 1) << 1;
+        this.wheel = new Entry[size];
+        this.mask = wheel.length - 1;
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Entry entry = new Entry(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pendingCount.incrementAndGet();
+        incoming.add(entry);
+        return entry;
+    }
+
+    /**
+     * Returns the number of scheduled tasks that have neither run nor been
+     * cancelled.
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stops the wheel thread. Pending tasks are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue; // Re-check: park can return early
+            }
+            transferIncoming();
+            expireSlot((int) (tick & mask));
+            tick++;
+        }
+    }
+
+    // Hashes newly scheduled entries into their slots
+    private void transferIncoming() {
+        Entry entry;
+        while ((entry = incoming.poll()) != null) {
+            if (entry.state.get() != PENDING) {
+                continue;
+            }
+            long dueTick = Math.max(tick, (entry.deadline - startNanos) / tickNanos);
+            entry.rounds = (dueTick - tick) / wheel.length;
+            int slot = (int) (dueTick & mask);
+            entry.next = wheel[slot];
+            wheel[slot] = entry;
+        }
+    }
+
+    private void expireSlot(int slot) {
+        Entry previous = null;
+        Entry entry = wheel[slot];
+        while (entry != null) {
+            Entry next = entry.next;
+            boolean remove;
+            if (entry.state.get() != PENDING) {
+                remove = true; // Cancelled; drop it lazily
+            } else if (entry.rounds > 0) {
+                entry.rounds--;
+                remove = false;
+            } else {
+                remove = true; // Due in this tick
+                entry.expire();
+            }
+
+            if (remove) {
+                if (previous == null) {
+                    wheel[slot] = next;
+                } else {
+                    previous.next = next;
+                }
+                entry.next = null;
+            } else {
+                previous = entry;
+            }
+            entry = next;
+        }
+    }
+
+    private final class Entry implements Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long rounds; // Full wheel turns left; wheel thread only
+        private Entry next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                pendingCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            pendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.cinemahub.web;
+
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.service.SeatDelta;
+import com.cinemahub.service.SeatFeed;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams one showtime's seat changes to an HTTP client as Server-Sent Events.
+ * The first event, {@code snapshot}, lists every taken seat; each later
+ * {@code seats} event is a {@link SeatDelta}. Both carry the feed sequence as
+ * the event ID and the delta as JSON, e.g.
+ * {@code {"showTimeId":5,"sequence":812,"taken":[41,42],"released":[],"available":{"STANDARD":38,...}}}.
+ * <p>
+ * A client that reads slowly only slows down its own subscription, which the
+ * feed then coalesces.
+ *
+ * @author Wasana Karunanayaka
+ */
+class SeatEventStream implements SeatFeed.Listener {
+    private static final long HEARTBEAT_SECONDS = 15; // Also how soon a silent disconnect is noticed
+
+    private final Writer out;
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private long snapshotSequence; // Changes up to here are already in the snapshot; guarded by this
+
+    SeatEventStream(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Sends the snapshot and then every change until the client disconnects.
+     */
+    void run(SeatFeed seatFeed, ShowTime showTime) {
+        SeatFeed.Subscription subscription;
+        // Holding the lock keeps deliveries waiting until the snapshot has been sent
+        synchronized (this) {
+            subscription = seatFeed.subscribe(showTime.getId(), this);
+            SeatDelta snapshot = seatFeed.snapshot(showTime);
+            snapshotSequence = snapshot.sequence();
+            try {
+                send("snapshot", snapshot);
+            } catch (IOException e) {
+                closed.countDown();
+            }
+        }
+        try {
+            while (!closed.await(HEARTBEAT_SECONDS, TimeUnit.SECONDS)) {
+                heartbeat();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // The server is stopping
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public synchronized void onSeatDelta(SeatDelta delta) {
+        // The feed read these seats before the snapshot did, so the snapshot is newer
+        if (delta.sequence() <= snapshotSequence || closed.getCount() == 0) {
+            return;
+        }
+        try {
+            send("seats", delta);
+        } catch (IOException e) {
+            closed.countDown(); // The client went away
+        }
+    }
+
+    private synchronized void heartbeat() {
+        try {
+            out.write(": keep-alive\n\n");
+            out.flush();
+        } catch (IOException e) {
+            closed.countDown();
+        }
+    }
+
+    private void send(String event, SeatDelta delta) throws IOException {
+        out.write("event: ");
+        out.write(event);
+        out.write("\nid: ");
+        out.write(Long.toString(delta.sequence()));
+        out.write("\ndata: ");
+        JsonWriter json = new JsonWriter(out); // Not closed: that would end the stream
+        json.beginObject().field("showTimeId", delta.showTimeId()).field("sequence", delta.sequence());
+        json.name("taken").beginArray();
+        for (int seatIndex : delta.taken()) {
+            json.value(seatIndex);
+        }
+        json.endArray().name("released").beginArray();
+        for (int seatIndex : delta.released()) {
+            json.value(seatIndex);
+        }
+        json.endArray().name("available").beginObject();
+        for (Seat.SeatType seatType : Seat.SeatType.values()) {
+            json.field(seatType.name(), delta.getAvailable(seatType));
+        }
+        json.endObject().endObject();
+        out.write("\n\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,437 @@
+package com.cinemahub.web;
+
+import com.cinemahub.metrics.Counter;
+import com.cinemahub.metrics.LatencyHistogram;
+import com.cinemahub.metrics.Metrics;
+import com.cinemahub.model.Booking;
+import com.cinemahub.model.Movie;
+import com.cinemahub.model.PriceTable;
+import com.cinemahub.model.Seat;
+import com.cinemahub.model.SeatLayout;
+import com.cinemahub.model.SeatMap;
+import com.cinemahub.model.ShowTime;
+import com.cinemahub.model.User;
+import com.cinemahub.model.WeekTime;
+import com.cinemahub.service.BookingResult;
+import com.cinemahub.service.BookingService;
+import com.cinemahub.service.MovieManager;
+import com.cinemahub.service.PricingEngine;
+import com.cinemahub.service.SeatFeed;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An HTTP/JSON front end to the same catalog and booking services the console
+ * uses, built on the JDK's HTTP server. Every request runs on its own virtual
+ * thread, so a slow booking never holds up catalog reads.
+ * <p>
+ * Endpoints:
+ * <ul>
+ * <li>{@code GET /api/movies} - the catalog with each movie's showtimes</li>
+ * <li>{@code GET /api/movies/search?q=...&limit=10} - ranked, typo-tolerant
+ * title search</li>
+ * <li>{@code GET /api/timetable?day=Fri&from=18:00&to=21:00} - showtimes in
+ * start order; every parameter is optional</li>
+ * <li>{@code GET /api/showtimes/{id}/seats} - free seats and current prices by
+ * seat type</li>
+ * <li>{@code POST /api/bookings} - books the best available seats; a form
+ * ({@code application/x-www-form-urlencoded}) with {@code showTimeId},
+ * {@code seatType}, {@code seats}, {@code name}, {@code nic}, {@code email} and
+ * optionally {@code promoCode}. Answers 201 when booked, 409 when sold out or
+ * in conflict, and 503 when the booking deadline passed.</li>
+ * <li>{@code GET /api/stream/seats?showTimeId=...} - live seat changes as
+ * Server-Sent Events (see {@link SeatEventStream})</li>
+ * </ul>
+ * Responses are streamed with a {@link JsonWriter}. Errors are
+ * {@code {"error": "..."}} with a 4xx or 5xx status.
+ *
+ * @author Wasana Karunanayaka
+ */
+public class WebServer {
+    private static final int BACKLOG = Integer.getInteger("cinemahub.http.backlog", 1024);
+    private static final int DEFAULT_SEARCH_RESULTS = 10;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_FORM_BYTES = 8 * 1024;
+
+    private static final Counter SERVER_ERRORS = Metrics.getMetrics().counter("http.serverErrors");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MovieManager movieManager = MovieManager.getMovieManager();
+    private final BookingService bookingService = BookingService.getBookingService();
+    private final PricingEngine pricingEngine = PricingEngine.getPricingEngine();
+    private final SeatFeed seatFeed = SeatFeed.getSeatFeed();
+
+    /**
+     * Creates a server on a port; 0 picks a free one. Call {@link #start()} to
+     * begin serving.
+     */
+    public WebServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+        route("/api/movies", "GET", this::movies);
+        route("/api/movies/search", "GET", this::search);
+        route("/api/timetable", "GET", this::timetable);
+        route("/api/showtimes/", "GET", this::seats);
+        route("/api/bookings", "POST", this::book);
+        route("/api/stream/seats", "GET", this::seatStream);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to {@code delaySeconds} for those
+     * in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // GET /api/movies
+    private void movies(HttpExchange exchange) throws IOException, HttpError {
+        requireExactPath(exchange, "/api/movies");
+        long version = movieManager.getCatalogVersion();
+        List<Movie> movies = movieManager.getMovies();
+        send(exchange, 200, json -> {
+            json.beginObject().field("catalogVersion", version).name("movies").beginArray();
+            for (Movie movie : movies) {
+                writeMovie(json, movie);
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    // GET /api/movies/search?q=...&limit=10
+    private void search(HttpExchange exchange) throws IOException, HttpError {
+        requireExactPath(exchange, "/api/movies/search");
+        Map<String, String> query = parseForm(exchange.getRequestURI().getRawQuery());
+        String text = required(query, "q");
+        int limit = intParam(query, "limit", DEFAULT_SEARCH_RESULTS);
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new HttpError(400, "limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        List<Movie> movies = movieManager.searchMovies(text, limit);
+        send(exchange, 200, json -> {
+            json.beginObject().field("query", text).name("movies").beginArray();
+            for (Movie movie : movies) {
+                writeMovie(json, movie);
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    // GET /api/timetable?day=Fri&from=18:00&to=21:00; without a day, the whole week
+    private void timetable(HttpExchange exchange) throws IOException, HttpError {
+        requireExactPath(exchange, "/api/timetable");
+        Map<String, String> query = parseForm(exchange.getRequestURI().getRawQuery());
+        int fromMinute = 0;
+        int toMinute = WeekTime.MINUTES_PER_WEEK;
+        if (query.containsKey("day")) {
+            try {
+                DayOfWeek day = WeekTime.parseDay(query.get("day"));
+                int from = query.containsKey("from") ? WeekTime.parseTime(query.get("from")) : 0;
+                int to = query.containsKey("to") ? WeekTime.parseTime(query.get("to")) : WeekTime.MINUTES_PER_DAY;
+                if (to <= from) {
+                    throw new HttpError(400, "to must be after from");
+                }
+                fromMinute = WeekTime.of(day, from);
+                toMinute = fromMinute + (to - from);
+            } catch (IllegalArgumentException e) {
+                throw new HttpError(400, e.getMessage());
+            }
+        } else if (query.containsKey("from") || query.containsKey("to")) {
+            throw new HttpError(400, "from and to need a day");
+        }
+        List<ShowTime> showTimes = movieManager.findShowTimes(fromMinute, toMinute);
+        send(exchange, 200, json -> {
+            json.beginObject().name("showTimes").beginArray();
+            for (ShowTime showTime : showTimes) {
+                Movie movie = movieManager.getMovie(showTime.getMovieId());
+                json.beginObject();
+                writeShowTimeFields(json, showTime);
+                json.field("movieId", showTime.getMovieId()).field("title", movie == null ? null : movie.getTitle());
+                json.endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    // GET /api/showtimes/{id}/seats
+    private void seats(HttpExchange exchange) throws IOException, HttpError {
+        String path = exchange.getRequestURI().getPath();
+        String prefix = "/api/showtimes/";
+        String suffix = "/seats";
+        if (!path.endsWith(suffix) || path.length() <= prefix.length() + suffix.length()) {
+            throw new HttpError(404, "Not found");
+        }
+        ShowTime showTime = findShowTime(path.substring(prefix.length(), path.length() - suffix.length()));
+        SeatMap seatMap = showTime.getSeatMap();
+        SeatLayout layout = seatMap.getLayout();
+        PriceTable prices = pricingEngine.tableFor(showTime);
+        int level = prices.surgeLevel(seatMap);
+        send(exchange, 200, json -> {
+            json.beginObject();
+            writeShowTimeFields(json, showTime);
+            json.field("movieId", showTime.getMovieId()).field("surgeLevel", level).name("seatTypes").beginArray();
+            for (Seat.SeatType seatType : Seat.SeatType.values()) {
+                int total = layout.getSeatCount(seatType);
+                if (total == 0) {
+                    continue;
+                }
+                json.beginObject().field("seatType", seatType.name())
+                        .field("available", seatMap.getAvailableCount(seatType)).field("total", total)
+                        .moneyField("priceFrom", prices.lowestPrice(seatType, level, PricingEngine.NO_PROMO))
+                        .moneyField("priceTo", prices.highestPrice(seatType, level, PricingEngine.NO_PROMO))
+                        .endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    // POST /api/bookings
+    private void book(HttpExchange exchange) throws IOException, HttpError {
+        requireExactPath(exchange, "/api/bookings");
+        Map<String, String> form = readForm(exchange);
+        ShowTime showTime = findShowTime(required(form, "showTimeId"));
+        Movie movie = movieManager.getMovie(showTime.getMovieId());
+        if (movie == null) {
+            throw new HttpError(404, "Showtime not found");
+        }
+        Seat.SeatType seatType;
+        try {
+            seatType = Seat.SeatType.valueOf(required(form, "seatType").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, "seatType must be one of STANDARD, PREMIUM, VIP");
+        }
+        int seatCount = intParam(form, "seats", 0);
+        if (seatCount < 1) {
+            throw new HttpError(400, "seats must be at least 1");
+        }
+        User user = new User(required(form, "name"), required(form, "nic"), required(form, "email"));
+        int promoId = pricingEngine.promoId(form.get("promoCode"));
+        if (promoId == PricingEngine.UNKNOWN_PROMO) {
+            throw new HttpError(400, "Unknown promo code");
+        }
+
+        BookingResult result;
+        try {
+            result = bookingService.book(movie, showTime, user, seatType, seatCount, promoId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new HttpError(503, "The system is busy. Please try again.");
+            }
+            throw e;
+        }
+        switch (result) {
+            case BookingResult.Success success -> send(exchange, 201, json -> writeBooking(json, success.booking()));
+            case BookingResult.SoldOut soldOut -> send(exchange, 409, json -> json.beginObject()
+                    .field("status", "SOLD_OUT").field("seatType", soldOut.seatType().name())
+                    .field("requested", soldOut.requested()).field("available", soldOut.available()).endObject());
+            case BookingResult.Conflict conflict -> send(exchange, 409, json -> json.beginObject()
+                    .field("status", "CONFLICT").field("reason", conflict.reason()).endObject());
+        }
+    }
+
+    // GET /api/stream/seats?showTimeId=...; holds the connection until the client leaves
+    private void seatStream(HttpExchange exchange) throws IOException, HttpError {
+        requireExactPath(exchange, "/api/stream/seats");
+        Map<String, String> query = parseForm(exchange.getRequestURI().getRawQuery());
+        ShowTime showTime = findShowTime(required(query, "showTimeId"));
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        try (BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            new SeatEventStream(out).run(seatFeed, showTime);
+        } catch (IOException e) {
+            // The client disconnected; nothing more to send
+        }
+    }
+
+    private void writeMovie(JsonWriter json, Movie movie) throws IOException {
+        json.beginObject().field("id", movie.getId()).field("title", movie.getTitle())
+                .field("language", movie.getLanguage()).field("genre", movie.getGenre())
+                .field("format", movie.getFormat()).field("imdbRating", movie.getImdbRating())
+                .field("releaseDate", movie.getReleaseDate()).field("duration", movie.getDuration())
+                .name("showTimes").beginArray();
+        for (ShowTime showTime : movieManager.getShowTimes(movie)) {
+            json.beginObject();
+            writeShowTimeFields(json, showTime);
+            json.endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private static void writeShowTimeFields(JsonWriter json, ShowTime showTime) throws IOException {
+        json.field("showTimeId", showTime.getId()).field("screenId", showTime.getScreenId())
+                .field("day", showTime.getDay()).field("time", showTime.getTime())
+                .field("startMinute", showTime.getStartMinute());
+    }
+
+    private static void writeBooking(JsonWriter json, Booking booking) throws IOException {
+        SeatLayout layout = booking.getShowTime().getSeatMap().getLayout();
+        json.beginObject().field("status", "BOOKED").field("movieId", booking.getMovie().getId())
+                .field("title", booking.getMovie().getTitle());
+        writeShowTimeFields(json, booking.getShowTime());
+        json.name("seats").beginArray();
+        for (Seat seat : booking.getSeats()) {
+            json.beginObject().field("seat", layout.getSeatLabel(seat.getIndex()))
+                    .field("seatType", seat.getSeatType().name()).moneyField("price", seat.getPrice()).endObject();
+        }
+        json.endArray().moneyField("totalPrice", booking.getTotalPrice()).endObject();
+    }
+
+    private ShowTime findShowTime(String id) throws HttpError {
+        ShowTime showTime;
+        try {
+            showTime = movieManager.getShowTime(Integer.parseInt(id.trim()));
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Not a showtime ID: " + id);
+        }
+        if (showTime == null) {
+            throw new HttpError(404, "Showtime not found");
+        }
+        return showTime;
+    }
+
+    // Registers a handler, answering errors as JSON and timing every request, e.g. as http.movies.search
+    private void route(String path, String method, Handler handler) {
+        String name = path.substring("/api/".length()).replaceAll("/$", "").replace('/', '.');
+        LatencyHistogram latency = Metrics.getMetrics().latency("http." + name);
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    throw new HttpError(405, "Use " + method);
+                }
+                handler.handle(exchange);
+            } catch (HttpError e) {
+                sendError(exchange, e.status, e.getMessage());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                SERVER_ERRORS.increment();
+                sendError(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+                latency.recordSince(start);
+            }
+        });
+    }
+
+    private static void send(HttpExchange exchange, int status, Body body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0); // Chunked: the length is known only once written
+        try (JsonWriter json = new JsonWriter(
+                new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+            body.write(json);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            send(exchange, status, json -> json.beginObject().field("error", message).endObject());
+        } catch (IOException e) {
+            // The client went away, or the response had already started
+            e.printStackTrace();
+        }
+    }
+
+    private static void requireExactPath(HttpExchange exchange, String path) throws HttpError {
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            throw new HttpError(404, "Not found");
+        }
+    }
+
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException, HttpError {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_FORM_BYTES + 1);
+            if (body.length > MAX_FORM_BYTES) {
+                throw new HttpError(413, "Request body too large");
+            }
+            return parseForm(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    // Parses a query string or form body; the first value of a repeated name wins
+    private static Map<String, String> parseForm(String encoded) throws HttpError {
+        Map<String, String> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        try {
+            for (String pair : encoded.split("&")) {
+                int equals = pair.indexOf('=');
+                String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+                String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+                params.putIfAbsent(name, value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, "Malformed parameters");
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) throws HttpError {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new HttpError(400, name + " is required");
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) throws HttpError {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, name + " must be a whole number");
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, HttpError;
+    }
+
+    private interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    // Ends a request early with an HTTP status and a message for the client
+    private static final class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
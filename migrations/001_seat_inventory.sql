@@ -0,0 +1,27 @@
+-- Migration 001: showtime-scoped seat inventory
+-- Adds seat_inventory and backfills it from existing booking_seats rows.
+-- Safe to run more than once.
+USE cinemahub;
+
+CREATE TABLE IF NOT EXISTS seat_inventory (
+    showtime_id INT NOT NULL,
+    seat_index INT NOT NULL,
+    booking_id INT NOT NULL,
+    PRIMARY KEY (showtime_id, seat_index),
+    FOREIGN KEY (showtime_id) REFERENCES showtimes(showtime_id) ON DELETE CASCADE,
+    FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE CASCADE
+);
+
+-- Seats that were sold more than once before the inventory existed.
+-- Review these before migrating; the earliest booking keeps the seat below.
+SELECT b.showtime_id, bs.seat_index, COUNT(*) AS times_sold, GROUP_CONCAT(b.booking_id) AS bookings
+FROM booking_seats bs
+JOIN bookings b ON bs.booking_id = b.booking_id
+GROUP BY b.showtime_id, bs.seat_index
+HAVING COUNT(*) > 1;
+
+INSERT IGNORE INTO seat_inventory (showtime_id, seat_index, booking_id)
+SELECT b.showtime_id, bs.seat_index, MIN(b.booking_id)
+FROM booking_seats bs
+JOIN bookings b ON bs.booking_id = b.booking_id
+GROUP BY b.showtime_id, bs.seat_index;
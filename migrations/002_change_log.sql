@@ -0,0 +1,39 @@
+-- Migration 002: change log for incremental catalog refresh
+-- Adds change_log and the triggers that fill it. Safe to run more than once.
+USE cinemahub;
+
+CREATE TABLE IF NOT EXISTS change_log (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity VARCHAR(20) NOT NULL, -- 'MOVIE', 'SHOWTIME' or 'SEAT'
+    entity_id INT NOT NULL, -- movie_id or showtime_id (the showtime for 'SEAT')
+    seat_index INT, -- 'SEAT' only
+    operation CHAR(1) NOT NULL, -- 'I'nsert, 'U'pdate, 'D'elete
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+DROP TRIGGER IF EXISTS movies_after_insert;
+CREATE TRIGGER movies_after_insert AFTER INSERT ON movies FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('MOVIE', NEW.movie_id, 'I');
+DROP TRIGGER IF EXISTS movies_after_update;
+CREATE TRIGGER movies_after_update AFTER UPDATE ON movies FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('MOVIE', NEW.movie_id, 'U');
+DROP TRIGGER IF EXISTS movies_after_delete;
+CREATE TRIGGER movies_after_delete AFTER DELETE ON movies FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('MOVIE', OLD.movie_id, 'D');
+
+DROP TRIGGER IF EXISTS showtimes_after_insert;
+CREATE TRIGGER showtimes_after_insert AFTER INSERT ON showtimes FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('SHOWTIME', NEW.showtime_id, 'I');
+DROP TRIGGER IF EXISTS showtimes_after_update;
+CREATE TRIGGER showtimes_after_update AFTER UPDATE ON showtimes FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('SHOWTIME', NEW.showtime_id, 'U');
+DROP TRIGGER IF EXISTS showtimes_after_delete;
+CREATE TRIGGER showtimes_after_delete AFTER DELETE ON showtimes FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('SHOWTIME', OLD.showtime_id, 'D');
+
+DROP TRIGGER IF EXISTS seat_inventory_after_insert;
+CREATE TRIGGER seat_inventory_after_insert AFTER INSERT ON seat_inventory FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, seat_index, operation) VALUES ('SEAT', NEW.showtime_id, NEW.seat_index, 'I');
+DROP TRIGGER IF EXISTS seat_inventory_after_delete;
+CREATE TRIGGER seat_inventory_after_delete AFTER DELETE ON seat_inventory FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, seat_index, operation) VALUES ('SEAT', OLD.showtime_id, OLD.seat_index, 'D');
@@ -0,0 +1,23 @@
+-- Migration 003: typed showtime schedule
+-- Replaces the free-form day and show_time columns with start_minute, the
+-- minute of the week the show starts (0 = Mon 00:00, 10079 = Sun 23:59).
+USE cinemahub;
+
+ALTER TABLE showtimes ADD COLUMN start_minute SMALLINT UNSIGNED NULL AFTER movie_id;
+
+-- Days are matched on their first three letters ('Fri', 'friday') and times
+-- must be 24-hour 'H:mm' or 'HH:mm'; anything else is left NULL.
+UPDATE showtimes
+SET start_minute = (FIELD(UPPER(LEFT(TRIM(day), 3)), 'MON', 'TUE', 'WED', 'THU', 'FRI', 'SAT', 'SUN') - 1) * 1440
+    + CAST(SUBSTRING_INDEX(TRIM(show_time), ':', 1) AS UNSIGNED) * 60
+    + CAST(SUBSTRING_INDEX(TRIM(show_time), ':', -1) AS UNSIGNED)
+WHERE FIELD(UPPER(LEFT(TRIM(day), 3)), 'MON', 'TUE', 'WED', 'THU', 'FRI', 'SAT', 'SUN') > 0
+    AND TRIM(show_time) REGEXP '^([01]?[0-9]|2[0-3]):[0-5][0-9]$';
+
+-- Showtimes that could not be converted. Fix these by hand (set start_minute)
+-- before continuing: the next statement fails while any remain.
+SELECT showtime_id, movie_id, day, show_time FROM showtimes WHERE start_minute IS NULL;
+
+ALTER TABLE showtimes MODIFY start_minute SMALLINT UNSIGNED NOT NULL;
+ALTER TABLE showtimes ADD INDEX idx_showtimes_start (start_minute);
+ALTER TABLE showtimes DROP COLUMN day, DROP COLUMN show_time;
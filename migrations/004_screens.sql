@@ -0,0 +1,26 @@
+-- Migration 004: screens
+-- Adds screens and assigns every existing showtime to 'Screen 1'.
+USE cinemahub;
+
+CREATE TABLE IF NOT EXISTS screens (
+    screen_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    cleanup_minutes INT NOT NULL DEFAULT 15
+);
+INSERT IGNORE INTO screens (screen_id, name) VALUES (1, 'Screen 1');
+
+ALTER TABLE showtimes ADD COLUMN screen_id INT NOT NULL DEFAULT 1 AFTER movie_id;
+ALTER TABLE showtimes ALTER COLUMN screen_id DROP DEFAULT;
+ALTER TABLE showtimes ADD FOREIGN KEY (screen_id) REFERENCES screens(screen_id);
+ALTER TABLE showtimes ADD INDEX idx_showtimes_screen_start (screen_id, start_minute);
+
+-- Existing showtimes now share one screen, so some may overlap. They are kept;
+-- the application only refuses new overlaps. Move these to other screens as needed.
+SELECT a.showtime_id, b.showtime_id AS overlaps_showtime_id, a.start_minute, m.duration
+FROM showtimes a
+JOIN movies m ON m.movie_id = a.movie_id
+JOIN screens s ON s.screen_id = a.screen_id
+JOIN showtimes b ON b.screen_id = a.screen_id AND b.showtime_id <> a.showtime_id
+    AND b.start_minute >= a.start_minute
+    AND b.start_minute < a.start_minute + m.duration + s.cleanup_minutes
+ORDER BY a.start_minute;
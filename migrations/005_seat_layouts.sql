@@ -0,0 +1,30 @@
+-- Migration 005: seat layout templates
+-- Adds seat_layouts and gives every screen and showtime the standard 10x10
+-- layout, whose seat indices 0-99 are the ones already sold.
+USE cinemahub;
+
+CREATE TABLE IF NOT EXISTS seat_layouts (
+    layout_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    cells TEXT NOT NULL,
+    tier_prices VARCHAR(255) NOT NULL
+);
+INSERT IGNORE INTO seat_layouts (layout_id, name, cells, tier_prices) VALUES (1, 'Standard 10x10', CONCAT(
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'P1P1P1P1P1P1P1P1P1P1/',
+        'P1P1P1P1P1P1P1P1P1P1/',
+        'P1P1P1P1P1P1P1P1P1P1/',
+        'V2V2V2V2V2V2V2V2V2V2/',
+        'V2V2V2V2V2V2V2V2V2V2'),
+    '500.00,750.00,1000.00');
+
+ALTER TABLE screens ADD COLUMN layout_id INT NOT NULL DEFAULT 1;
+ALTER TABLE screens ADD FOREIGN KEY (layout_id) REFERENCES seat_layouts(layout_id);
+
+ALTER TABLE showtimes ADD COLUMN layout_id INT NOT NULL DEFAULT 1;
+ALTER TABLE showtimes ALTER COLUMN layout_id DROP DEFAULT;
+ALTER TABLE showtimes ADD FOREIGN KEY (layout_id) REFERENCES seat_layouts(layout_id);
@@ -0,0 +1,17 @@
+-- Migration 006: price rules
+-- Adds pricing rules. With no rules, seats sell at their layout's base prices as before.
+USE cinemahub;
+
+CREATE TABLE IF NOT EXISTS price_rules (
+    rule_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    seat_type VARCHAR(20), -- 'STANDARD', 'PREMIUM', 'VIP' or NULL for all
+    days VARCHAR(30), -- Comma-separated, e.g. 'SAT,SUN'; NULL for every day
+    from_minute SMALLINT NOT NULL DEFAULT 0, -- Time band start, minute of the day (inclusive)
+    to_minute SMALLINT NOT NULL DEFAULT 1440, -- Time band end (exclusive); at or before the start wraps midnight
+    min_occupancy_pct TINYINT NOT NULL DEFAULT 0, -- Surge threshold; 0 for always
+    promo_code VARCHAR(30), -- Upper case; NULL unless a code is required
+    adjustment_bps INT NOT NULL DEFAULT 0, -- Percentage in basis points: -2000 = 20% off
+    adjustment_amount DECIMAL(10, 2) NOT NULL DEFAULT 0.00, -- Fixed change per seat
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
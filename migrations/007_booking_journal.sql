@@ -0,0 +1,10 @@
+-- Migration 007: booking journal
+-- Records which journal entry each booking was replicated from, so replaying a
+-- journal after a crash cannot insert a booking twice. Bookings saved directly
+-- leave both columns NULL, which the unique key allows any number of times.
+USE cinemahub;
+
+ALTER TABLE bookings
+    ADD COLUMN journal_id BIGINT NULL,
+    ADD COLUMN journal_seq BIGINT NULL,
+    ADD UNIQUE KEY unique_journal_entry (journal_id, journal_seq);
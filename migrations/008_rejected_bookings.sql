@@ -0,0 +1,21 @@
+-- Migration 008: rejected bookings
+-- Journaled bookings that were confirmed to the customer but could not be
+-- replicated, e.g. because another instance sold one of their seats first.
+-- They are kept here for a refund or rebooking instead of being dropped.
+USE cinemahub;
+
+CREATE TABLE IF NOT EXISTS rejected_bookings (
+    rejection_id INT AUTO_INCREMENT PRIMARY KEY,
+    journal_id BIGINT NOT NULL, -- Booking journal the booking was confirmed from
+    journal_seq BIGINT NOT NULL, -- Its sequence in that journal
+    showtime_id INT NOT NULL, -- No foreign key: a deleted showtime may be why it was rejected
+    nic VARCHAR(50),
+    name VARCHAR(100),
+    email VARCHAR(100),
+    seat_indexes TEXT NOT NULL, -- Comma-separated seat indexes, as in booking_seats
+    total_price DECIMAL(10, 2) NOT NULL,
+    booking_date TIMESTAMP NOT NULL, -- When the booking was confirmed
+    reason VARCHAR(20) NOT NULL, -- 'SEAT_TAKEN' or 'INVALID'
+    rejected_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY unique_rejected_entry (journal_id, journal_seq)
+);
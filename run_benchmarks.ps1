@@ -0,0 +1,22 @@
+# Pass JMH arguments to pick benchmarks and settings, e.g.
+#   .\run_benchmarks.ps1 checkSeat titleSearch -p movies=100 -t 4
+# Options for the benchmark JVMs go in -JavaOptions, not among the JMH arguments, e.g.
+#   .\run_benchmarks.ps1 DatabaseBenchmarks -JavaOptions "-Dcinemahub.bench.url=jdbc:mysql://localhost:3306/cinemahub_bench?createDatabaseIfNotExist=true"
+param([string]$JavaOptions = "")
+
+# Start build
+Write-Host "Building benchmarks..."
+mvn -B -q package -pl benchmarks -am
+
+if ($LASTEXITCODE -eq 0) {
+    Write-Host "Build successful. Running benchmarks..."
+    $jmhArgs = @($args) + @("-rf", "json", "-rff", "bench-results.json")
+    if ($JavaOptions) {
+        # JMH runs each benchmark in a forked JVM; system properties have to reach the fork
+        $jmhArgs += @("-jvmArgsAppend", $JavaOptions)
+    }
+    java -jar benchmarks/target/benchmarks.jar @jmhArgs
+}
+else {
+    Write-Host "Build failed."
+}
@@ -5,9 +5,11 @@ if (-not (Test-Path "out")) { mkdir out }
 Write-Host "Compiling source files..."
 javac -d out `
     com/cinemahub/model/*.java `
+    com/cinemahub/metrics/*.java `
     com/cinemahub/util/*.java `
     com/cinemahub/dao/*.java `
     com/cinemahub/service/*.java `
+    com/cinemahub/web/*.java `
     com/cinemahub/ui/*.java
 
 if ($?) {
@@ -13,16 +13,59 @@ CREATE TABLE IF NOT EXISTS movies (
     duration INT NOT NULL -- in minutes
 );
 
--- 2. ShowTimes Table
+-- 2. Seat Layouts Table
+-- Seat layout templates, shared by screens and showtimes. cells holds the grid
+-- row by row ('/' between rows), two characters per cell: the seat type
+-- initial (S, P, V) and a price tier digit, or '__' for an aisle or gap.
+-- tier_prices lists the price of each tier, comma separated.
+CREATE TABLE IF NOT EXISTS seat_layouts (
+    layout_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    cells TEXT NOT NULL,
+    tier_prices VARCHAR(255) NOT NULL
+);
+INSERT IGNORE INTO seat_layouts (layout_id, name, cells, tier_prices) VALUES (1, 'Standard 10x10', CONCAT(
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'S0S0S0S0S0S0S0S0S0S0/',
+        'P1P1P1P1P1P1P1P1P1P1/',
+        'P1P1P1P1P1P1P1P1P1P1/',
+        'P1P1P1P1P1P1P1P1P1P1/',
+        'V2V2V2V2V2V2V2V2V2V2/',
+        'V2V2V2V2V2V2V2V2V2V2'),
+    '500.00,750.00,1000.00');
+
+-- 3. Screens Table
+-- A screen shows one film at a time; cleanup_minutes is the turnaround
+-- needed after each show before the next may start.
+CREATE TABLE IF NOT EXISTS screens (
+    screen_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    cleanup_minutes INT NOT NULL DEFAULT 15,
+    layout_id INT NOT NULL DEFAULT 1,
+    FOREIGN KEY (layout_id) REFERENCES seat_layouts(layout_id)
+);
+INSERT IGNORE INTO screens (screen_id, name) VALUES (1, 'Screen 1');
+
+-- 4. ShowTimes Table
+-- layout_id is the screen's layout when the show was scheduled; it is kept
+-- per showtime so seat indices already sold stay valid if the screen is refitted.
 CREATE TABLE IF NOT EXISTS showtimes (
     showtime_id INT AUTO_INCREMENT PRIMARY KEY,
     movie_id INT NOT NULL,
-    day VARCHAR(20) NOT NULL, -- e.g., 'Mon', 'Tue'
-    show_time VARCHAR(20) NOT NULL, -- e.g., '16:00'
-    FOREIGN KEY (movie_id) REFERENCES movies(movie_id) ON DELETE CASCADE
+    screen_id INT NOT NULL,
+    start_minute SMALLINT UNSIGNED NOT NULL, -- Minute of the week: 0 = Mon 00:00, 1110 = Mon 18:30
+    layout_id INT NOT NULL,
+    FOREIGN KEY (movie_id) REFERENCES movies(movie_id) ON DELETE CASCADE,
+    FOREIGN KEY (screen_id) REFERENCES screens(screen_id),
+    FOREIGN KEY (layout_id) REFERENCES seat_layouts(layout_id),
+    INDEX idx_showtimes_start (start_minute),
+    INDEX idx_showtimes_screen_start (screen_id, start_minute)
 );
 
--- 3. Users Table
+-- 5. Users Table
 CREATE TABLE IF NOT EXISTS users (
     user_id INT AUTO_INCREMENT PRIMARY KEY,
     nic VARCHAR(50) NOT NULL UNIQUE, -- National ID as unique identifier
@@ -30,27 +73,133 @@ CREATE TABLE IF NOT EXISTS users (
     email VARCHAR(100) NOT NULL
 );
 
--- 4. Bookings Table
+-- 6. Bookings Table
 CREATE TABLE IF NOT EXISTS bookings (
     booking_id INT AUTO_INCREMENT PRIMARY KEY,
     user_id INT NOT NULL,
     showtime_id INT NOT NULL,
     total_price DECIMAL(10, 2) NOT NULL,
     booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    journal_id BIGINT NULL, -- Booking journal or group-commit writer the booking came from, if any
+    journal_seq BIGINT NULL, -- Its sequence in that journal or writer
     FOREIGN KEY (user_id) REFERENCES users(user_id),
-    FOREIGN KEY (showtime_id) REFERENCES showtimes(showtime_id)
+    FOREIGN KEY (showtime_id) REFERENCES showtimes(showtime_id),
+    UNIQUE KEY unique_journal_entry (journal_id, journal_seq)
 );
 
--- 5. Booking Seats Table
+-- 7. Booking Seats Table
 -- Maps specific seats to a booking. 
--- Since the application uses a fixed list of 100 seats per showtime (Indices 0-99), 
--- we store the 'seat_index' to reconstruct which seats are taken.
+-- seat_index numbers the seats of the showtime's layout row by row, skipping
+-- gaps; we store it to reconstruct which seats are taken.
 CREATE TABLE IF NOT EXISTS booking_seats (
     booking_seat_id INT AUTO_INCREMENT PRIMARY KEY,
     booking_id INT NOT NULL,
-    seat_index INT NOT NULL, -- 0 to 99
+    seat_index INT NOT NULL, -- 0 to layout size - 1
     seat_type VARCHAR(20) NOT NULL, -- 'STANDARD', 'PREMIUM', 'VIP'
     price DECIMAL(10, 2) NOT NULL,
     FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE CASCADE,
     UNIQUE KEY unique_seat_per_show (booking_id, seat_index) 
 );
+
+-- 8. Seat Inventory Table
+-- One row per sold seat, keyed by showtime and seat. The primary key is what
+-- stops two bookings from selling the same seat for the same showtime: a
+-- booking claims its seats with a single INSERT IGNORE and compares the
+-- affected-row count with the number of seats it asked for.
+CREATE TABLE IF NOT EXISTS seat_inventory (
+    showtime_id INT NOT NULL,
+    seat_index INT NOT NULL,
+    booking_id INT NOT NULL,
+    PRIMARY KEY (showtime_id, seat_index),
+    FOREIGN KEY (showtime_id) REFERENCES showtimes(showtime_id) ON DELETE CASCADE,
+    FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE CASCADE
+);
+
+-- 9. Change Log Table
+-- Every insert, update and delete of movies, showtimes and sold seats is
+-- recorded here by the triggers below. MovieManager.refreshSince(version) reads
+-- it to patch the in-memory catalog instead of reloading everything.
+-- Versions are assigned at insert time, so a slow transaction can commit a lower
+-- version after a higher one; readers re-read a short grace window to catch it.
+-- MySQL does not fire triggers for rows removed by ON DELETE CASCADE; a deleted
+-- movie implies its showtimes are gone.
+CREATE TABLE IF NOT EXISTS change_log (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity VARCHAR(20) NOT NULL, -- 'MOVIE', 'SHOWTIME' or 'SEAT'
+    entity_id INT NOT NULL, -- movie_id or showtime_id (the showtime for 'SEAT')
+    seat_index INT, -- 'SEAT' only
+    operation CHAR(1) NOT NULL, -- 'I'nsert, 'U'pdate, 'D'elete
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+DROP TRIGGER IF EXISTS movies_after_insert;
+CREATE TRIGGER movies_after_insert AFTER INSERT ON movies FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('MOVIE', NEW.movie_id, 'I');
+DROP TRIGGER IF EXISTS movies_after_update;
+CREATE TRIGGER movies_after_update AFTER UPDATE ON movies FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('MOVIE', NEW.movie_id, 'U');
+DROP TRIGGER IF EXISTS movies_after_delete;
+CREATE TRIGGER movies_after_delete AFTER DELETE ON movies FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('MOVIE', OLD.movie_id, 'D');
+
+DROP TRIGGER IF EXISTS showtimes_after_insert;
+CREATE TRIGGER showtimes_after_insert AFTER INSERT ON showtimes FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('SHOWTIME', NEW.showtime_id, 'I');
+DROP TRIGGER IF EXISTS showtimes_after_update;
+CREATE TRIGGER showtimes_after_update AFTER UPDATE ON showtimes FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('SHOWTIME', NEW.showtime_id, 'U');
+DROP TRIGGER IF EXISTS showtimes_after_delete;
+CREATE TRIGGER showtimes_after_delete AFTER DELETE ON showtimes FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, operation) VALUES ('SHOWTIME', OLD.showtime_id, 'D');
+
+DROP TRIGGER IF EXISTS seat_inventory_after_insert;
+CREATE TRIGGER seat_inventory_after_insert AFTER INSERT ON seat_inventory FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, seat_index, operation) VALUES ('SEAT', NEW.showtime_id, NEW.seat_index, 'I');
+DROP TRIGGER IF EXISTS seat_inventory_after_delete;
+CREATE TRIGGER seat_inventory_after_delete AFTER DELETE ON seat_inventory FOR EACH ROW
+    INSERT INTO change_log (entity, entity_id, seat_index, operation) VALUES ('SEAT', OLD.showtime_id, OLD.seat_index, 'D');
+
+-- 10. Price Rules Table
+-- Adjustments to the seat layout's base prices. A rule applies when all of its
+-- conditions hold; NULL seat_type/days and the 0-1440 time band match every show.
+-- Matching percentages are added up and applied once, then fixed amounts are
+-- added. Rules with a promo_code only apply when the customer enters it, and
+-- surge rules (min_occupancy_pct > 0) once that share of the show's seats is taken.
+-- Examples:
+--   ('Matinee', NULL, NULL, 0, 1020, 0, NULL, -2000, 0.00)          20% off before 17:00
+--   ('Weekend', NULL, 'SAT,SUN', 0, 1440, 0, NULL, 1000, 0.00)       10% more on weekends
+--   ('Nearly full', NULL, NULL, 0, 1440, 80, NULL, 1500, 0.00)       15% more once 80% sold
+--   ('Student', 'STANDARD', NULL, 0, 1440, 0, 'STUDENT', 0, -100.00) Rs.100 off a standard seat
+CREATE TABLE IF NOT EXISTS price_rules (
+    rule_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    seat_type VARCHAR(20), -- 'STANDARD', 'PREMIUM', 'VIP' or NULL for all
+    days VARCHAR(30), -- Comma-separated, e.g. 'SAT,SUN'; NULL for every day
+    from_minute SMALLINT NOT NULL DEFAULT 0, -- Time band start, minute of the day (inclusive)
+    to_minute SMALLINT NOT NULL DEFAULT 1440, -- Time band end (exclusive); at or before the start wraps midnight
+    min_occupancy_pct TINYINT NOT NULL DEFAULT 0, -- Surge threshold; 0 for always
+    promo_code VARCHAR(30), -- Upper case; NULL unless a code is required
+    adjustment_bps INT NOT NULL DEFAULT 0, -- Percentage in basis points: -2000 = 20% off
+    adjustment_amount DECIMAL(10, 2) NOT NULL DEFAULT 0.00, -- Fixed change per seat
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+-- 11. Rejected Bookings Table
+-- Journaled bookings that were confirmed to the customer but could not be
+-- replicated, e.g. because another instance sold one of their seats first.
+-- They are kept here for a refund or rebooking instead of being dropped.
+CREATE TABLE IF NOT EXISTS rejected_bookings (
+    rejection_id INT AUTO_INCREMENT PRIMARY KEY,
+    journal_id BIGINT NOT NULL, -- Booking journal the booking was confirmed from
+    journal_seq BIGINT NOT NULL, -- Its sequence in that journal
+    showtime_id INT NOT NULL, -- No foreign key: a deleted showtime may be why it was rejected
+    nic VARCHAR(50),
+    name VARCHAR(100),
+    email VARCHAR(100),
+    seat_indexes TEXT NOT NULL, -- Comma-separated seat indexes, as in booking_seats
+    total_price DECIMAL(10, 2) NOT NULL,
+    booking_date TIMESTAMP NOT NULL, -- When the booking was confirmed
+    reason VARCHAR(20) NOT NULL, -- 'SEAT_TAKEN' or 'INVALID'
+    rejected_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY unique_rejected_entry (journal_id, journal_seq)
+);